@@ -0,0 +1,348 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3;
+
+import org.apache.commons.jexl3.internal.Script;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Executes a script over a batch of contexts in parallel.
+ * <p>The batch is split across the tasks of a {@link ForkJoinPool}; each context is evaluated through
+ * a script {@link JexlScript#callable(JexlContext) callable}. The results are collected in the order of
+ * the contexts, an evaluation error being collected as the result exception instead of failing the batch.</p>
+ * <p>A batch can be cancelled - explicitly or when its timeout expires - which cancels all its running evaluations
+ * and skips the ones not yet started. A batch that times out or whose caller is interrupted returns at once,
+ * the evaluations that did not finish being reported as cancelled.</p>
+ * <p>Typical use:</p>
+ * <pre>
+ * JexlBatch batch = new JexlBatch(ForkJoinPool.commonPool()).timeout(5, TimeUnit.SECONDS);
+ * for (JexlBatch.Result result : batch.execute(script, contexts)) {
+ *     ...
+ * }
+ * </pre>
+ * @since 3.3.1
+ */
+public final class JexlBatch {
+    /** The pool. */
+    private final ForkJoinPool pool;
+    /** The timeout in milliseconds, 0 if none. */
+    private long timeout = 0L;
+    /** The running executions. */
+    private final Set<Execution> executions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The result of an evaluation.
+     */
+    public static final class Result {
+        /** The value. */
+        private final Object value;
+        /** The error. */
+        private final JexlException exception;
+        /** Whether the evaluation was cancelled. */
+        private final boolean cancelled;
+
+        /**
+         * Creates a result.
+         * @param value the value
+         * @param exception the error
+         * @param cancelled whether the evaluation was cancelled
+         */
+        private Result(final Object value, final JexlException exception, final boolean cancelled) {
+            this.value = value;
+            this.exception = exception;
+            this.cancelled = cancelled;
+        }
+
+        /**
+         * @return the evaluation value, null if it failed or was cancelled
+         */
+        public Object getValue() {
+            return value;
+        }
+
+        /**
+         * @return the evaluation error, null if none
+         */
+        public JexlException getException() {
+            return exception;
+        }
+
+        /**
+         * @return true if the evaluation was cancelled or skipped, false otherwise
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public String toString() {
+            return cancelled ? "cancelled" : exception != null ? exception.toString() : String.valueOf(value);
+        }
+    }
+
+    /** The result of skipped evaluations. */
+    private static final Result SKIPPED = new Result(null, null, true);
+
+    /**
+     * Creates a batch executor.
+     * @param pool the pool running the evaluations
+     */
+    public JexlBatch(final ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Sets the maximum duration of each batch.
+     * <p>When the timeout expires, the batch is cancelled and its results are returned at once, without
+     * waiting for the evaluations still running: these are cancelled but, stuck in code that can not be
+     * cancelled, may keep running in the pool; their results are reported as cancelled.</p>
+     * @param duration the duration, 0 for none
+     * @param unit the duration unit
+     * @return this batch executor
+     */
+    public JexlBatch timeout(final long duration, final TimeUnit unit) {
+        this.timeout = unit.toMillis(duration);
+        return this;
+    }
+
+    /**
+     * @return the maximum duration of each batch in milliseconds, 0 if none
+     */
+    public long timeout() {
+        return timeout;
+    }
+
+    /**
+     * Cancels all the running batches.
+     */
+    public void cancel() {
+        executions.forEach(Execution::cancel);
+    }
+
+    /**
+     * Executes a script over contexts.
+     * @param script the script
+     * @param contexts the contexts, one per evaluation
+     * @return the results, one per context, in order
+     */
+    public List<Result> execute(final JexlScript script, final List<? extends JexlContext> contexts) {
+        return execute(script, contexts, (Object[]) null);
+    }
+
+    /**
+     * Executes a script over contexts with the same arguments.
+     * @param script the script
+     * @param contexts the contexts, one per evaluation
+     * @param args the script arguments
+     * @return the results, one per context, in order
+     */
+    public List<Result> execute(final JexlScript script, final List<? extends JexlContext> contexts,
+                                final Object... args) {
+        final AtomicReferenceArray<Result> results = new AtomicReferenceArray<>(contexts.size());
+        final Execution execution = new Execution(script, contexts, args, results, pool.getParallelism());
+        executions.add(execution);
+        try {
+            final ForkJoinTask<Void> task = pool.submit(new Slice(execution, 0, results.length()));
+            try {
+                if (timeout > 0L) {
+                    task.get(timeout, TimeUnit.MILLISECONDS);
+                } else {
+                    task.get();
+                }
+            } catch (final TimeoutException xtimeout) {
+                execution.cancel();
+                return unfinished(results);
+            } catch (final InterruptedException xint) {
+                execution.cancel();
+                Thread.currentThread().interrupt();
+                return unfinished(results);
+            }
+        } catch (final ExecutionException xexec) {
+            final Throwable cause = xexec.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+        } finally {
+            executions.remove(execution);
+        }
+        return snapshot(results);
+    }
+
+    /**
+     * Collects the results of a cancelled execution without waiting for its running evaluations.
+     * <p>The results are read through volatile reads, each finished evaluation having published its result
+     * through a volatile write.</p>
+     * @param results the results, filled concurrently by the evaluations still running
+     * @return the finished results, the unfinished ones being cancelled
+     */
+    private static List<Result> unfinished(final AtomicReferenceArray<Result> results) {
+        final Result[] snapshot = new Result[results.length()];
+        for (int r = 0; r < snapshot.length; ++r) {
+            final Result result = results.get(r);
+            snapshot[r] = result != null ? result : SKIPPED;
+        }
+        return Collections.unmodifiableList(Arrays.asList(snapshot));
+    }
+
+    /**
+     * Collects the results of a completed execution.
+     * @param results the results
+     * @return the results list
+     */
+    private static List<Result> snapshot(final AtomicReferenceArray<Result> results) {
+        final Result[] snapshot = new Result[results.length()];
+        for (int r = 0; r < snapshot.length; ++r) {
+            snapshot[r] = results.get(r);
+        }
+        return Collections.unmodifiableList(Arrays.asList(snapshot));
+    }
+
+    /**
+     * The state of a batch execution.
+     */
+    private static final class Execution {
+        /** The script. */
+        private final JexlScript script;
+        /** The contexts. */
+        private final List<? extends JexlContext> contexts;
+        /** The arguments. */
+        private final Object[] args;
+        /** The results, published through volatile writes. */
+        private final AtomicReferenceArray<Result> results;
+        /** The shared cancellation flag. */
+        private final AtomicBoolean cancelled = new AtomicBoolean(false);
+        /** The running evaluations. */
+        private final Set<Callable<Object>> running = ConcurrentHashMap.newKeySet();
+        /** The size of the slices evaluated sequentially. */
+        private final int threshold;
+
+        /**
+         * Creates an execution.
+         * @param script the script
+         * @param contexts the contexts
+         * @param args the arguments
+         * @param results the results
+         * @param parallelism the pool parallelism
+         */
+        Execution(final JexlScript script, final List<? extends JexlContext> contexts, final Object[] args,
+                  final AtomicReferenceArray<Result> results, final int parallelism) {
+            this.script = script;
+            this.contexts = contexts;
+            this.args = args;
+            this.results = results;
+            this.threshold = Math.max(1, results.length() / (4 * parallelism));
+        }
+
+        /**
+         * Cancels this execution.
+         */
+        void cancel() {
+            cancelled.set(true);
+            for (final Callable<Object> callable : running) {
+                if (callable instanceof Script.Callable) {
+                    ((Script.Callable) callable).cancel();
+                }
+            }
+        }
+
+        /**
+         * Evaluates one context.
+         * @param index the context index
+         * @throws Exception if the evaluation fails with an error that is not a JexlException
+         */
+        void evaluate(final int index) throws Exception {
+            if (cancelled.get()) {
+                results.set(index, SKIPPED);
+                return;
+            }
+            final Callable<Object> callable = script.callable(contexts.get(index), args);
+            running.add(callable);
+            try {
+                // the cancellation may have happened before the callable was known
+                if (cancelled.get()) {
+                    results.set(index, SKIPPED);
+                    return;
+                }
+                final Object value = callable.call();
+                final boolean aborted = callable instanceof Script.Callable
+                                        && ((Script.Callable) callable).isCancelled();
+                results.set(index, new Result(aborted ? null : value, null, aborted));
+            } catch (final JexlException.Cancel xcancel) {
+                results.set(index, new Result(null, xcancel, true));
+            } catch (final JexlException xjexl) {
+                results.set(index, new Result(null, xjexl, false));
+            } finally {
+                running.remove(callable);
+            }
+        }
+    }
+
+    /**
+     * A slice of a batch execution.
+     */
+    private static final class Slice extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        /** The execution. */
+        private final transient Execution execution;
+        /** The first index. */
+        private final int from;
+        /** The last index, excluded. */
+        private final int to;
+
+        /**
+         * Creates a slice.
+         * @param execution the execution
+         * @param from the first index
+         * @param to the last index, excluded
+         */
+        Slice(final Execution execution, final int from, final int to) {
+            this.execution = execution;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= execution.threshold) {
+                for (int i = from; i < to; ++i) {
+                    try {
+                        execution.evaluate(i);
+                    } catch (final RuntimeException xrt) {
+                        throw xrt;
+                    } catch (final Exception xany) {
+                        throw new IllegalStateException(xany);
+                    }
+                }
+            } else {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new Slice(execution, from, middle), new Slice(execution, middle, to));
+            }
+        }
+    }
+}
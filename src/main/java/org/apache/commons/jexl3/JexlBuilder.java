@@ -18,6 +18,7 @@
 package org.apache.commons.jexl3;
 
 import org.apache.commons.jexl3.internal.Engine;
+import org.apache.commons.jexl3.internal.SoftCache;
 import org.apache.commons.jexl3.introspection.JexlPermissions;
 import org.apache.commons.jexl3.introspection.JexlSandbox;
 import org.apache.commons.jexl3.introspection.JexlUberspect;
@@ -26,6 +27,7 @@ import org.apache.commons.logging.Log;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
+import java.util.function.IntFunction;
 import java.nio.charset.Charset;
 
 /**
@@ -132,6 +134,24 @@ public class JexlBuilder {
     /** The cache size. */
     private int cache = -1;
 
+    /** The cache class factory. */
+    private IntFunction<JexlCache<?, ?>> cacheFactory = SoftCache::new;
+
+    /** The number of pooled parsers. */
+    private int parserPool = 0;
+
+    /** Whether scripts are compiled. */
+    private boolean compile = false;
+
+    /** Whether constant sub-trees are folded after parsing. */
+    private boolean foldConstants = false;
+
+    /** Whether members are invoked through method handles. */
+    private boolean methodHandles = false;
+
+    /** Whether class members are reflected when first looked up. */
+    private boolean lazyIntrospection = false;
+
     /** The stack overflow limit. */
     private int stackOverflow = Integer.MAX_VALUE;
 
@@ -622,6 +642,29 @@ public class JexlBuilder {
         return cache;
     }
 
+    /**
+     * Sets the expression and template cache factory the engine will use.
+     * <p>The factory is called with the cache size; the default creates a {@link SoftCache} instance.
+     * Use <code>ConcurrentCache::new</code> for a cache whose read path does not lock
+     * (see {@link org.apache.commons.jexl3.internal.ConcurrentCache}).</p>
+     *
+     * @param factory the function to produce a cache, if null, the default is used
+     * @return this builder
+     * @since 3.3.1
+     */
+    public JexlBuilder cacheFactory(final IntFunction<JexlCache<?, ?>> factory) {
+        this.cacheFactory = factory == null ? SoftCache::new : factory;
+        return this;
+    }
+
+    /**
+     * @return the cache factory
+     * @since 3.3.1
+     */
+    public IntFunction<JexlCache<?, ?>> cacheFactory() {
+        return this.cacheFactory;
+    }
+
     /**
      * Sets the maximum length for an expression to be cached.
      * <p>Expression whose length is greater than this expression cache length threshold will
@@ -644,6 +687,129 @@ public class JexlBuilder {
         return cacheThreshold;
     }
 
+    /**
+     * Sets the number of parsers the engine keeps for reuse.
+     * <p>The engine parses using a main parser; when it is in use by another thread, a parser is acquired from
+     * a pool whose capacity is set by this method. With a capacity of 0, a temporary parser is created for each
+     * such concurrent parsing. A capacity close to the number of threads creating scripts concurrently
+     * avoids creating parsers when cache misses occur in bursts.</p>
+     *
+     * @param size the maximum number of pooled parsers, if not strictly positive, no parser is pooled
+     * @return this builder
+     * @since 3.3.1
+     */
+    public JexlBuilder parserPool(final int size) {
+        this.parserPool = Math.max(0, size);
+        return this;
+    }
+
+    /**
+     * @return the number of pooled parsers
+     * @since 3.3.1
+     */
+    public int parserPool() {
+        return parserPool;
+    }
+
+    /**
+     * Sets whether scripts are compiled before being evaluated.
+     * <p>A compiled script evaluates its literals, variables, arithmetic, comparison, logical and ternary
+     * operators through pre-built code instead of visiting the tree; every other node is evaluated by the
+     * interpreter. Results, operator overloads and errors are the same as when interpreting.</p>
+     * <p>Compiled code is only used by the engine default interpreter; an engine that creates a derived
+     * interpreter always interprets.</p>
+     *
+     * @param flag true to compile scripts, false to interpret them (the default)
+     * @return this builder
+     * @since 3.3.1
+     */
+    public JexlBuilder compile(final boolean flag) {
+        this.compile = flag;
+        return this;
+    }
+
+    /**
+     * @return true if scripts are compiled, false otherwise
+     * @since 3.3.1
+     */
+    public boolean compile() {
+        return compile;
+    }
+
+    /**
+     * Sets whether constant sub-trees of scripts are folded after parsing.
+     * <p>Operators whose operands are literals are replaced by the literal of their value and the branches
+     * of conditionals whose condition is a boolean literal are pruned; the script parsed text, as rebuilt
+     * by {@link JexlScript#getParsedText()}, shows the folded tree.</p>
+     * <p>Folding only occurs when the engine uses the stock {@link JexlArithmetic}: a derived arithmetic
+     * may overload operators or change their semantics.</p>
+     *
+     * @param flag true to fold constants, false otherwise (the default)
+     * @return this builder
+     * @since 3.3.1
+     */
+    public JexlBuilder foldConstants(final boolean flag) {
+        this.foldConstants = flag;
+        return this;
+    }
+
+    /**
+     * @return true if constant sub-trees are folded, false otherwise
+     * @since 3.3.1
+     */
+    public boolean foldConstants() {
+        return foldConstants;
+    }
+
+    /**
+     * Sets whether methods, properties, public fields and constructors are invoked through method handles.
+     * <p>Method handles avoid the access checks, argument arrays and exception wrapping of reflective calls;
+     * the same permissions apply in both cases. Members that can not be looked up as method handles, like the
+     * ones of non-public classes, are still invoked through reflection.</p>
+     * <p>This is ignored when an uberspect is provided.</p>
+     *
+     * @param flag true to use method handles, false to use reflection (the default)
+     * @return this builder
+     * @since 3.3.1
+     */
+    public JexlBuilder methodHandles(final boolean flag) {
+        this.methodHandles = flag;
+        return this;
+    }
+
+    /**
+     * @return true if members are invoked through method handles, false otherwise
+     * @since 3.3.1
+     */
+    public boolean methodHandles() {
+        return methodHandles;
+    }
+
+    /**
+     * Sets whether class members are reflected when first looked up.
+     * <p>By default, the first time a class is introspected, all the public methods and fields of its hierarchy
+     * are reflected and checked against the permissions. When lazy, only the methods and fields of a given name
+     * are, the first time that name is looked up; this reduces the first evaluation latency and the memory
+     * used when scripts touch many classes but few of their members.</p>
+     * <p>This is ignored when an uberspect is provided.</p>
+     *
+     * @param flag true to reflect members when first looked up, false to reflect classes eagerly (the default)
+     * @return this builder
+     * @since 3.3.1
+     */
+    public JexlBuilder lazyIntrospection(final boolean flag) {
+        this.lazyIntrospection = flag;
+        return this;
+    }
+
+    /**
+     * @return true if class members are reflected when first looked up, false otherwise
+     * @since 3.3.1
+     */
+    public boolean lazyIntrospection() {
+        return lazyIntrospection;
+    }
+
     /**
      * Sets the number of script/expression evaluations that can be stacked.
      * @param size if not strictly positive, limit is reached when java StackOverflow is thrown.
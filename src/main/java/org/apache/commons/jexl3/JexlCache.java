@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Caching scripts or templates interface.
+ * <p>The engine expression cache and the template expression caches are created through a factory
+ * set on the {@link JexlBuilder} (see {@link JexlBuilder#cacheFactory(java.util.function.IntFunction)}).</p>
+ * <p>Implementations are expected to be thread-safe and to be able to release their content under
+ * memory pressure.</p>
+ *
+ * @param <K> source
+ * @param <V> script or template
+ * @since 3.3.1
+ */
+public interface JexlCache<K, V> {
+    /**
+     * Returns the cache capacity, the maximum number of elements it can contain.
+     *
+     * @return the cache capacity
+     */
+    int capacity();
+
+    /**
+     * Clears the cache.
+     */
+    void clear();
+
+    /**
+     * Returns the actual number of elements the cache contains.
+     *
+     * @return the number of cached elements
+     */
+    int count();
+
+    /**
+     * Produces the cache entry set.
+     * <p>
+     * For implementations testing only
+     * </p>
+     * @return the cache entry list
+     */
+    Collection<Map.Entry<K, V>> entries();
+
+    /**
+     * Gets a value from cache.
+     *
+     * @param key the cache entry key
+     * @return the cache entry value
+     */
+    V get(K key);
+
+    /**
+     * Puts a value in cache.
+     *
+     * @param key the cache entry key
+     * @param value the cache entry value
+     */
+    void put(K key, V value);
+}
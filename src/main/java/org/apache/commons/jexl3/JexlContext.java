@@ -245,4 +245,17 @@ public interface JexlContext {
          */
         AtomicBoolean getCancellation();
     }
+
+    /**
+     * A marker interface of the JexlContext that collects execution counters.
+     * <p>When evaluating with such a context, the interpreter records each node evaluation count and time
+     * in the profiler; a null profiler disables this instrumentation.</p>
+     * @since 3.3.1
+     */
+    interface ProfilerHandle {
+        /**
+         * @return the profiler, may be null
+         */
+        JexlProfiler getProfiler();
+    }
 }
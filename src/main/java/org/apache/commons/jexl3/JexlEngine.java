@@ -27,6 +27,8 @@ import java.io.InputStreamReader;
 import java.math.MathContext;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Creates and evaluates JexlExpression and JexlScript objects.
@@ -312,6 +314,44 @@ public abstract class JexlEngine {
      */
     public abstract void clearCache();
 
+    /**
+     * Warms a script up ahead of its first evaluations.
+     * <p>The script is evaluated once with a sample context and arguments; this introspects the classes it uses
+     * and caches the executors of its property accesses, method, function and constructor calls in its nodes.
+     * The sample context should thus be representative of the actual ones and disposable: the evaluation
+     * side effects, if any, are not reverted. An evaluation error does not stop the warm-up, it is reported.</p>
+     * <p>Executors are only cached in nodes when the engine has an expression cache.</p>
+     * <p>The default implementation evaluates the script and reports its error, without listing nodes;
+     * engines that can inspect their scripts override it.</p>
+     *
+     * @param script  the script to warm up, created by this engine
+     * @param context the sample context
+     * @param args    the sample arguments
+     * @return the warm-up report
+     * @since 3.3.1
+     */
+    public JexlWarmUp warmUp(final JexlScript script, final JexlContext context, final Object... args) {
+        JexlException error = null;
+        try {
+            script.execute(context, args);
+        } catch (final JexlException xjexl) {
+            error = xjexl;
+        }
+        return createWarmUp(Collections.emptyList(), error);
+    }
+
+    /**
+     * Creates a warm-up report.
+     * @param entries the member access and operator nodes of the script, in script order
+     * @param error   the sample evaluation error, null if none
+     * @return the report
+     * @since 3.3.1
+     */
+    protected static JexlWarmUp createWarmUp(final List<? extends JexlWarmUp.Entry> entries,
+                                             final JexlException error) {
+        return new JexlWarmUp(entries, error);
+    }
+
     /**
      * Creates an JexlExpression from a String containing valid JEXL syntax.
      * This method parses the expression which must contain either a reference or an expression.
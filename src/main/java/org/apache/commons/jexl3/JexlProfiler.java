@@ -0,0 +1,271 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3;
+
+import org.apache.commons.jexl3.internal.Debugger;
+import org.apache.commons.jexl3.parser.JexlNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates per-node execution counters of scripts.
+ * <p>A profiler is made available to the interpreter through a context implementing
+ * {@link JexlContext.ProfilerHandle}; each node the interpreter visits then records its number of evaluations,
+ * its inclusive time - including its children evaluations - and its exclusive time - its own.</p>
+ * <p>Counters are keyed by node location - script name, line, column, node type and depth - not by node, so
+ * profiling does not retain scripts; evaluations of two parsings of the same script share their counters.</p>
+ * <p>A profiler can be shared by concurrent evaluations. When no profiler is available, the interpreter
+ * is not instrumented.</p>
+ * <p>Typical use:</p>
+ * <pre>
+ * JexlProfiler profiler = new JexlProfiler();
+ * // MyContext implements JexlContext.ProfilerHandle, its getProfiler() returns profiler
+ * script.execute(new MyContext(profiler), args);
+ * System.out.println(profiler.listing(script));
+ * </pre>
+ * @since 3.3.1
+ */
+public final class JexlProfiler {
+    /** The counters per node location. */
+    private final ConcurrentMap<Location, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * The location of a node: its script name, line, column, type and depth in the script tree.
+     */
+    private static final class Location {
+        /** The script name. */
+        private final String name;
+        /** The line. */
+        private final int line;
+        /** The column. */
+        private final int column;
+        /** The node type. */
+        private final Class<?> type;
+        /** The node depth. */
+        private final int depth;
+        /** The hash code. */
+        private final int hash;
+
+        /**
+         * Creates the location of a node.
+         * @param info the node info
+         * @param node the node
+         */
+        Location(final JexlInfo info, final JexlNode node) {
+            int d = 0;
+            for (JexlNode parent = node.jjtGetParent(); parent != null; parent = parent.jjtGetParent()) {
+                d += 1;
+            }
+            name = info != null ? info.getName() : null;
+            line = info != null ? info.getLine() : 0;
+            column = info != null ? info.getColumn() : 0;
+            type = node.getClass();
+            depth = d;
+            hash = Objects.hash(name, line, column, type, depth);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Location)) {
+                return false;
+            }
+            final Location loc = (Location) obj;
+            return hash == loc.hash
+                && line == loc.line
+                && column == loc.column
+                && depth == loc.depth
+                && type == loc.type
+                && Objects.equals(name, loc.name);
+        }
+    }
+
+    /**
+     * The counters of a node location.
+     */
+    public static final class Entry {
+        /** The node information. */
+        private final JexlInfo info;
+        /** The node source. */
+        private final String source;
+        /** The number of evaluations. */
+        private final LongAdder count = new LongAdder();
+        /** The inclusive time. */
+        private final LongAdder inclusive = new LongAdder();
+        /** The exclusive time. */
+        private final LongAdder exclusive = new LongAdder();
+
+        /**
+         * Creates an entry.
+         * @param theInfo the node info
+         * @param node the node, only used to render its source
+         */
+        private Entry(final JexlInfo theInfo, final JexlNode node) {
+            this.info = theInfo;
+            this.source = new Debugger().indentation(0).depth(8).data(node);
+        }
+
+        /**
+         * @return the node information, name, line and column
+         */
+        public JexlInfo getInfo() {
+            return info;
+        }
+
+        /**
+         * @return the node source as rebuilt by the debugger
+         */
+        public String getSource() {
+            return source;
+        }
+
+        /**
+         * @return the number of evaluations
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * @return the cumulated evaluation time in nanoseconds, children included
+         */
+        public long getInclusiveNanos() {
+            return inclusive.sum();
+        }
+
+        /**
+         * @return the cumulated evaluation time in nanoseconds, children excluded
+         */
+        public long getExclusiveNanos() {
+            return exclusive.sum();
+        }
+    }
+
+    /**
+     * Records a node evaluation.
+     * <p>This is called by the interpreter.</p>
+     * @param node the node
+     * @param inclusiveNanos the evaluation time, children included
+     * @param exclusiveNanos the evaluation time, children excluded
+     */
+    public void record(final JexlNode node, final long inclusiveNanos, final long exclusiveNanos) {
+        final JexlInfo info = node.jexlInfo();
+        final JexlInfo detached = info != null ? info.detach() : null;
+        final Entry entry = entries.computeIfAbsent(new Location(detached, node), l -> new Entry(detached, node));
+        entry.count.increment();
+        entry.inclusive.add(inclusiveNanos);
+        entry.exclusive.add(exclusiveNanos);
+    }
+
+    /**
+     * Gets the recorded entries, hottest first.
+     * @return the entries sorted by decreasing exclusive time
+     */
+    public List<Entry> getEntries() {
+        final List<Entry> list = new ArrayList<>(entries.values());
+        list.sort(Comparator.comparingLong(Entry::getExclusiveNanos).reversed());
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Clears all recorded entries.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Renders the source of a script annotated with the recorded entries.
+     * <p>Each source line is followed by the entries located on that line, in column order; an entry line
+     * points to the node column and shows the number of evaluations, the inclusive and exclusive times in
+     * microseconds and the node source.</p>
+     * @param script the script, the entries are the ones with the same info name
+     * @return the listing
+     */
+    public String listing(final JexlScript script) {
+        final JexlInfo sinfo = JexlInfo.from(script);
+        final String name = sinfo != null ? sinfo.getName() : null;
+        final int base = sinfo != null ? sinfo.getLine() : 1;
+        final Map<Integer, List<Entry>> lines = new TreeMap<>();
+        for (final Entry entry : entries.values()) {
+            final JexlInfo info = entry.getInfo();
+            if (info != null && Objects.equals(name, info.getName())) {
+                lines.computeIfAbsent(info.getLine() - base, l -> new ArrayList<>()).add(entry);
+            }
+        }
+        final StringBuilder strb = new StringBuilder();
+        final String[] source = script.getSourceText().split("\r?\n", -1);
+        for (int l = 0; l < source.length; ++l) {
+            strb.append(String.format("%5d | %s%n", base + l, source[l]));
+            final List<Entry> located = lines.get(l);
+            if (located != null) {
+                located.sort(Comparator.comparingInt(e -> e.getInfo().getColumn()));
+                for (final Entry entry : located) {
+                    final int column = Math.max(entry.getInfo().getColumn() - 1, 0);
+                    strb.append(String.format("      | %" + (column + 1) + "s %d x %.1f us, %.1f us excl: %s%n",
+                            "^",
+                            entry.getCount(),
+                            entry.getInclusiveNanos() / 1000.0d,
+                            entry.getExclusiveNanos() / 1000.0d,
+                            entry.getSource()));
+                }
+            }
+        }
+        return strb.toString();
+    }
+
+    /**
+     * Renders the recorded entries as a table, hottest first.
+     * <p>Each line is the node location, the number of evaluations, the inclusive and exclusive
+     * times in microseconds and the node source; see {@link #listing(JexlScript)} for the annotated
+     * source of a script.</p>
+     * @return the table
+     */
+    @Override
+    public String toString() {
+        final StringBuilder strb = new StringBuilder();
+        strb.append(String.format("%-12s %10s %14s %14s  %s%n",
+                "line:column", "count", "incl(us)", "excl(us)", "node"));
+        for (final Entry entry : getEntries()) {
+            final JexlInfo info = entry.getInfo();
+            final String at = info != null ? info.getLine() + ":" + info.getColumn() : "?";
+            strb.append(String.format("%-12s %10d %14.1f %14.1f  %s%n",
+                    at,
+                    entry.getCount(),
+                    entry.getInclusiveNanos() / 1000.0d,
+                    entry.getExclusiveNanos() / 1000.0d,
+                    entry.getSource()));
+        }
+        return strb.toString();
+    }
+}
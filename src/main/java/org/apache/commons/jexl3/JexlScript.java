@@ -17,6 +17,8 @@
 
 package org.apache.commons.jexl3;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -84,6 +86,54 @@ public interface JexlScript {
      */
     Object execute(JexlContext context, Object... args);
 
+    /**
+     * Executes the script once per set of arguments, all executions sharing the same context.
+     *
+     * <p>The options, pragmas and interpreter are set up once for the whole batch, each execution only
+     * getting its own frame of arguments and local variables. This is meant to evaluate a script over many rows,
+     * each row being passed as the script arguments; a stream of rows can be passed as
+     * <code>stream::iterator</code>.</p>
+     * <p>The batch stops after the execution during which it was cancelled.</p>
+     * <p>The default implementation calls {@link #execute(JexlContext, Object...)} once per set of arguments.</p>
+     *
+     * @param context A JexlContext containing variables, shared by all executions.
+     * @param arguments the arguments of each execution
+     * @return the results, one per execution, in order
+     * @since 3.3.1
+     */
+    default List<Object> executeAll(final JexlContext context, final Iterable<Object[]> arguments) {
+        final List<Object> results = new ArrayList<>();
+        for (final Object[] args : arguments) {
+            results.add(execute(context, args));
+        }
+        return results;
+    }
+
+    /**
+     * Executes the script as a predicate once per set of arguments, all executions sharing the same context.
+     *
+     * <p>This behaves as {@link #executeAll(JexlContext, Iterable)}, the result of each execution being
+     * coerced to a boolean by the engine arithmetic, null being false.</p>
+     * <p>The default implementation calls {@link #execute(JexlContext, Object...)} once per set of arguments,
+     * only {@link Boolean#TRUE} results being considered true.</p>
+     *
+     * @param context A JexlContext containing variables, shared by all executions.
+     * @param arguments the arguments of each execution
+     * @return the set of the indices of the executions that evaluated as true
+     * @since 3.3.1
+     */
+    default BitSet test(final JexlContext context, final Iterable<Object[]> arguments) {
+        final BitSet results = new BitSet();
+        int index = 0;
+        for (final Object[] args : arguments) {
+            if (Boolean.TRUE.equals(execute(context, args))) {
+                results.set(index);
+            }
+            index += 1;
+        }
+        return results;
+    }
+
     /**
      * Gets this script parameters.
      *
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The report of a script warm-up.
+ * <p>Warming a script up through {@link JexlEngine#warmUp(JexlScript, JexlContext, Object...)} evaluates it
+ * with a sample context; the classes it uses are introspected and the executors of its property accesses,
+ * method, function and constructor calls are cached in its nodes, as are the operator overloads of the
+ * engine arithmetic, as they would be by the first evaluation.</p>
+ * <p>The report lists these member access and operator nodes, whether they hold a cached executor and the error
+ * of the sample evaluation if any. An uncached node was either not evaluated with the sample context,
+ * could not be resolved or resolved to a member that can not be cached; it will be resolved again at
+ * its next evaluation.</p>
+ * @since 3.3.1
+ */
+public final class JexlWarmUp {
+    /** The member access and operator nodes. */
+    private final List<Entry> entries;
+    /** The sample evaluation error. */
+    private final JexlException exception;
+
+    /**
+     * A member access or operator node.
+     * <p>The entry reflects the current state of the node; it changes as the script is evaluated.</p>
+     */
+    public interface Entry {
+        /**
+         * @return the node information, name, line and column
+         */
+        JexlInfo getInfo();
+
+        /**
+         * @return the node source as rebuilt by the debugger
+         */
+        String getSource();
+
+        /**
+         * @return the operator of an operator node, null for a member access node
+         */
+        JexlOperator getOperator();
+
+        /**
+         * @return true if the node holds a cached executor or operator overload, false otherwise
+         */
+        boolean isCached();
+
+        /**
+         * @return true if the node evaluation used more executors than its inline cache can hold
+         */
+        boolean isMegamorphic();
+
+        /**
+         * Gets the number of evaluations that used a cached executor.
+         * <p>Evaluations are only counted once the node is polymorphic, that is, once it has used more than
+         * one executor.</p>
+         * @return the number of hits
+         */
+        long getHits();
+
+        /**
+         * Gets the number of evaluations that resolved their executor.
+         * <p>Evaluations are only counted once the node is polymorphic, that is, once it has used more than
+         * one executor.</p>
+         * @return the number of misses
+         */
+        long getMisses();
+    }
+
+    /**
+     * Creates a warm-up report.
+     * <p>This is called by the engine after the sample evaluation.</p>
+     * @param list the entries, in script order
+     * @param error the sample evaluation error, null if none
+     */
+    JexlWarmUp(final List<? extends Entry> list, final JexlException error) {
+        this.entries = Collections.unmodifiableList(new ArrayList<>(list));
+        this.exception = error;
+    }
+
+    /**
+     * @return the member access and operator nodes, in script order
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * @return the member access and operator nodes that do not hold a cached executor, in script order
+     */
+    public List<Entry> getUncached() {
+        final List<Entry> list = new ArrayList<>();
+        for (final Entry entry : entries) {
+            if (!entry.isCached()) {
+                list.add(entry);
+            }
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * @return the sample evaluation error, null if none
+     */
+    public JexlException getException() {
+        return exception;
+    }
+
+    /**
+     * Renders the uncached nodes as a listing.
+     * <p>Each line is the node location and source; the sample evaluation error, if any, is the last line.</p>
+     * @return the listing
+     */
+    @Override
+    public String toString() {
+        final StringBuilder strb = new StringBuilder();
+        final List<Entry> uncached = getUncached();
+        strb.append(String.format("%d/%d cached%n", entries.size() - uncached.size(), entries.size()));
+        for (final Entry entry : uncached) {
+            final JexlInfo info = entry.getInfo();
+            final String at = info != null ? info.getLine() + ":" + info.getColumn() : "?";
+            strb.append(String.format("%-12s %s%n", at, entry.getSource()));
+        }
+        if (exception != null) {
+            strb.append(exception.getMessage()).append(String.format("%n"));
+        }
+        return strb.toString();
+    }
+}
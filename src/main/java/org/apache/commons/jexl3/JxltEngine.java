@@ -17,9 +17,16 @@
 
 package org.apache.commons.jexl3;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -302,6 +309,29 @@ public abstract class JxltEngine {
          */
         void evaluate(JexlContext context, Writer writer, Object... args);
 
+        /**
+         * Evaluates this template, encoding its output to a stream.
+         * <p>The verbatim parts of the template may be encoded once and copied to the stream as bytes;
+         * the stream is not closed.</p>
+         * <p>This default implementation evaluates the template through a writer that encodes the output.</p>
+         *
+         * @param context the context to use during evaluation
+         * @param out the output stream
+         * @param charset the output charset
+         * @param args the arguments
+         * @since 3.3.1
+         */
+        default void evaluate(final JexlContext context, final OutputStream out, final Charset charset,
+                              final Object... args) {
+            final Writer writer = new OutputStreamWriter(out, charset);
+            evaluate(context, writer, args);
+            try {
+                writer.flush();
+            } catch (final IOException xio) {
+                throw new Exception(null, "write", xio);
+            }
+        }
+
         /**
          * Prepares this template by expanding any contained deferred TemplateExpression.
          *
@@ -403,6 +433,93 @@ public abstract class JxltEngine {
         return createTemplate(null, source);
     }
 
+    /**
+     * Creates a new template, reusing what can be from a previous compilation of the same template.
+     * <p>The default implementation does not reuse anything.</p>
+     *
+     * @param previous the previous compilation of the template, may be null
+     * @param info the jexl info (file, line, column)
+     * @param prefix the directive prefix
+     * @param source the new template source
+     * @param parms the parameter names
+     * @return the template
+     * @since 3.3.1
+     */
+    public Template createTemplate(final Template previous,
+                                   final JexlInfo info,
+                                   final String prefix,
+                                   final Reader source,
+                                   final String... parms) {
+        return createTemplate(info, prefix, source, parms);
+    }
+
+    /**
+     * Creates a new template from a file read using the engine charset.
+     *
+     * @param info the jexl info, if null, the file name is used
+     * @param prefix the directive prefix
+     * @param file the template file
+     * @param parms the parameter names
+     * @return the template
+     * @throws IOException if the file can not be read
+     * @since 3.3.1
+     */
+    public Template createTemplate(final JexlInfo info,
+                                   final String prefix,
+                                   final Path file,
+                                   final String... parms) throws IOException {
+        return createTemplate(null, info, prefix, file, parms);
+    }
+
+    /**
+     * Creates a new template from a file read using the engine charset, reusing what can be from a previous
+     * compilation of the same template.
+     *
+     * @param previous the previous compilation of the template, may be null
+     * @param info the jexl info, if null, the file name is used
+     * @param prefix the directive prefix
+     * @param file the template file
+     * @param parms the parameter names
+     * @return the template
+     * @throws IOException if the file can not be read
+     * @since 3.3.1
+     */
+    public Template createTemplate(final Template previous,
+                                   final JexlInfo info,
+                                   final String prefix,
+                                   final Path file,
+                                   final String... parms) throws IOException {
+        final JexlInfo jinfo = info != null ? info : getEngine().createInfo(file.toString(), 1, 1);
+        try (Reader reader = Files.newBufferedReader(file, getEngine().getCharset())) {
+            return createTemplate(previous, jinfo, prefix, reader, parms);
+        }
+    }
+
+    /**
+     * Preloads the template cache from a directory of template files.
+     * <p>Each regular file of the directory is created as a template through
+     * {@link #createTemplate(JexlInfo, String, Path, String...)}, named after the file.</p>
+     *
+     * @param directory the directory
+     * @param prefix the directive prefix
+     * @param parms the parameter names
+     * @return the number of templates created
+     * @throws IOException if the directory or a file can not be read
+     * @since 3.3.1
+     */
+    public int preload(final Path directory, final String prefix, final String... parms) throws IOException {
+        int count = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (final Path file : files) {
+                if (Files.isRegularFile(file)) {
+                    createTemplate(null, prefix, file, parms);
+                    count += 1;
+                }
+            }
+        }
+        return count;
+    }
+
     /**
      * Gets the {@link JexlEngine} underlying this template engine.
      *
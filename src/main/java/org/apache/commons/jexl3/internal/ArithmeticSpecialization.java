@@ -0,0 +1,280 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3.internal;
+
+import org.apache.commons.jexl3.JexlArithmetic;
+import org.apache.commons.jexl3.JexlEngine;
+import org.apache.commons.jexl3.JexlOperator;
+import org.apache.commons.jexl3.parser.JexlNode;
+
+import java.math.BigInteger;
+
+/**
+ * Type-specialized arithmetic operations for the stock {@link JexlArithmetic}.
+ * <p>The first evaluation of an operator node records the operand classes as a specialization in the node
+ * value; the following evaluations use the specialized operation as long as the operands keep the same classes.
+ * Operands of another class switch the node to the generic marker for good, the stock arithmetic
+ * is then always used for that node.</p>
+ * <p>Each specialized operation returns the same result as the stock arithmetic for its operand types.</p>
+ */
+enum ArithmeticSpecialization {
+    /** Integer operands. */
+    INTEGER {
+        @Override
+        boolean accepts(final Object left, final Object right) {
+            return left.getClass() == Integer.class && right.getClass() == Integer.class;
+        }
+
+        @Override
+        Object add(final Object left, final Object right) {
+            return narrow((long) (Integer) left + (Integer) right);
+        }
+
+        @Override
+        Object subtract(final Object left, final Object right) {
+            return narrow((long) (Integer) left - (Integer) right);
+        }
+
+        @Override
+        Object multiply(final Object left, final Object right) {
+            return narrow((long) (Integer) left * (Integer) right);
+        }
+
+        @Override
+        int compare(final Object left, final Object right) {
+            return Integer.compare((Integer) left, (Integer) right);
+        }
+
+        /**
+         * Narrows a result to an integer if it fits.
+         * @param r the result
+         * @return an Integer or a Long
+         */
+        private Object narrow(final long r) {
+            final int i = (int) r;
+            return i == r ? (Object) i : (Object) r;
+        }
+    },
+    /** Long operands. */
+    LONG {
+        @Override
+        boolean accepts(final Object left, final Object right) {
+            return left.getClass() == Long.class && right.getClass() == Long.class;
+        }
+
+        @Override
+        Object add(final Object left, final Object right) {
+            final long x = (Long) left;
+            final long y = (Long) right;
+            final long result = x + y;
+            // detect overflow, see java8 Math.addExact
+            if (((x ^ result) & (y ^ result)) < 0) {
+                return BigInteger.valueOf(x).add(BigInteger.valueOf(y));
+            }
+            return result;
+        }
+
+        @Override
+        Object subtract(final Object left, final Object right) {
+            final long x = (Long) left;
+            final long y = (Long) right;
+            final long result = x - y;
+            // detect overflow, see java8 Math.subtractExact
+            if (((x ^ y) & (x ^ result)) < 0) {
+                return BigInteger.valueOf(x).subtract(BigInteger.valueOf(y));
+            }
+            return result;
+        }
+
+        @Override
+        Object multiply(final Object left, final Object right) {
+            final long x = (Long) left;
+            final long y = (Long) right;
+            final long result = x * y;
+            // detect overflow, see java8 Math.multiplyExact
+            final long ax = Math.abs(x);
+            final long ay = Math.abs(y);
+            if (((ax | ay) >>> (Integer.SIZE - 1) != 0)
+                && ((y != 0 && result / y != x) || (x == Long.MIN_VALUE && y == -1))) {
+                return BigInteger.valueOf(x).multiply(BigInteger.valueOf(y));
+            }
+            return result;
+        }
+
+        @Override
+        int compare(final Object left, final Object right) {
+            return Long.compare((Long) left, (Long) right);
+        }
+    },
+    /** Double operands. */
+    DOUBLE {
+        @Override
+        boolean accepts(final Object left, final Object right) {
+            return left.getClass() == Double.class && right.getClass() == Double.class;
+        }
+
+        @Override
+        Object add(final Object left, final Object right) {
+            return (Double) left + (Double) right;
+        }
+
+        @Override
+        Object subtract(final Object left, final Object right) {
+            return (Double) left - (Double) right;
+        }
+
+        @Override
+        Object multiply(final Object left, final Object right) {
+            return (Double) left * (Double) right;
+        }
+
+        @Override
+        int compare(final Object left, final Object right) {
+            final double lhs = (Double) left;
+            final double rhs = (Double) right;
+            // NaN is lesser than any other value, as in the stock arithmetic
+            if (Double.isNaN(lhs)) {
+                return Double.isNaN(rhs) ? 0 : -1;
+            }
+            if (Double.isNaN(rhs)) {
+                return +1;
+            }
+            return Double.compare(lhs, rhs);
+        }
+    };
+
+    /**
+     * The node value marking operands of varying or unsupported classes.
+     * <p>It is not a specialization: nodes marked with it always use the stock arithmetic.</p>
+     */
+    static final Object GENERIC = new Object() {
+        @Override
+        public String toString() {
+            return "GENERIC";
+        }
+    };
+
+    /**
+     * Checks whether this specialization applies to operands.
+     * @param left the non-null left operand
+     * @param right the non-null right operand
+     * @return true if applicable, false otherwise
+     */
+    abstract boolean accepts(Object left, Object right);
+
+    /**
+     * Adds two operands.
+     * @param left the left operand
+     * @param right the right operand
+     * @return left + right
+     */
+    abstract Object add(Object left, Object right);
+
+    /**
+     * Subtracts two operands.
+     * @param left the left operand
+     * @param right the right operand
+     * @return left - right
+     */
+    abstract Object subtract(Object left, Object right);
+
+    /**
+     * Multiplies two operands.
+     * @param left the left operand
+     * @param right the right operand
+     * @return left * right
+     */
+    abstract Object multiply(Object left, Object right);
+
+    /**
+     * Compares two operands.
+     * @param left the left operand
+     * @param right the right operand
+     * @return -1 if left &lt; right; +1 if left &gt; right; 0 if left == right
+     */
+    abstract int compare(Object left, Object right);
+
+    /**
+     * Finds the specialization for a pair of operands.
+     * @param left the non-null left operand
+     * @param right the non-null right operand
+     * @return the specialization, null if none applies
+     */
+    private static ArithmeticSpecialization of(final Object left, final Object right) {
+        for (final ArithmeticSpecialization s : values()) {
+            if (s.accepts(left, right)) {
+                return s;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether an arithmetic can use specialized operations.
+     * @param arithmetic the arithmetic
+     * @return true if the arithmetic is the stock one, false otherwise
+     */
+    static boolean isSpecializable(final JexlArithmetic arithmetic) {
+        return arithmetic.getClass() == JexlArithmetic.class;
+    }
+
+    /**
+     * Attempts to evaluate an operator through the node specialization.
+     * <p>This records the specialization in the node value on first use and switches it to generic
+     * when the operand classes change.</p>
+     * @param node the operator node
+     * @param operator the operator, one of add, subtract, multiply or a comparison
+     * @param left the left operand
+     * @param right the right operand
+     * @return the result or JexlEngine.TRY_FAILED if the operator can not be specialized
+     */
+    static Object tryEvaluate(final JexlNode node, final JexlOperator operator, final Object left, final Object right) {
+        if (left == null || right == null) {
+            return JexlEngine.TRY_FAILED;
+        }
+        final Object value = node.jjtGetValue();
+        final ArithmeticSpecialization s;
+        if (value instanceof ArithmeticSpecialization) {
+            s = (ArithmeticSpecialization) value;
+            if (!s.accepts(left, right)) {
+                // deoptimize
+                node.jjtSetValue(GENERIC);
+                return JexlEngine.TRY_FAILED;
+            }
+        } else if (value == null) {
+            s = of(left, right);
+            if (s == null) {
+                node.jjtSetValue(GENERIC);
+                return JexlEngine.TRY_FAILED;
+            }
+            node.jjtSetValue(s);
+        } else {
+            return JexlEngine.TRY_FAILED;
+        }
+        switch (operator) {
+            case ADD: return s.add(left, right);
+            case SUBTRACT: return s.subtract(left, right);
+            case MULTIPLY: return s.multiply(left, right);
+            case EQ: return s.compare(left, right) == 0;
+            case LT: return s.compare(left, right) < 0;
+            case LTE: return s.compare(left, right) <= 0;
+            case GT: return s.compare(left, right) > 0;
+            case GTE: return s.compare(left, right) >= 0;
+            default: return JexlEngine.TRY_FAILED;
+        }
+    }
+}
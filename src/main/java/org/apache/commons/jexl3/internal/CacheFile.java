@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3.internal;
+
+import org.apache.commons.jexl3.JexlCache;
+import org.apache.commons.jexl3.JexlEngine;
+import org.apache.commons.jexl3.JexlFeatures;
+import org.apache.commons.jexl3.parser.ASTJexlScript;
+import org.apache.commons.jexl3.parser.ParserTreeConstants;
+import org.apache.commons.jexl3.parser.TreeSerializer;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Saves and loads an engine expression cache to and from a file.
+ * <p>The file starts with a header made of a magic number, the format version, the engine version,
+ * a hash of the parser node types and the hash codes of the engine expression and script features;
+ * a file whose header does not match the loading engine is ignored.
+ * Only the entries parsed with the engine default features are saved.
+ * Each entry is the features kind, the source and the script tree as written by {@link TreeSerializer}.</p>
+ * <p>Loading maps the file in memory.</p>
+ */
+final class CacheFile {
+    /** The magic number, JEXL in ASCII. */
+    private static final int MAGIC = 0x4A45584C;
+    /** The file format version. */
+    private static final int FORMAT = 1;
+    /** The parser node types hash. */
+    private static final int NODES = Arrays.hashCode(ParserTreeConstants.jjtNodeName);
+    /** The expression features entry kind. */
+    private static final byte EXPRESSION = 0;
+    /** The script features entry kind. */
+    private static final byte SCRIPT = 1;
+    /** Non-instantiable. */
+    private CacheFile() {}
+
+    /**
+     * @return the engine version or the empty string if unknown
+     */
+    private static String engineVersion() {
+        final Package pkg = JexlEngine.class.getPackage();
+        final String version = pkg != null ? pkg.getImplementationVersion() : null;
+        return version != null ? version : "";
+    }
+
+    /**
+     * Writes the header.
+     * @param jexl the engine
+     * @param out the output
+     * @throws IOException if writing fails
+     */
+    private static void writeHeader(final Engine jexl, final DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT);
+        out.writeUTF(engineVersion());
+        out.writeInt(NODES);
+        out.writeInt(jexl.expressionFeatures.hashCode());
+        out.writeInt(jexl.scriptFeatures.hashCode());
+    }
+
+    /**
+     * Reads and checks the header.
+     * @param jexl the engine
+     * @param in the input
+     * @return true if the header matches the engine, false otherwise
+     * @throws IOException if reading fails
+     */
+    private static boolean readHeader(final Engine jexl, final DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("not an expression cache file");
+        }
+        return in.readInt() == FORMAT
+            && in.readUTF().equals(engineVersion())
+            && in.readInt() == NODES
+            && in.readInt() == jexl.expressionFeatures.hashCode()
+            && in.readInt() == jexl.scriptFeatures.hashCode();
+    }
+
+    /**
+     * Saves the engine cache entries.
+     * @param jexl the engine
+     * @param path the file to write
+     * @return the number of saved entries
+     * @throws IOException if writing fails
+     */
+    static int save(final Engine jexl, final Path path) throws IOException {
+        final JexlCache<Source, ASTJexlScript> cache = jexl.cache;
+        int count = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            writeHeader(jexl, out);
+            if (cache != null) {
+                for (final Map.Entry<Source, ASTJexlScript> entry : cache.entries()) {
+                    final JexlFeatures features = entry.getKey().getFeatures();
+                    final byte kind;
+                    if (jexl.expressionFeatures.equals(features)) {
+                        kind = EXPRESSION;
+                    } else if (jexl.scriptFeatures.equals(features)) {
+                        kind = SCRIPT;
+                    } else {
+                        continue;
+                    }
+                    out.writeBoolean(true);
+                    out.writeByte(kind);
+                    final byte[] src = entry.getKey().toString().getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(src.length);
+                    out.write(src);
+                    TreeSerializer.write(entry.getValue(), out);
+                    count += 1;
+                }
+            }
+            out.writeBoolean(false);
+        }
+        return count;
+    }
+
+    /**
+     * Loads entries in the engine cache.
+     * @param jexl the engine
+     * @param path the file to read
+     * @return the number of loaded entries, 0 if the file does not match the engine
+     * @throws IOException if reading fails
+     */
+    static int load(final Engine jexl, final Path path) throws IOException {
+        final JexlCache<Source, ASTJexlScript> cache = jexl.cache;
+        if (cache == null) {
+            return 0;
+        }
+        final ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int count = 0;
+        try (DataInputStream in = new DataInputStream(new BufferInputStream(buffer))) {
+            if (!readHeader(jexl, in)) {
+                jexl.logger.warn("stale expression cache file " + path);
+                return 0;
+            }
+            while (in.readBoolean()) {
+                final JexlFeatures features = in.readByte() == SCRIPT ? jexl.scriptFeatures : jexl.expressionFeatures;
+                final byte[] src = new byte[in.readInt()];
+                in.readFully(src);
+                final ASTJexlScript script = TreeSerializer.read(in);
+                script.setFeatures(features);
+                cache.put(new Source(features, new String(src, StandardCharsets.UTF_8)), script);
+                count += 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * An input stream reading from a byte buffer.
+     */
+    private static final class BufferInputStream extends InputStream {
+        /** The buffer. */
+        private final ByteBuffer buffer;
+
+        /**
+         * Creates the stream.
+         * @param buf the buffer
+         */
+        BufferInputStream(final ByteBuffer buf) {
+            buffer = buf;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length) {
+            if (length == 0) {
+                return 0;
+            }
+            final int remaining = buffer.remaining();
+            if (remaining == 0) {
+                return -1;
+            }
+            final int n = Math.min(length, remaining);
+            buffer.get(bytes, offset, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -123,6 +123,21 @@ public class Closure extends Script {
         }
     }
 
+    @Override
+    protected Frame createFrame(final Object[] args) {
+        return frame != null? frame.assign(args) : null;
+    }
+
+    @Override
+    protected Interpreter createInterpreter(final JexlContext context, final Frame local) {
+        return createInterpreter(context, local, options);
+    }
+
+    @Override
+    protected Object interpret(final Interpreter interpreter) {
+        return interpreter.runClosure(this, null);
+    }
+
     @Override
     public Object evaluate(final JexlContext context) {
         return execute(context, (Object[])null);
@@ -135,19 +150,6 @@ public class Closure extends Script {
 
     @Override
     public Object execute(final JexlContext context, final Object... args) {
-        final Frame local = frame != null? frame.assign(args) : null;
-        final Interpreter interpreter = createInterpreter(context, local, options);
-        return interpreter.runClosure(this, null);
-    }
-
-    @Override
-    public Callable callable(final JexlContext context, final Object... args) {
-        final Frame local = frame != null? frame.assign(args) : null;
-        return new Callable(createInterpreter(context, local, options)) {
-            @Override
-            public Object interpret() {
-                return interpreter.runClosure(Closure.this, null);
-            }
-        };
+        return interpret(createInterpreter(context, createFrame(args)));
     }
 }
@@ -0,0 +1,380 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3.internal;
+
+import org.apache.commons.jexl3.JexlArithmetic;
+import org.apache.commons.jexl3.JexlEngine;
+import org.apache.commons.jexl3.JexlException;
+import org.apache.commons.jexl3.JexlOperator;
+import org.apache.commons.jexl3.parser.ASTAddNode;
+import org.apache.commons.jexl3.parser.ASTAndNode;
+import org.apache.commons.jexl3.parser.ASTDivNode;
+import org.apache.commons.jexl3.parser.ASTEQNode;
+import org.apache.commons.jexl3.parser.ASTFalseNode;
+import org.apache.commons.jexl3.parser.ASTGENode;
+import org.apache.commons.jexl3.parser.ASTGTNode;
+import org.apache.commons.jexl3.parser.ASTIdentifier;
+import org.apache.commons.jexl3.parser.ASTJexlScript;
+import org.apache.commons.jexl3.parser.ASTLENode;
+import org.apache.commons.jexl3.parser.ASTLTNode;
+import org.apache.commons.jexl3.parser.ASTModNode;
+import org.apache.commons.jexl3.parser.ASTMulNode;
+import org.apache.commons.jexl3.parser.ASTNENode;
+import org.apache.commons.jexl3.parser.ASTNotNode;
+import org.apache.commons.jexl3.parser.ASTNullLiteral;
+import org.apache.commons.jexl3.parser.ASTNumberLiteral;
+import org.apache.commons.jexl3.parser.ASTOrNode;
+import org.apache.commons.jexl3.parser.ASTReferenceExpression;
+import org.apache.commons.jexl3.parser.ASTStringLiteral;
+import org.apache.commons.jexl3.parser.ASTSubNode;
+import org.apache.commons.jexl3.parser.ASTTernaryNode;
+import org.apache.commons.jexl3.parser.ASTTrueNode;
+import org.apache.commons.jexl3.parser.JexlNode;
+
+/**
+ * Compiles script trees into code.
+ * <p>The code of a node is a chain of pre-built lambdas that evaluates the node through the interpreter state
+ * (frame, lexical block, arithmetic, operators) exactly as the corresponding interpreter visit method would,
+ * without the double dispatch of visiting. The supported nodes are the literals, the variables,
+ * the arithmetic, comparison, logical and ternary operators; any other node is evaluated by
+ * visiting it with the interpreter, its subtree included.</p>
+ * <p>Operators keep their interpreter semantics: overloads are tried first, the arithmetic is called otherwise
+ * and errors are reported with the same nodes and messages.</p>
+ */
+final class Compiler {
+    /**
+     * The code of a node.
+     */
+    @FunctionalInterface
+    interface Code {
+        /**
+         * Evaluates the node.
+         * @param ii the interpreter
+         * @return the node value
+         */
+        Object eval(Interpreter ii);
+    }
+
+    /**
+     * A diadic arithmetic operation.
+     */
+    @FunctionalInterface
+    private interface Operation {
+        /**
+         * Performs the operation.
+         * @param arithmetic the arithmetic
+         * @param left the left operand
+         * @param right the right operand
+         * @return the result
+         */
+        Object apply(JexlArithmetic arithmetic, Object left, Object right);
+    }
+
+    /** Non-instantiable. */
+    private Compiler() {}
+
+    /**
+     * Gets the compiled code of a script tree, compiling it once.
+     * <p>The code is stored in the tree so that scripts sharing it - cached or curried - reuse it.</p>
+     * @param script the script tree
+     * @return the code
+     */
+    static Code code(final ASTJexlScript script) {
+        final Object cached = script.getCode();
+        if (cached instanceof Code) {
+            return (Code) cached;
+        }
+        final Code code = compile(script);
+        script.setCode(code);
+        return code;
+    }
+
+    /**
+     * Compiles a script.
+     * @param script the script
+     * @return the script code
+     */
+    static Code compile(final ASTJexlScript script) {
+        final int numChildren = script.jjtGetNumChildren();
+        final JexlNode[] statements = new JexlNode[numChildren];
+        final Code[] codes = new Code[numChildren];
+        for (int i = 0; i < numChildren; ++i) {
+            statements[i] = script.jjtGetChild(i);
+            codes[i] = compile(statements[i]);
+        }
+        return ii -> {
+            ii.block = new LexicalFrame(ii.frame, ii.block).defineArgs();
+            try {
+                Object result = null;
+                for (int i = 0; i < codes.length; i++) {
+                    result = codes[i].eval(ii);
+                    ii.cancelCheck(statements[i]);
+                }
+                return result;
+            } finally {
+                ii.block = ii.block.pop();
+            }
+        };
+    }
+
+    /**
+     * Compiles a node.
+     * @param node the node
+     * @return the node code
+     */
+    static Code compile(final JexlNode node) {
+        final Class<?> clazz = node.getClass();
+        if (clazz == ASTNumberLiteral.class) {
+            final Object literal = ((ASTNumberLiteral) node).getLiteral();
+            return ii -> literal;
+        }
+        if (clazz == ASTStringLiteral.class) {
+            final String literal = ((ASTStringLiteral) node).getLiteral();
+            return ii -> literal;
+        }
+        if (clazz == ASTTrueNode.class) {
+            return ii -> Boolean.TRUE;
+        }
+        if (clazz == ASTFalseNode.class) {
+            return ii -> Boolean.FALSE;
+        }
+        if (clazz == ASTNullLiteral.class) {
+            return ii -> null;
+        }
+        if (clazz == ASTIdentifier.class) {
+            final ASTIdentifier identifier = (ASTIdentifier) node;
+            return ii -> {
+                ii.cancelCheck(identifier);
+                return ii.getVariable(ii.frame, ii.block, identifier);
+            };
+        }
+        if (clazz == ASTReferenceExpression.class) {
+            return compile(node.jjtGetChild(0));
+        }
+        if (clazz == ASTAddNode.class) {
+            return diadic(node, JexlOperator.ADD, "+ error", JexlArithmetic::add);
+        }
+        if (clazz == ASTSubNode.class) {
+            return diadic(node, JexlOperator.SUBTRACT, "- error", JexlArithmetic::subtract);
+        }
+        if (clazz == ASTMulNode.class) {
+            return diadic(node, JexlOperator.MULTIPLY, "* error", JexlArithmetic::multiply);
+        }
+        if (clazz == ASTDivNode.class) {
+            return division(node, JexlOperator.DIVIDE, "/ error", JexlArithmetic::divide);
+        }
+        if (clazz == ASTModNode.class) {
+            return division(node, JexlOperator.MOD, "% error", JexlArithmetic::mod);
+        }
+        if (clazz == ASTEQNode.class) {
+            return diadic(node, JexlOperator.EQ, "== error", JexlArithmetic::equals);
+        }
+        if (clazz == ASTNENode.class) {
+            return notEquals(node);
+        }
+        if (clazz == ASTLTNode.class) {
+            return diadic(node, JexlOperator.LT, "< error", JexlArithmetic::lessThan);
+        }
+        if (clazz == ASTLENode.class) {
+            return diadic(node, JexlOperator.LTE, "<= error", JexlArithmetic::lessThanOrEqual);
+        }
+        if (clazz == ASTGTNode.class) {
+            return diadic(node, JexlOperator.GT, "> error", JexlArithmetic::greaterThan);
+        }
+        if (clazz == ASTGENode.class) {
+            return diadic(node, JexlOperator.GTE, ">= error", JexlArithmetic::greaterThanOrEqual);
+        }
+        if (clazz == ASTAndNode.class) {
+            return logical(node, false);
+        }
+        if (clazz == ASTOrNode.class) {
+            return logical(node, true);
+        }
+        if (clazz == ASTNotNode.class) {
+            return not(node);
+        }
+        if (clazz == ASTTernaryNode.class) {
+            return ternary(node);
+        }
+        return ii -> node.jjtAccept(ii, null);
+    }
+
+    /**
+     * Compiles a diadic operator.
+     * @param node the operator node
+     * @param operator the overloadable operator
+     * @param error the error message
+     * @param operation the arithmetic operation
+     * @return the operator code
+     */
+    private static Code diadic(final JexlNode node, final JexlOperator operator, final String error,
+                               final Operation operation) {
+        final Code lhs = compile(node.jjtGetChild(0));
+        final Code rhs = compile(node.jjtGetChild(1));
+        return ii -> {
+            final Object left = lhs.eval(ii);
+            final Object right = rhs.eval(ii);
+            try {
+                final Object result = ii.tryOperator(node, operator, left, right);
+                return result != JexlEngine.TRY_FAILED ? result : operation.apply(ii.arithmetic, left, right);
+            } catch (final ArithmeticException xrt) {
+                throw new JexlException(ii.findNullOperand(node, left, right), error, xrt);
+            }
+        };
+    }
+
+    /**
+     * Compiles a division or modulo operator; a non-strict arithmetic error results in 0.
+     * @param node the operator node
+     * @param operator the overloadable operator
+     * @param error the error message
+     * @param operation the arithmetic operation
+     * @return the operator code
+     */
+    private static Code division(final JexlNode node, final JexlOperator operator, final String error,
+                                 final Operation operation) {
+        final Code lhs = compile(node.jjtGetChild(0));
+        final Code rhs = compile(node.jjtGetChild(1));
+        return ii -> {
+            final Object left = lhs.eval(ii);
+            final Object right = rhs.eval(ii);
+            try {
+                final Object result = ii.operators.tryOverload(node, operator, left, right);
+                return result != JexlEngine.TRY_FAILED ? result : operation.apply(ii.arithmetic, left, right);
+            } catch (final ArithmeticException xrt) {
+                if (!ii.arithmetic.isStrict()) {
+                    return 0.0d;
+                }
+                throw new JexlException(ii.findNullOperand(node, left, right), error, xrt);
+            }
+        };
+    }
+
+    /**
+     * Compiles a not-equal operator.
+     * @param node the operator node
+     * @return the operator code
+     */
+    private static Code notEquals(final JexlNode node) {
+        final Code lhs = compile(node.jjtGetChild(0));
+        final Code rhs = compile(node.jjtGetChild(1));
+        return ii -> {
+            final Object left = lhs.eval(ii);
+            final Object right = rhs.eval(ii);
+            try {
+                final Object result = ii.tryOperator(node, JexlOperator.EQ, left, right);
+                return result != JexlEngine.TRY_FAILED
+                       ? !ii.arithmetic.toBoolean(result)
+                       : !ii.arithmetic.equals(left, right);
+            } catch (final ArithmeticException xrt) {
+                throw new JexlException(ii.findNullOperand(node, left, right), "!= error", xrt);
+            }
+        };
+    }
+
+    /**
+     * Compiles a logical and/or operator.
+     * @param node the operator node
+     * @param shortcut the operand value that ends the evaluation, true for or, false for and
+     * @return the operator code
+     */
+    private static Code logical(final JexlNode node, final boolean shortcut) {
+        final JexlNode lnode = node.jjtGetChild(0);
+        final JexlNode rnode = node.jjtGetChild(1);
+        final Code lhs = compile(lnode);
+        final Code rhs = compile(rnode);
+        final Boolean found = shortcut;
+        final Boolean otherwise = !shortcut;
+        return ii -> {
+            final Object left = lhs.eval(ii);
+            try {
+                if (ii.arithmetic.toBoolean(left) == shortcut) {
+                    return found;
+                }
+            } catch (final ArithmeticException xrt) {
+                throw new JexlException(lnode, "boolean coercion error", xrt);
+            }
+            final Object right = rhs.eval(ii);
+            try {
+                if (ii.arithmetic.toBoolean(right) == shortcut) {
+                    return found;
+                }
+            } catch (final ArithmeticException xrt) {
+                throw new JexlException(rnode, "boolean coercion error", xrt);
+            }
+            return otherwise;
+        };
+    }
+
+    /**
+     * Compiles a not operator.
+     * @param node the operator node
+     * @return the operator code
+     */
+    private static Code not(final JexlNode node) {
+        final Code operand = compile(node.jjtGetChild(0));
+        return ii -> {
+            final Object val = operand.eval(ii);
+            try {
+                final Object result = ii.operators.tryOverload(node, JexlOperator.NOT, val);
+                return result != JexlEngine.TRY_FAILED ? result : ii.arithmetic.not(val);
+            } catch (final ArithmeticException xrt) {
+                throw new JexlException(node, "! error", xrt);
+            }
+        };
+    }
+
+    /**
+     * Compiles a ternary or elvis operator.
+     * @param node the operator node
+     * @return the operator code
+     */
+    private static Code ternary(final JexlNode node) {
+        final Code test = compile(node.jjtGetChild(0));
+        final Code first = compile(node.jjtGetChild(1));
+        if (node.jjtGetNumChildren() == 3) {
+            // ternary as in "x ? y : z"
+            final Code second = compile(node.jjtGetChild(2));
+            return ii -> {
+                final Object condition = condition(ii, test);
+                return condition != null && ii.arithmetic.toBoolean(condition) ? first.eval(ii) : second.eval(ii);
+            };
+        }
+        // elvis as in "x ?: z"
+        return ii -> {
+            final Object condition = condition(ii, test);
+            return condition != null && ii.arithmetic.toBoolean(condition) ? condition : first.eval(ii);
+        };
+    }
+
+    /**
+     * Evaluates a ternary condition, a null operand error evaluates as null.
+     * @param ii the interpreter
+     * @param test the condition code
+     * @return the condition value
+     */
+    private static Object condition(final Interpreter ii, final Code test) {
+        try {
+            return test.eval(ii);
+        } catch (final JexlException xany) {
+            if (!(xany.getCause() instanceof JexlArithmetic.NullOperand)) {
+                throw xany;
+            }
+            return null;
+        }
+    }
+}
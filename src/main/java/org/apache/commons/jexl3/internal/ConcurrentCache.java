@@ -0,0 +1,271 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3.internal;
+
+import org.apache.commons.jexl3.JexlCache;
+
+import java.lang.ref.SoftReference;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A soft referenced cache whose read path does not lock.
+ * <p>
+ * The entries are held in a concurrent map and evicted using the CLOCK (second chance) algorithm;
+ * reading an entry only marks it as visited, insertions are concurrent and only evictions are serialized.
+ * As with {@link SoftCache}, the actual store is held through a soft reference, allowing it to be GCed
+ * under memory pressure.</p>
+ * <p>
+ * This cache also counts hits, misses and evictions.</p>
+ * <p>
+ * Use through the builder as in <code>new JexlBuilder().cache(512).cacheFactory(ConcurrentCache::new)</code>.
+ * </p>
+ *
+ * @param <K> the cache key entry type
+ * @param <V> the cache key value type
+ * @since 3.3.1
+ */
+public class ConcurrentCache<K, V> implements JexlCache<K, V> {
+    /**
+     * A cache node, the value and its visited bit.
+     * @param <V> the value type
+     */
+    private static final class Node<V> {
+        /** The value. */
+        private final V value;
+        /** Whether this node was read since the clock hand last passed. */
+        private volatile boolean visited;
+
+        /**
+         * Creates a node.
+         * @param v the value
+         */
+        Node(final V v) {
+            value = v;
+        }
+    }
+
+    /**
+     * The actual store, a map and the clock queue of its keys.
+     * @param <K> the key type
+     * @param <V> the value type
+     */
+    private static final class Store<K, V> {
+        /** The map. */
+        private final ConcurrentMap<K, Node<V>> map;
+        /** The clock, keys in insertion order. */
+        private final Queue<K> clock = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Creates a store.
+         * @param capacity the expected capacity
+         */
+        Store(final int capacity) {
+            map = new ConcurrentHashMap<>(capacity);
+        }
+    }
+
+    /**
+     * The cache capacity.
+     */
+    private final int capacity;
+    /**
+     * The soft reference to the store.
+     */
+    private volatile SoftReference<Store<K, V>> ref = null;
+    /**
+     * The eviction lock.
+     */
+    private final Lock evictLock = new ReentrantLock();
+    /**
+     * The hit counter.
+     */
+    private final LongAdder hits = new LongAdder();
+    /**
+     * The miss counter.
+     */
+    private final LongAdder misses = new LongAdder();
+    /**
+     * The eviction counter.
+     */
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a new instance of a concurrent cache.
+     *
+     * @param theSize the cache capacity
+     */
+    public ConcurrentCache(final int theSize) {
+        capacity = theSize;
+    }
+
+    /**
+     * Gets the current store.
+     * @param create whether to create a store if none exists
+     * @return the store or null
+     */
+    private Store<K, V> store(final boolean create) {
+        SoftReference<Store<K, V>> sref = ref;
+        Store<K, V> store = sref != null ? sref.get() : null;
+        if (store == null && create) {
+            synchronized (this) {
+                sref = ref;
+                store = sref != null ? sref.get() : null;
+                if (store == null) {
+                    store = new Store<>(capacity);
+                    ref = new SoftReference<>(store);
+                }
+            }
+        }
+        return store;
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public int count() {
+        final Store<K, V> store = store(false);
+        return store != null ? store.map.size() : 0;
+    }
+
+    @Override
+    public void clear() {
+        synchronized (this) {
+            ref = null;
+        }
+    }
+
+    @Override
+    public V get(final K key) {
+        final Store<K, V> store = store(false);
+        final Node<V> node = store != null ? store.map.get(key) : null;
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        // avoid writing the shared cache line when already set
+        if (!node.visited) {
+            node.visited = true;
+        }
+        hits.increment();
+        return node.value;
+    }
+
+    @Override
+    public void put(final K key, final V value) {
+        final Store<K, V> store = store(true);
+        if (store.map.put(key, new Node<>(value)) == null) {
+            store.clock.offer(key);
+            if (store.map.size() > capacity) {
+                evict(store);
+            }
+        }
+    }
+
+    /**
+     * Evicts entries until the store size is within capacity.
+     * <p>The clock hand gives a second chance to visited entries; after two full turns,
+     * entries are evicted regardless of their visited bit.</p>
+     * @param store the store
+     */
+    private void evict(final Store<K, V> store) {
+        evictLock.lock();
+        try {
+            int budget = 2 * store.map.size();
+            while (store.map.size() > capacity) {
+                final K key = store.clock.poll();
+                if (key == null) {
+                    break;
+                }
+                final Node<V> node = store.map.get(key);
+                if (node != null) {
+                    if (node.visited && --budget > 0) {
+                        node.visited = false;
+                        store.clock.offer(key);
+                    } else if (store.map.remove(key, node)) {
+                        evictions.increment();
+                    }
+                }
+            }
+        } finally {
+            evictLock.unlock();
+        }
+    }
+
+    /**
+     * Produces the cache entry set.
+     * <p>
+     * For testing only, perform deep copy of cache entries
+     *
+     * @return the cache entry list
+     */
+    @Override
+    public List<Map.Entry<K, V>> entries() {
+        final Store<K, V> store = store(false);
+        if (store == null) {
+            return Collections.emptyList();
+        }
+        final List<Map.Entry<K, V>> entries = new ArrayList<>(store.map.size());
+        for (final Map.Entry<K, Node<V>> e : store.map.entrySet()) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(e.getKey(), e.getValue().value));
+        }
+        return entries;
+    }
+
+    /**
+     * @return the number of successful get calls
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of unsuccessful get calls
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of entries evicted to keep the cache within its capacity
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrentCache{capacity=" + capacity
+                + ", count=" + count()
+                + ", hits=" + getHits()
+                + ", misses=" + getMisses()
+                + ", evictions=" + getEvictions() + "}";
+    }
+}
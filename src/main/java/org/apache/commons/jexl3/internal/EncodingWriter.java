@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3.internal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The writer used by templates evaluated to an output stream.
+ * <p>Characters are buffered and encoded in bulk; bytes that are already encoded in the writer charset,
+ * the verbatim blocks of templates, are copied to the stream as is.</p>
+ * <p>As with {@link java.io.OutputStreamWriter}, malformed input and unmappable characters are replaced.</p>
+ * <p>This writer can only be used with charsets whose encoding of a text is the concatenation of the encodings
+ * of its parts; charsets that start their output with a byte order mark, like UTF-16, can not.</p>
+ */
+final class EncodingWriter extends Writer {
+    /** The buffer sizes. */
+    private static final int CAPACITY = 8192;
+    /** Whether charsets can be used by this writer. */
+    private static final Map<Charset, Boolean> CONCATENATIVE = new ConcurrentHashMap<>();
+    /** The output stream. */
+    private final OutputStream out;
+    /** The charset. */
+    private final Charset charset;
+    /** The encoder. */
+    private final CharsetEncoder encoder;
+    /** The buffered characters. */
+    private final char[] chars = new char[CAPACITY];
+    /** The number of buffered characters. */
+    private int count = 0;
+    /** The encoded bytes. */
+    private final ByteBuffer bytes;
+
+    /**
+     * Creates a writer.
+     * @param stream the output stream
+     * @param cs the charset
+     */
+    EncodingWriter(final OutputStream stream, final Charset cs) {
+        out = stream;
+        charset = cs;
+        encoder = cs.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        bytes = ByteBuffer.allocate((int) Math.ceil(CAPACITY * encoder.maxBytesPerChar()));
+    }
+
+    /**
+     * Checks whether a charset can be used by this writer.
+     * @param cs the charset
+     * @return true if the encoding of a text is the concatenation of the encodings of its parts, false otherwise
+     */
+    static boolean isConcatenative(final Charset cs) {
+        return CONCATENATIVE.computeIfAbsent(cs, c -> {
+            if (!c.canEncode()) {
+                return false;
+            }
+            final byte[] lhs = "a".getBytes(c);
+            final byte[] rhs = "b".getBytes(c);
+            final byte[] concat = Arrays.copyOf(lhs, lhs.length + rhs.length);
+            System.arraycopy(rhs, 0, concat, lhs.length, rhs.length);
+            return Arrays.equals(concat, "ab".getBytes(c));
+        });
+    }
+
+    /**
+     * @return the charset bytes written through {@link #write(byte[])} must be encoded with
+     */
+    Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Writes bytes already encoded in this writer charset.
+     * @param encoded the bytes
+     * @throws IOException if the stream fails
+     */
+    void write(final byte[] encoded) throws IOException {
+        drain(true);
+        out.write(encoded);
+    }
+
+    @Override
+    public void write(final int c) throws IOException {
+        if (count == CAPACITY) {
+            drain(false);
+        }
+        chars[count++] = (char) c;
+    }
+
+    @Override
+    public void write(final char[] cbuf, final int off, final int len) throws IOException {
+        int offset = off;
+        int length = len;
+        while (length > 0) {
+            if (count == CAPACITY) {
+                drain(false);
+            }
+            final int n = Math.min(length, CAPACITY - count);
+            System.arraycopy(cbuf, offset, chars, count, n);
+            count += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    @Override
+    public void write(final String str, final int off, final int len) throws IOException {
+        int offset = off;
+        int length = len;
+        while (length > 0) {
+            if (count == CAPACITY) {
+                drain(false);
+            }
+            final int n = Math.min(length, CAPACITY - count);
+            str.getChars(offset, offset + n, chars, count);
+            count += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * Encodes the buffered characters to the stream.
+     * <p>When not at the end of input, a trailing high surrogate is kept buffered.</p>
+     * @param end whether the buffered characters are the end of input
+     * @throws IOException if the stream fails
+     */
+    private void drain(final boolean end) throws IOException {
+        if (count == 0) {
+            return;
+        }
+        final CharBuffer input = CharBuffer.wrap(chars, 0, count);
+        CoderResult result;
+        do {
+            result = encoder.encode(input, bytes, end);
+            if (result.isError()) {
+                result.throwException();
+            }
+            flushBytes();
+        } while (result.isOverflow());
+        if (end) {
+            do {
+                result = encoder.flush(bytes);
+                flushBytes();
+            } while (result.isOverflow());
+            encoder.reset();
+        }
+        final int remaining = input.remaining();
+        System.arraycopy(chars, input.position(), chars, 0, remaining);
+        count = remaining;
+    }
+
+    /**
+     * Writes the encoded bytes to the stream.
+     * @throws IOException if the stream fails
+     */
+    private void flushBytes() throws IOException {
+        if (bytes.position() > 0) {
+            out.write(bytes.array(), 0, bytes.position());
+            bytes.clear();
+        }
+    }
+
+    /**
+     * Encodes all buffered characters to the stream, without flushing it.
+     * @throws IOException if the stream fails
+     */
+    void finish() throws IOException {
+        drain(true);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain(true);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        out.close();
+    }
+}
@@ -18,13 +18,17 @@ package org.apache.commons.jexl3.internal;
 
 import org.apache.commons.jexl3.JexlArithmetic;
 import org.apache.commons.jexl3.JexlBuilder;
+import org.apache.commons.jexl3.JexlCache;
 import org.apache.commons.jexl3.JexlContext;
 import org.apache.commons.jexl3.JexlEngine;
 import org.apache.commons.jexl3.JexlException;
 import org.apache.commons.jexl3.JexlFeatures;
 import org.apache.commons.jexl3.JexlInfo;
 import org.apache.commons.jexl3.JexlOptions;
+import org.apache.commons.jexl3.JexlProfiler;
 import org.apache.commons.jexl3.JexlScript;
+import org.apache.commons.jexl3.JexlWarmUp;
+import org.apache.commons.jexl3.internal.introspection.Introspector;
 import org.apache.commons.jexl3.internal.introspection.SandboxUberspect;
 import org.apache.commons.jexl3.internal.introspection.Uberspect;
 import org.apache.commons.jexl3.introspection.JexlMethod;
@@ -39,15 +43,19 @@ import org.apache.commons.jexl3.parser.ASTJexlScript;
 import org.apache.commons.jexl3.parser.ASTMethodNode;
 import org.apache.commons.jexl3.parser.ASTNumberLiteral;
 import org.apache.commons.jexl3.parser.ASTStringLiteral;
+import org.apache.commons.jexl3.parser.ConstantFolder;
 import org.apache.commons.jexl3.parser.JexlNode;
 import org.apache.commons.jexl3.parser.Parser;
-import org.apache.commons.jexl3.parser.StringProvider;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -55,6 +63,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
+import java.util.function.IntFunction;
 import java.util.function.Predicate;
 
 import static org.apache.commons.jexl3.parser.JexlParser.PRAGMA_IMPORT;
@@ -150,17 +159,33 @@ public class Engine extends JexlEngine {
     protected final AtomicBoolean parsing = new AtomicBoolean(false);
     /**
      * The {@link Parser}; when parsing expressions, this engine uses the parser if it
-     * is not already in use otherwise it will create a new temporary one.
+     * is not already in use otherwise it will acquire one from the parser pool.
      */
-    protected final Parser parser = new Parser(new StringProvider(";")); //$NON-NLS-1$
+    protected final Parser parser = ParserPool.createParser();
+    /**
+     * The pool of parsers used when the main parser is in use.
+     */
+    protected final ParserPool parsers;
+    /**
+     * Whether scripts are compiled.
+     */
+    protected final boolean compile;
+    /**
+     * Whether constant sub-trees are folded after parsing.
+     */
+    protected final boolean foldConstants;
     /**
      * The expression max length to hit the cache.
      */
     protected final int cacheThreshold;
+    /**
+     * The cache factory method.
+     */
+    protected final IntFunction<JexlCache<?, ?>> cacheFactory;
     /**
      * The expression cache.
      */
-    protected final SoftCache<Source, ASTJexlScript> cache;
+    protected final JexlCache<Source, ASTJexlScript> cache;
     /**
      * The default jxlt engine.
      */
@@ -198,7 +223,7 @@ public class Engine extends JexlEngine {
         this.stackOverflow = conf.stackOverflow() > 0? conf.stackOverflow() : Integer.MAX_VALUE;
         // core properties:
         final JexlUberspect uber = conf.uberspect() == null
-                ? getUberspect(conf.logger(), conf.strategy(), conf.permissions())
+                ? getUberspect(conf.logger(), conf.strategy(), conf.permissions(), introspectionOptions(conf))
                 : conf.uberspect();
         final ClassLoader loader = conf.loader();
         if (loader != null) {
@@ -229,8 +254,12 @@ public class Engine extends JexlEngine {
         this.scriptFeatures = new JexlFeatures(features).script(true).namespaceTest(nsTest);
         this.charset = conf.charset();
         // caching:
-        this.cache = conf.cache() <= 0 ? null : new SoftCache<>(conf.cache());
+        this.cacheFactory = conf.cacheFactory();
+        this.cache = conf.cache() <= 0 ? null : createCache(conf.cache());
         this.cacheThreshold = conf.cacheThreshold();
+        this.parsers = new ParserPool(conf.parserPool());
+        this.compile = conf.compile();
+        this.foldConstants = conf.foldConstants() && ConstantFolder.isFoldable(arithmetic);
         if (uberspect == null) {
             throw new IllegalArgumentException("uberspect can not be null");
         }
@@ -261,6 +290,32 @@ public class Engine extends JexlEngine {
         return new Uberspect(logger, strategy, permissions);
     }
 
+    /**
+     * Gets an Uberspect instance with introspection options.
+     * <p>Without options, this is the same as {@link #getUberspect(Log, JexlUberspect.ResolverStrategy,
+     * JexlPermissions)}.</p>
+     * @param logger the logger
+     * @param strategy the strategy
+     * @param permissions the permissions
+     * @param options the introspection options, may be null
+     * @return Uberspect the default uberspector instance.
+     * @since 3.3.1
+     */
+    public static Uberspect getUberspect(
+            final Log logger,
+            final JexlUberspect.ResolverStrategy strategy,
+            final JexlPermissions permissions,
+            final Set<Introspector.Option> options) {
+        if (options == null || options.isEmpty()) {
+            return getUberspect(logger, strategy, permissions);
+        }
+        // same default permissions as the default uberspect
+        final JexlPermissions perms = permissions == null || permissions == JexlPermissions.UNRESTRICTED
+                ? JexlPermissions.parse()
+                : permissions;
+        return new Uberspect(logger, strategy, perms, options);
+    }
+
     /**
      * Use {@link Engine#getUberspect(Log, JexlUberspect.ResolverStrategy, JexlPermissions)}.
      * @deprecated 3.3
@@ -273,6 +328,16 @@ public class Engine extends JexlEngine {
         return getUberspect(logger, strategy, null);
     }
 
+    /**
+     * Gets the pool of parsers used when the main parser is in use.
+     * <p>Its counters report how often parsing was contended and how many parsers had to be created.</p>
+     * @return the parser pool
+     * @since 3.3.1
+     */
+    public ParserPool getParserPool() {
+        return parsers;
+    }
+
     @Override
     public JexlUberspect getUberspect() {
         return uberspect;
@@ -343,6 +408,22 @@ public class Engine extends JexlEngine {
         return functions.get(name);
     }
 
+    /**
+     * Gets the introspection options from a builder.
+     * @param conf the builder
+     * @return the introspection options
+     */
+    private static Set<Introspector.Option> introspectionOptions(final JexlBuilder conf) {
+        final Set<Introspector.Option> options = EnumSet.noneOf(Introspector.Option.class);
+        if (conf.methodHandles()) {
+            options.add(Introspector.Option.METHOD_HANDLES);
+        }
+        if (conf.lazyIntrospection()) {
+            options.add(Introspector.Option.LAZY_MAPS);
+        }
+        return options;
+    }
+
     /**
      * Solves an optional option.
      * @param conf the option as configured, may be null
@@ -575,6 +656,43 @@ public class Engine extends JexlEngine {
         return new TemplateEngine(this, noScript, cacheSize, immediate, deferred);
     }
 
+    /**
+     * Saves the expression cache to a file.
+     * <p>Only the entries parsed with this engine default expression or script features are saved.</p>
+     * @param path the file path
+     * @return the number of saved entries
+     * @throws IOException if writing the file fails
+     * @since 3.3.1
+     */
+    public int saveCache(final Path path) throws IOException {
+        return CacheFile.save(this, path);
+    }
+
+    /**
+     * Preloads the expression cache from a file written by {@link #saveCache(Path)}.
+     * <p>The file is mapped in memory. If it was written by a different version of JEXL or by an engine
+     * with different features, it is ignored.</p>
+     * @param path the file path
+     * @return the number of loaded entries
+     * @throws IOException if reading the file fails or if it is not a valid cache file
+     * @since 3.3.1
+     */
+    public int loadCache(final Path path) throws IOException {
+        return CacheFile.load(this, path);
+    }
+
+    /**
+     * Creates a cache.
+     * @param <K> the key type
+     * @param <V> the value type
+     * @param cacheSize the cache size, must be &gt; 0
+     * @return a cache instance produced by this engine cache factory
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> JexlCache<K, V> createCache(final int cacheSize) {
+        return (JexlCache<K, V>) cacheFactory.apply(cacheSize);
+    }
+
     @Override
     public void clearCache() {
         if (cache != null) {
@@ -582,6 +700,21 @@ public class Engine extends JexlEngine {
         }
     }
 
+    @Override
+    public JexlWarmUp warmUp(final JexlScript script, final JexlContext context, final Object... args) {
+        if (!(script instanceof Script) || ((Script) script).jexl != this) {
+            throw new IllegalArgumentException("script was not created by this engine");
+        }
+        JexlException error = null;
+        try {
+            script.execute(context, args);
+        } catch (final JexlException xjexl) {
+            error = xjexl;
+        }
+        final JexlArithmetic.Uberspect operators = uberspect.getArithmetic(arithmetic);
+        return createWarmUp(WarmUpEntry.collect(((Script) script).script, operators), error);
+    }
+
     /**
      * Creates an interpreter.
      * @param context a JexlContext; if null, the empty context is used instead.
@@ -590,6 +723,12 @@ public class Engine extends JexlEngine {
      * @return an Interpreter
      */
     protected Interpreter createInterpreter(final JexlContext context, final Frame frame, final JexlOptions opts) {
+        if (context instanceof JexlContext.ProfilerHandle) {
+            final JexlProfiler profiler = ((JexlContext.ProfilerHandle) context).getProfiler();
+            if (profiler != null) {
+                return new ProfilingInterpreter(this, opts, context, frame, profiler);
+            }
+        }
         return new Interpreter(this, opts, context, frame);
     }
 
@@ -996,7 +1135,7 @@ public class Engine extends JexlEngine {
             script = cache.get(source);
             if (script != null) {
                 final Scope f = script.getScope();
-                if ((f == null && scope == null) || (f != null && f.equals(scope))) {
+                if ((f == null && scope == null) || (f != null && f.equals(scope)) || isCompatible(f, scope)) {
                     return script;
                 }
             }
@@ -1012,9 +1151,16 @@ public class Engine extends JexlEngine {
                 parsing.set(false);
             }
         } else {
-            // ...otherwise parser was in use, create a new temporary one
-            final Parser lparser = new Parser(new StringProvider(";"));
-            script = lparser.parse(ninfo, features, src, scope);
+            // ...otherwise parser was in use, acquire one from the pool
+            final Parser lparser = parsers.acquire();
+            try {
+                script = lparser.parse(ninfo, features, src, scope);
+            } finally {
+                parsers.release(lparser);
+            }
+        }
+        if (foldConstants) {
+            ConstantFolder.fold(script);
         }
         if (source != null) {
             cache.put(source, script);
@@ -1022,6 +1168,20 @@ public class Engine extends JexlEngine {
         return script;
     }
 
+    /**
+     * Checks whether a cached script scope can be used in place of a parsing scope.
+     * <p>Top-level scopes declaring the same parameters are compatible; this allows scripts
+     * created with parameters - or loaded from a cache file - to be reused.</p>
+     * @param cached the cached script scope
+     * @param scope the parsing scope
+     * @return true if compatible, false otherwise
+     */
+    private static boolean isCompatible(final Scope cached, final Scope scope) {
+        return cached != null && scope != null
+            && cached.getParent() == null && scope.getParent() == null
+            && Arrays.equals(cached.getParameters(), scope.getParameters());
+    }
+
     /**
      * Trims the source from front and ending spaces.
      * @param str expression to clean
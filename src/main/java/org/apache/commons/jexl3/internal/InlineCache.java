@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3.internal;
+
+import org.apache.commons.jexl3.JexlEngine;
+import org.apache.commons.jexl3.introspection.JexlPropertyGet;
+import org.apache.commons.jexl3.introspection.JexlPropertySet;
+import org.apache.commons.jexl3.parser.JexlNode;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A polymorphic inline cache of executors, stored in a node value.
+ * <p>A node first caches a single executor - a property getter, setter or function call; when an evaluation
+ * needs another executor of the same kind, typically because the receiver class differs, the node value becomes
+ * an inline cache holding both. The cache holds up to {@link #LIMIT} executors that are tried in turn;
+ * beyond, the node is megamorphic: it no longer caches and every evaluation resolves its executor.</p>
+ * <p>The cache counts its hits, the evaluations that used one of its executors, and its misses,
+ * the evaluations that had to resolve an executor.</p>
+ * @since 3.3.1
+ */
+public final class InlineCache implements JexlNode.ExecutorCache {
+    /** The maximum number of executors. */
+    public static final int LIMIT = 4;
+    /** The empty executors. */
+    private static final Object[] NONE = new Object[0];
+    /** The executors, copied on write. */
+    private volatile Object[] executors;
+    /** Whether the cache overflowed. */
+    private volatile boolean megamorphic = false;
+    /** The number of hits. */
+    private final LongAdder hits = new LongAdder();
+    /** The number of misses. */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a cache.
+     * @param first the executor previously cached
+     * @param second the new executor
+     */
+    private InlineCache(final Object first, final Object second) {
+        executors = new Object[]{first, second};
+        misses.increment();
+    }
+
+    /**
+     * Caches an executor in a node.
+     * <p>The node value becomes the executor if it was empty or held something else than an executor of the
+     * same kind, an inline cache if it held another executor of the same kind.</p>
+     * @param node the node
+     * @param executor the executor
+     * @param kind the executor kind, JexlPropertyGet, JexlPropertySet or JexlNode.Funcall
+     */
+    static void put(final JexlNode node, final Object executor, final Class<?> kind) {
+        final Object cached = node.jjtGetValue();
+        if (cached instanceof InlineCache) {
+            ((InlineCache) cached).add(executor);
+        } else if (kind.isInstance(cached) && !same(cached, executor)) {
+            node.jjtSetValue(new InlineCache(cached, executor));
+        } else {
+            node.jjtSetValue(executor);
+        }
+    }
+
+    /**
+     * Checks whether two executors are the same.
+     * @param lhs an executor
+     * @param rhs another executor
+     * @return true if equal
+     */
+    private static boolean same(final Object lhs, final Object rhs) {
+        if (lhs instanceof InterpreterBase.Funcall && rhs instanceof InterpreterBase.Funcall) {
+            final InterpreterBase.Funcall lf = (InterpreterBase.Funcall) lhs;
+            final InterpreterBase.Funcall rf = (InterpreterBase.Funcall) rhs;
+            return lf.getClass() == rf.getClass() && lf.narrow == rf.narrow && lf.me.equals(rf.me);
+        }
+        return lhs.equals(rhs);
+    }
+
+    /**
+     * Adds an executor to this cache.
+     * <p>An executor equal to a cached one replaces it; if the cache is full, it becomes megamorphic.</p>
+     * @param executor the executor
+     */
+    private void add(final Object executor) {
+        misses.increment();
+        // megamorphic nodes do not contend
+        if (megamorphic) {
+            return;
+        }
+        synchronized (this) {
+            final Object[] cached = executors;
+            for (int e = 0; e < cached.length; ++e) {
+                if (same(cached[e], executor)) {
+                    final Object[] copy = cached.clone();
+                    copy[e] = executor;
+                    executors = copy;
+                    return;
+                }
+            }
+            if (cached.length >= LIMIT) {
+                megamorphic = true;
+                executors = NONE;
+            } else {
+                final Object[] copy = new Object[cached.length + 1];
+                System.arraycopy(cached, 0, copy, 0, cached.length);
+                copy[cached.length] = executor;
+                executors = copy;
+            }
+        }
+    }
+
+    /**
+     * Tries the cached property getters.
+     * @param object the object
+     * @param attribute the property
+     * @return the property value or TRY_FAILED
+     */
+    Object tryGet(final Object object, final Object attribute) {
+        for (final Object executor : executors) {
+            if (executor instanceof JexlPropertyGet) {
+                final Object value = ((JexlPropertyGet) executor).tryInvoke(object, attribute);
+                if (value != JexlEngine.TRY_FAILED) {
+                    hits.increment();
+                    return value;
+                }
+            }
+        }
+        return JexlEngine.TRY_FAILED;
+    }
+
+    /**
+     * Tries the cached property setters.
+     * @param object the object
+     * @param attribute the property
+     * @param value the value to set
+     * @return the setter result or TRY_FAILED
+     */
+    Object trySet(final Object object, final Object attribute, final Object value) {
+        for (final Object executor : executors) {
+            if (executor instanceof JexlPropertySet) {
+                final Object eval = ((JexlPropertySet) executor).tryInvoke(object, attribute, value);
+                if (eval != JexlEngine.TRY_FAILED) {
+                    hits.increment();
+                    return eval;
+                }
+            }
+        }
+        return JexlEngine.TRY_FAILED;
+    }
+
+    /**
+     * Tries the cached function calls.
+     * @param ii the interpreter
+     * @param name the method name
+     * @param target the method target
+     * @param args the method arguments
+     * @return the call result or TRY_FAILED
+     */
+    Object tryCall(final InterpreterBase ii, final String name, final Object target, final Object[] args) {
+        for (final Object executor : executors) {
+            if (executor instanceof InterpreterBase.Funcall) {
+                final Object eval = ((InterpreterBase.Funcall) executor).tryInvoke(ii, name, target, args);
+                if (eval != JexlEngine.TRY_FAILED) {
+                    hits.increment();
+                    return eval;
+                }
+            }
+        }
+        return JexlEngine.TRY_FAILED;
+    }
+
+    /**
+     * @return the number of cached executors
+     */
+    public int size() {
+        return executors.length;
+    }
+
+    /**
+     * @return true if this cache overflowed and no longer caches, false otherwise
+     */
+    public boolean isMegamorphic() {
+        return megamorphic;
+    }
+
+    /**
+     * @return the number of evaluations that used a cached executor
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of evaluations that resolved an executor since this cache was created
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return (megamorphic ? "megamorphic" : "polymorphic(" + executors.length + ")")
+               + "{hits=" + getHits() + ", misses=" + getMisses() + "}";
+    }
+}
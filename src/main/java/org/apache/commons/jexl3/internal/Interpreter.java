@@ -45,9 +45,11 @@ public class Interpreter extends InterpreterBase {
     /** Frame height. */
     protected int fp = 0;
     /** Symbol values. */
-    protected final Frame frame;
+    protected Frame frame;
     /** Block micro-frames. */
     protected LexicalFrame block = null;
+    /** Whether arithmetic operators use type specializations. */
+    protected final boolean specialize;
 
     /**
      * The thread local interpreter.
@@ -65,6 +67,7 @@ public class Interpreter extends InterpreterBase {
     protected Interpreter(final Engine engine, final JexlOptions opts, final JexlContext aContext, final Frame eFrame) {
         super(engine, opts, aContext);
         this.frame = eFrame;
+        this.specialize = cache && ArithmeticSpecialization.isSpecializable(arithmetic);
     }
 
     /**
@@ -76,6 +79,17 @@ public class Interpreter extends InterpreterBase {
         super(ii, jexla);
         frame = ii.frame;
         block = ii.block != null? new LexicalFrame(ii.block) : null;
+        specialize = cache && ArithmeticSpecialization.isSpecializable(arithmetic);
+    }
+
+    /**
+     * Sets the frame of the next interpretation.
+     * <p>This allows the executions of a batch to share an interpreter.</p>
+     * @param eFrame the evaluation frame, arguments and local variables
+     */
+    protected void setFrame(final Frame eFrame) {
+        frame = eFrame;
+        block = null;
     }
 
     /**
@@ -99,6 +113,17 @@ public class Interpreter extends InterpreterBase {
      * @throws JexlException if any error occurs during interpretation.
      */
     public Object interpret(final JexlNode node) {
+        return interpret(node, null);
+    }
+
+    /**
+     * Interpret the given script/expression, possibly through its compiled code.
+     * @param node the script or expression to interpret.
+     * @param code the node compiled code or null to visit the node
+     * @return the result of the interpretation.
+     * @throws JexlException if any error occurs during interpretation.
+     */
+    protected Object interpret(final JexlNode node, final Compiler.Code code) {
         JexlContext.ThreadLocal tcontext = null;
         JexlEngine tjexl = null;
         Interpreter tinter = null;
@@ -115,7 +140,7 @@ public class Interpreter extends InterpreterBase {
                 throw new JexlException.StackOverflow(node.jexlInfo(), "jexl (" + jexl.stackOverflow + ")", null);
             }
             cancelCheck(node);
-            return arithmetic.controlReturn(node.jjtAccept(this, null));
+            return arithmetic.controlReturn(code != null ? code.eval(this) : node.jjtAccept(this, null));
         } catch (final StackOverflowError xstack) {
             final JexlException xjexl = new JexlException.StackOverflow(node.jexlInfo(), "jvm", xstack);
             if (!isSilent()) {
@@ -186,12 +211,30 @@ public class Interpreter extends InterpreterBase {
         setAttribute(object, attribute, value, null);
     }
 
+    /**
+     * Attempts to evaluate a diadic operator through its type specialization or its overload.
+     * @param node the operator node
+     * @param operator the operator
+     * @param left the left operand
+     * @param right the right operand
+     * @return the result or JexlEngine.TRY_FAILED if the arithmetic must be called
+     */
+    protected Object tryOperator(final JexlNode node, final JexlOperator operator, final Object left, final Object right) {
+        if (specialize) {
+            final Object result = ArithmeticSpecialization.tryEvaluate(node, operator, left, right);
+            if (result != JexlEngine.TRY_FAILED) {
+                return result;
+            }
+        }
+        return operators.tryOverload(node, operator, left, right);
+    }
+
     @Override
     protected Object visit(final ASTAddNode node, final Object data) {
         final Object left = node.jjtGetChild(0).jjtAccept(this, data);
         final Object right = node.jjtGetChild(1).jjtAccept(this, data);
         try {
-            final Object result = operators.tryOverload(node, JexlOperator.ADD, left, right);
+            final Object result = tryOperator(node, JexlOperator.ADD, left, right);
             return result != JexlEngine.TRY_FAILED ? result : arithmetic.add(left, right);
         } catch (final ArithmeticException xrt) {
             throw new JexlException(findNullOperand(node, left, right), "+ error", xrt);
@@ -203,7 +246,7 @@ public class Interpreter extends InterpreterBase {
         final Object left = node.jjtGetChild(0).jjtAccept(this, data);
         final Object right = node.jjtGetChild(1).jjtAccept(this, data);
         try {
-            final Object result = operators.tryOverload(node, JexlOperator.SUBTRACT, left, right);
+            final Object result = tryOperator(node, JexlOperator.SUBTRACT, left, right);
             return result != JexlEngine.TRY_FAILED ? result : arithmetic.subtract(left, right);
         } catch (final ArithmeticException xrt) {
             throw new JexlException(findNullOperand(node, left, right), "- error", xrt);
@@ -215,7 +258,7 @@ public class Interpreter extends InterpreterBase {
         final Object left = node.jjtGetChild(0).jjtAccept(this, data);
         final Object right = node.jjtGetChild(1).jjtAccept(this, data);
         try {
-            final Object result = operators.tryOverload(node, JexlOperator.MULTIPLY, left, right);
+            final Object result = tryOperator(node, JexlOperator.MULTIPLY, left, right);
             return result != JexlEngine.TRY_FAILED ? result : arithmetic.multiply(left, right);
         } catch (final ArithmeticException xrt) {
             throw new JexlException(findNullOperand(node, left, right), "* error", xrt);
@@ -329,7 +372,7 @@ public class Interpreter extends InterpreterBase {
         final Object left = node.jjtGetChild(0).jjtAccept(this, data);
         final Object right = node.jjtGetChild(1).jjtAccept(this, data);
         try {
-            final Object result = operators.tryOverload(node, JexlOperator.EQ, left, right);
+            final Object result = tryOperator(node, JexlOperator.EQ, left, right);
             return result != JexlEngine.TRY_FAILED ? result : arithmetic.equals(left, right);
         } catch (final ArithmeticException xrt) {
             throw new JexlException(findNullOperand(node, left, right), "== error", xrt);
@@ -341,7 +384,7 @@ public class Interpreter extends InterpreterBase {
         final Object left = node.jjtGetChild(0).jjtAccept(this, data);
         final Object right = node.jjtGetChild(1).jjtAccept(this, data);
         try {
-            final Object result = operators.tryOverload(node, JexlOperator.EQ, left, right);
+            final Object result = tryOperator(node, JexlOperator.EQ, left, right);
             return result != JexlEngine.TRY_FAILED
                    ? !arithmetic.toBoolean(result)
                    : !arithmetic.equals(left, right);
@@ -355,7 +398,7 @@ public class Interpreter extends InterpreterBase {
         final Object left = node.jjtGetChild(0).jjtAccept(this, data);
         final Object right = node.jjtGetChild(1).jjtAccept(this, data);
         try {
-            final Object result = operators.tryOverload(node, JexlOperator.GTE, left, right);
+            final Object result = tryOperator(node, JexlOperator.GTE, left, right);
             return result != JexlEngine.TRY_FAILED
                    ? result
                    : arithmetic.greaterThanOrEqual(left, right);
@@ -369,7 +412,7 @@ public class Interpreter extends InterpreterBase {
         final Object left = node.jjtGetChild(0).jjtAccept(this, data);
         final Object right = node.jjtGetChild(1).jjtAccept(this, data);
         try {
-            final Object result = operators.tryOverload(node, JexlOperator.GT, left, right);
+            final Object result = tryOperator(node, JexlOperator.GT, left, right);
             return result != JexlEngine.TRY_FAILED
                    ? result
                    : arithmetic.greaterThan(left, right);
@@ -383,7 +426,7 @@ public class Interpreter extends InterpreterBase {
         final Object left = node.jjtGetChild(0).jjtAccept(this, data);
         final Object right = node.jjtGetChild(1).jjtAccept(this, data);
         try {
-            final Object result = operators.tryOverload(node, JexlOperator.LTE, left, right);
+            final Object result = tryOperator(node, JexlOperator.LTE, left, right);
             return result != JexlEngine.TRY_FAILED
                    ? result
                    : arithmetic.lessThanOrEqual(left, right);
@@ -397,7 +440,7 @@ public class Interpreter extends InterpreterBase {
         final Object left = node.jjtGetChild(0).jjtAccept(this, data);
         final Object right = node.jjtGetChild(1).jjtAccept(this, data);
         try {
-            final Object result = operators.tryOverload(node, JexlOperator.LT, left, right);
+            final Object result = tryOperator(node, JexlOperator.LT, left, right);
             return result != JexlEngine.TRY_FAILED
                    ? result
                    : arithmetic.lessThan(left, right);
@@ -1852,6 +1895,11 @@ public class Interpreter extends InterpreterBase {
                     if (JexlEngine.TRY_FAILED != eval) {
                         return eval;
                     }
+                } else if (cached instanceof InlineCache) {
+                    final Object eval = ((InlineCache) cached).tryCall(this, null, target, argv);
+                    if (JexlEngine.TRY_FAILED != eval) {
+                        return eval;
+                    }
                 }
             }
             boolean narrow = false;
@@ -1890,7 +1938,7 @@ public class Interpreter extends InterpreterBase {
                 final Object eval = ctor.invoke(target, argv);
                 // cache executor in volatile JexlNode.value
                 if (funcall != null) {
-                    node.jjtSetValue(funcall);
+                    InlineCache.put(node, funcall, Funcall.class);
                 }
                 return eval;
             }
@@ -934,6 +934,9 @@ public abstract class InterpreterBase extends ParserVisitor {
                 if (cached instanceof Funcall) {
                     return ((Funcall) cached).tryInvoke(InterpreterBase.this, mname, ntarget, arguments);
                 }
+                if (cached instanceof InlineCache) {
+                    return ((InlineCache) cached).tryCall(InterpreterBase.this, mname, ntarget, arguments);
+                }
             }
             return JexlEngine.TRY_FAILED;
         }
@@ -952,7 +955,7 @@ public abstract class InterpreterBase extends ParserVisitor {
                 final Object eval = vm.invoke(target, argv);
                 // cache executor in volatile JexlNode.value
                 if (funcall != null) {
-                    node.jjtSetValue(funcall);
+                    InlineCache.put(node, funcall, Funcall.class);
                 }
                 return eval;
             }
@@ -990,6 +993,11 @@ public abstract class InterpreterBase extends ParserVisitor {
                     if (!vg.tryFailed(value)) {
                         return value;
                     }
+                } else if (cached instanceof InlineCache) {
+                    final Object value = ((InlineCache) cached).tryGet(object, attribute);
+                    if (value != JexlEngine.TRY_FAILED) {
+                        return value;
+                    }
                 }
             }
             // resolve that property
@@ -999,7 +1007,7 @@ public abstract class InterpreterBase extends ParserVisitor {
                 final Object value = vg.invoke(object);
                 // cache executor in volatile JexlNode.value
                 if (node != null && cache && vg.isCacheable()) {
-                    node.jjtSetValue(vg);
+                    InlineCache.put(node, vg, JexlPropertyGet.class);
                 }
                 return value;
             }
@@ -1049,6 +1057,11 @@ public abstract class InterpreterBase extends ParserVisitor {
                     if (!setter.tryFailed(eval)) {
                         return;
                     }
+                } else if (cached instanceof InlineCache) {
+                    final Object eval = ((InlineCache) cached).trySet(object, attribute, value);
+                    if (eval != JexlEngine.TRY_FAILED) {
+                        return;
+                    }
                 }
             }
             final List<JexlUberspect.PropertyResolver> resolvers = uberspect.getResolvers(operator, object);
@@ -1065,7 +1078,7 @@ public abstract class InterpreterBase extends ParserVisitor {
                 // cache executor in volatile JexlNode.value
                 vs.invoke(object, value);
                 if (node != null && cache && vs.isCacheable()) {
-                    node.jjtSetValue(vs);
+                    InlineCache.put(node, vs, JexlPropertySet.class);
                 }
                 return;
             }
@@ -16,7 +16,11 @@
  */
 package org.apache.commons.jexl3.internal;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.BitSet;
+import java.util.Objects;
 
 /**
  * The set of symbols declared in a lexical scope.
@@ -207,4 +211,54 @@ public class LexicalScope {
     public int getSymbolCount() {
         return count;
     }
+
+    /**
+     * Checks whether this scope declares the same symbols as another one.
+     * @param other the other scope
+     * @return true if equivalent, false otherwise
+     */
+    boolean isEquivalent(final LexicalScope other) {
+        return other != null
+               && count == other.count
+               && symbols == other.symbols
+               && Objects.equals(moreSymbols, other.moreSymbols);
+    }
+
+    /**
+     * Writes this scope symbols.
+     * @param out the output
+     * @throws IOException if writing fails
+     * @since 3.3.1
+     */
+    public void write(final DataOutput out) throws IOException {
+        out.writeInt(count);
+        out.writeLong(symbols);
+        final long[] more = moreSymbols != null ? moreSymbols.toLongArray() : new long[0];
+        out.writeInt(more.length);
+        for (final long bits : more) {
+            out.writeLong(bits);
+        }
+    }
+
+    /**
+     * Reads a scope written by {@link #write(DataOutput)}.
+     * @param in the input
+     * @return the scope
+     * @throws IOException if reading fails
+     * @since 3.3.1
+     */
+    public static LexicalScope read(final DataInput in) throws IOException {
+        final LexicalScope scope = new LexicalScope();
+        scope.count = in.readInt();
+        scope.symbols = in.readLong();
+        final int length = in.readInt();
+        if (length > 0) {
+            final long[] more = new long[length];
+            for (int i = 0; i < length; ++i) {
+                more[i] = in.readLong();
+            }
+            scope.moreSymbols = BitSet.valueOf(more);
+        }
+        return scope;
+    }
 }
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3.internal;
+
+import org.apache.commons.jexl3.parser.Parser;
+import org.apache.commons.jexl3.parser.StringProvider;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded pool of parsers.
+ * <p>The engine uses its main parser whenever it is not in use; this pool provides parsers to the threads
+ * that would otherwise have to create a temporary one. Each slot is acquired and released through
+ * atomic operations, no locking is involved.</p>
+ * <p>With a capacity of 0, no parser is ever kept and each acquisition creates a new parser.</p>
+ */
+public final class ParserPool {
+    /** The pooled parsers, a null slot is either empty or in use. */
+    private final AtomicReferenceArray<Parser> slots;
+    /** The number of parser acquisitions, ie the number of times the main parser was in use. */
+    private final LongAdder contended = new LongAdder();
+    /** The number of parsers created by this pool. */
+    private final LongAdder allocated = new LongAdder();
+
+    /**
+     * Creates a pool.
+     * @param capacity the maximum number of parsers kept, negative is considered as 0
+     */
+    ParserPool(final int capacity) {
+        slots = new AtomicReferenceArray<>(Math.max(0, capacity));
+    }
+
+    /**
+     * Creates a parser.
+     * @return a new parser instance
+     */
+    static Parser createParser() {
+        return new Parser(new StringProvider(";")); //$NON-NLS-1$
+    }
+
+    /**
+     * Gets the first slot index to look at for the current thread.
+     * <p>Spreading threads across slots reduces the number of failed compare-and-set.</p>
+     * @param length the number of slots, must be &gt; 0
+     * @return a slot index
+     */
+    private static int start(final int length) {
+        return (int) (Thread.currentThread().getId() % length);
+    }
+
+    /**
+     * Acquires a parser, creating one if none is available.
+     * @return a parser that must be released once the parsing is done
+     */
+    Parser acquire() {
+        contended.increment();
+        final int length = slots.length();
+        if (length > 0) {
+            final int start = start(length);
+            for (int i = 0; i < length; ++i) {
+                final int slot = (start + i) % length;
+                if (slots.get(slot) != null) {
+                    final Parser parser = slots.getAndSet(slot, null);
+                    if (parser != null) {
+                        return parser;
+                    }
+                }
+            }
+        }
+        allocated.increment();
+        return createParser();
+    }
+
+    /**
+     * Releases a parser, keeping it if an empty slot is found.
+     * @param parser the parser
+     */
+    void release(final Parser parser) {
+        final int length = slots.length();
+        if (length > 0) {
+            final int start = start(length);
+            for (int i = 0; i < length; ++i) {
+                final int slot = (start + i) % length;
+                if (slots.get(slot) == null && slots.compareAndSet(slot, null, parser)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the maximum number of parsers kept by this pool
+     */
+    public int capacity() {
+        return slots.length();
+    }
+
+    /**
+     * @return the number of times the engine main parser was in use and a pooled parser was acquired
+     */
+    public long getContended() {
+        return contended.sum();
+    }
+
+    /**
+     * @return the number of parsers this pool created
+     */
+    public long getAllocated() {
+        return allocated.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "ParserPool{capacity=" + capacity()
+                + ", contended=" + getContended()
+                + ", allocated=" + getAllocated() + "}";
+    }
+}
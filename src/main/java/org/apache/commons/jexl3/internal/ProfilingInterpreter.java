@@ -0,0 +1,507 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3.internal;
+
+import org.apache.commons.jexl3.JexlContext;
+import org.apache.commons.jexl3.JexlOptions;
+import org.apache.commons.jexl3.JexlProfiler;
+import org.apache.commons.jexl3.parser.*;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * An interpreter recording each node evaluation in a profiler.
+ * <p>Each visit measures the node evaluation time, children included, and deduces its exclusive time by
+ * subtracting the time measured by its children visits, their recording in the profiler included. The
+ * evaluations performed by other interpreters, for instance when calling a closure, are only accounted for in
+ * the inclusive time of the calling node.</p>
+ * <p>The engine creates this interpreter only when the context provides a profiler.</p>
+ * @since 3.3.1
+ */
+class ProfilingInterpreter extends Interpreter {
+    /** The profiler. */
+    private final JexlProfiler profiler;
+    /** The time spent in children visits, one slot per visit in progress. */
+    private long[] children = new long[16];
+    /** The number of visits in progress. */
+    private int depth = 0;
+
+    /**
+     * Creates a profiling interpreter.
+     * @param engine   the engine creating this interpreter
+     * @param opts     the evaluation options
+     * @param aContext the evaluation context
+     * @param eFrame   the evaluation frame
+     * @param jprofiler the profiler
+     */
+    ProfilingInterpreter(final Engine engine, final JexlOptions opts, final JexlContext aContext, final Frame eFrame,
+                         final JexlProfiler jprofiler) {
+        super(engine, opts, aContext, eFrame);
+        this.profiler = jprofiler;
+    }
+
+    /**
+     * Visits a node and records its evaluation.
+     * @param node the node
+     * @param visit the actual visit
+     * @return the visit result
+     */
+    private Object profile(final JexlNode node, final Supplier<Object> visit) {
+        if (depth == children.length) {
+            children = Arrays.copyOf(children, depth * 2);
+        }
+        children[depth++] = 0L;
+        final long start = System.nanoTime();
+        try {
+            return visit.get();
+        } finally {
+            final long elapsed = System.nanoTime() - start;
+            final long inner = children[--depth];
+            profiler.record(node, elapsed, elapsed - inner);
+            if (depth > 0) {
+                // the recording cost is a child cost, not part of the parent exclusive time
+                children[depth - 1] += System.nanoTime() - start;
+            }
+        }
+    }
+
+    @Override
+    protected Object visit(final ASTAddNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTSubNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTMulNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTDivNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTModNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTBitwiseAndNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTBitwiseOrNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTBitwiseXorNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTShiftLeftNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTShiftRightNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTShiftRightUnsignedNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTEQNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTNENode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTGENode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTGTNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTLENode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTLTNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTSWNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTNSWNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTEWNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTNEWNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTERNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTNRNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTRangeNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTUnaryMinusNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTUnaryPlusNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTBitwiseComplNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTNotNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTIfStatement node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTVar node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTBlock node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTReturnStatement node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTContinue node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTBreak node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTForeachStatement node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTWhileStatement node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTDoWhileStatement node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTAndNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTOrNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTNullLiteral node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTTrueNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTFalseNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTNumberLiteral node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTStringLiteral node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTRegexLiteral node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTArrayLiteral node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTExtendedLiteral node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTSetLiteral node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTMapLiteral node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTMapEntry node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTTernaryNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTNullpNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTSizeFunction node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTEmptyFunction node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTJexlScript node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTReferenceExpression node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTIdentifier node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTArrayAccess node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTQualifiedIdentifier node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTIdentifierAccess node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTReference node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTAssignment node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTSetAddNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTSetSubNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTSetMultNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTSetDivNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTSetModNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTSetAndNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTSetOrNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTSetXorNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTSetShiftLeftNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTSetShiftRightNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTSetShiftRightUnsignedNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTGetDecrementNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTGetIncrementNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTDecrementGetNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTIncrementGetNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTDefineVars node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object[] visit(final ASTArguments node, final Object data) {
+        return (Object[]) profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTMethodNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTFunctionNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTConstructorNode node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTJxltLiteral node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTAnnotation node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+
+    @Override
+    protected Object visit(final ASTAnnotatedStatement node, final Object data) {
+        return profile(node, () -> super.visit(node, data));
+    }
+}
@@ -16,11 +16,15 @@
  */
 package org.apache.commons.jexl3.internal;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * A script scope, stores the declaration of parameters and local variables as symbols.
@@ -286,6 +290,15 @@ public final class Scope {
         return EMPTY_STRS;
     }
 
+    /**
+     * Gets the parent scope.
+     * @return the parent scope, null if none
+     * @since 3.3.1
+     */
+    public Scope getParent() {
+        return parent;
+    }
+
     /**
      * Gets the (maximum) number of arguments this script expects.
      * @return the number of parameters
@@ -349,4 +362,95 @@ public final class Scope {
         return locals.toArray(new String[0]);
     }
 
+    /**
+     * Checks whether this scope declares the same symbols as another one, as do their parents.
+     * <p>An expression parsed in one of these scopes can be evaluated in a frame of the other.</p>
+     * @param other the other scope
+     * @return true if equivalent, false otherwise
+     */
+    boolean isEquivalent(final Scope other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null
+            || parms != other.parms
+            || vars != other.vars
+            || !Objects.equals(namedVariables, other.namedVariables)
+            || !Objects.equals(capturedVariables, other.capturedVariables)) {
+            return false;
+        }
+        if (lexicalVariables == null
+            ? other.lexicalVariables != null
+            : !lexicalVariables.isEquivalent(other.lexicalVariables)) {
+            return false;
+        }
+        return parent == null ? other.parent == null : parent.isEquivalent(other.parent);
+    }
+
+    /**
+     * Writes this scope symbols; the parent scope is not written.
+     * @param out the output
+     * @throws IOException if writing fails
+     * @since 3.3.1
+     */
+    public void write(final DataOutput out) throws IOException {
+        out.writeInt(parms);
+        out.writeInt(vars);
+        if (namedVariables == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(namedVariables.size());
+            for (final Map.Entry<String, Integer> entry : namedVariables.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue());
+            }
+        }
+        if (capturedVariables == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(capturedVariables.size());
+            for (final Map.Entry<Integer, Integer> entry : capturedVariables.entrySet()) {
+                out.writeInt(entry.getKey());
+                out.writeInt(entry.getValue());
+            }
+        }
+        out.writeBoolean(lexicalVariables != null);
+        if (lexicalVariables != null) {
+            lexicalVariables.write(out);
+        }
+    }
+
+    /**
+     * Reads a scope written by {@link #write(DataOutput)}.
+     * @param parent the parent scope
+     * @param in the input
+     * @return the scope
+     * @throws IOException if reading fails
+     * @since 3.3.1
+     */
+    public static Scope read(final Scope parent, final DataInput in) throws IOException {
+        final Scope scope = new Scope(parent, (String[]) null);
+        scope.parms = in.readInt();
+        scope.vars = in.readInt();
+        final int named = in.readInt();
+        if (named >= 0) {
+            scope.namedVariables = new LinkedHashMap<>();
+            for (int n = 0; n < named; ++n) {
+                final String name = in.readUTF();
+                scope.namedVariables.put(name, in.readInt());
+            }
+        }
+        final int captured = in.readInt();
+        if (captured >= 0) {
+            scope.capturedVariables = new LinkedHashMap<>();
+            for (int c = 0; c < captured; ++c) {
+                final int target = in.readInt();
+                scope.capturedVariables.put(target, in.readInt());
+            }
+        }
+        if (in.readBoolean()) {
+            scope.lexicalVariables = LexicalScope.read(in);
+        }
+        return scope;
+    }
 }
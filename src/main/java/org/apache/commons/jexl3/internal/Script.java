@@ -16,6 +16,7 @@
  */
 package org.apache.commons.jexl3.internal;
 
+import org.apache.commons.jexl3.JexlArithmetic;
 import org.apache.commons.jexl3.JexlContext;
 import org.apache.commons.jexl3.JexlFeatures;
 import org.apache.commons.jexl3.JexlInfo;
@@ -23,12 +24,17 @@ import org.apache.commons.jexl3.JexlOptions;
 import org.apache.commons.jexl3.JexlEngine;
 import org.apache.commons.jexl3.JexlScript;
 import org.apache.commons.jexl3.JexlExpression;
+import org.apache.commons.jexl3.parser.ASTJexlLambda;
 import org.apache.commons.jexl3.parser.ASTJexlScript;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.ObjIntConsumer;
 /**
  * <p>A JexlScript implementation.</p>
  * @since 1.1
@@ -46,6 +52,10 @@ public class Script implements JexlScript, JexlExpression {
      * The resulting AST we can interpret.
      */
     protected final ASTJexlScript script;
+    /**
+     * The compiled code, null if the engine does not compile scripts.
+     */
+    protected final Compiler.Code code;
     /**
      * The engine version (as class loader change count) that last evaluated this script.
      */
@@ -69,6 +79,7 @@ public class Script implements JexlScript, JexlExpression {
         jexl = engine;
         source = expr;
         script = ref;
+        code = jexl.compile && !(ref instanceof ASTJexlLambda) ? Compiler.code(ref) : null;
         version = jexl.getUberspect().getVersion();
     }
 
@@ -121,6 +132,18 @@ public class Script implements JexlScript, JexlExpression {
         return jexl.createInterpreter(context, frame, options != null? options : jexl.evalOptions(script, context));
     }
 
+    /**
+     * Runs this script with an interpreter.
+     * <p>The compiled code, if any, is only used by the engine default interpreter.</p>
+     * @param interpreter the interpreter
+     * @return the evaluation result
+     */
+    protected Object interpret(final Interpreter interpreter) {
+        return code != null && interpreter.getClass() == Interpreter.class
+               ? interpreter.interpret(script, code)
+               : interpreter.interpret(script);
+    }
+
     /**
      * @return the engine that created this script
      */
@@ -194,7 +217,7 @@ public class Script implements JexlScript, JexlExpression {
         checkCacheVersion();
         final Frame frame = createFrame(null);
         final Interpreter interpreter = createInterpreter(context, frame);
-        return interpreter.interpret(script);
+        return interpret(interpreter);
     }
 
     @Override
@@ -202,7 +225,52 @@ public class Script implements JexlScript, JexlExpression {
         checkCacheVersion();
         final Frame frame = createFrame(args != null && args.length > 0 ? args : null);
         final Interpreter interpreter = createInterpreter(context, frame);
-        return interpreter.interpret(script);
+        return interpret(interpreter);
+    }
+
+    @Override
+    public List<Object> executeAll(final JexlContext context, final Iterable<Object[]> arguments) {
+        final List<Object> results = new ArrayList<>();
+        executeAll(context, arguments, (result, index) -> results.add(result));
+        return results;
+    }
+
+    @Override
+    public BitSet test(final JexlContext context, final Iterable<Object[]> arguments) {
+        final BitSet results = new BitSet();
+        final JexlArithmetic arithmetic = jexl.getArithmetic();
+        executeAll(context, arguments, (result, index) -> {
+            if (result != null && arithmetic.testPredicate(result)) {
+                results.set(index);
+            }
+        });
+        return results;
+    }
+
+    /**
+     * Executes this script once per set of arguments, sharing one interpreter.
+     * <p>Only the frame is created for each execution.</p>
+     * @param context the context
+     * @param arguments the arguments of each execution
+     * @param consumer the consumer of each execution result and index
+     */
+    protected void executeAll(final JexlContext context,
+                              final Iterable<Object[]> arguments,
+                              final ObjIntConsumer<Object> consumer) {
+        checkCacheVersion();
+        final Iterator<Object[]> rows = arguments.iterator();
+        if (!rows.hasNext()) {
+            return;
+        }
+        final Interpreter interpreter = createInterpreter(context, createFrame(rows.next()));
+        int index = 0;
+        while (true) {
+            consumer.accept(interpret(interpreter), index++);
+            if (!rows.hasNext() || interpreter.isCancelled()) {
+                break;
+            }
+            interpreter.setFrame(createFrame(rows.next()));
+        }
     }
 
     @Override
@@ -294,7 +362,7 @@ public class Script implements JexlScript, JexlExpression {
      */
     @Override
     public Callable callable(final JexlContext context, final Object... args) {
-        return new Callable(createInterpreter(context, script.createFrame(args)));
+        return new Callable(createInterpreter(context, createFrame(args)));
     }
 
     /**
@@ -320,7 +388,7 @@ public class Script implements JexlScript, JexlExpression {
          * @return the evaluation result
          */
         protected Object interpret() {
-            return interpreter.interpret(script);
+            return Script.this.interpret(interpreter);
         }
 
         @Override
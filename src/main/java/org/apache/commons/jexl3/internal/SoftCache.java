@@ -16,6 +16,8 @@
  */
 package org.apache.commons.jexl3.internal;
 
+import org.apache.commons.jexl3.JexlCache;
+
 import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -30,11 +32,15 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  * <p>
  * The actual cache is held through a soft reference, allowing it to be GCed
  * under memory pressure.</p>
+ * <p>
+ * Since the underlying map is access-ordered, reading an entry modifies its structure;
+ * all accesses are thus exclusive. See {@link ConcurrentCache} for a cache whose read
+ * path does not require locking.</p>
  *
  * @param <K> the cache key entry type
  * @param <V> the cache key value type
  */
-public class SoftCache<K, V> {
+public class SoftCache<K, V> implements JexlCache<K, V> {
     /**
      * The default cache load factor.
      */
@@ -57,23 +63,39 @@ public class SoftCache<K, V> {
      *
      * @param theSize the cache size
      */
-    SoftCache(final int theSize) {
+    public SoftCache(final int theSize) {
         size = theSize;
         lock = new ReentrantReadWriteLock();
     }
 
+    @Override
+    public int capacity() {
+        return size;
+    }
+
     /**
      * Returns the cache size.
      *
      * @return the cache size
+     * @deprecated 3.3.1, this is the cache capacity, use {@link #capacity()} or {@link #count()}
      */
+    @Deprecated
     public int size() {
         return size;
     }
 
-    /**
-     * Clears the cache.
-     */
+    @Override
+    public int count() {
+        lock.readLock().lock();
+        try {
+            final Map<K, V> map = ref != null ? ref.get() : null;
+            return map != null ? map.size() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
     public void clear() {
         lock.writeLock().lock();
         try {
@@ -83,28 +105,19 @@ public class SoftCache<K, V> {
         }
     }
 
-    /**
-     * Gets a value from cache.
-     *
-     * @param key the cache entry key
-     * @return the cache entry value
-     */
+    @Override
     public V get(final K key) {
-        lock.readLock().lock();
+        // an access-ordered map is structurally modified by get
+        lock.writeLock().lock();
         try {
             final Map<K, V> map = ref != null ? ref.get() : null;
             return map != null ? map.get(key) : null;
         } finally {
-            lock.readLock().unlock();
+            lock.writeLock().unlock();
         }
     }
 
-    /**
-     * Puts a value in cache.
-     *
-     * @param key the cache entry key
-     * @param script the cache entry value
-     */
+    @Override
     public void put(final K key, final V script) {
         lock.writeLock().lock();
         try {
@@ -126,6 +139,7 @@ public class SoftCache<K, V> {
      *
      * @return the cache entry list
      */
+    @Override
     public List<Map.Entry<K, V>> entries() {
         lock.readLock().lock();
         try {
@@ -16,6 +16,7 @@
  */
 package org.apache.commons.jexl3.internal;
 
+import org.apache.commons.jexl3.JexlCache;
 import org.apache.commons.jexl3.JexlContext;
 import org.apache.commons.jexl3.JexlException;
 import org.apache.commons.jexl3.JexlOptions;
@@ -24,17 +25,30 @@ import org.apache.commons.jexl3.JxltEngine;
 import org.apache.commons.jexl3.parser.ASTJexlScript;
 import org.apache.commons.jexl3.parser.JexlNode;
 import org.apache.commons.jexl3.parser.StringParser;
+import org.apache.commons.jexl3.parser.TreeSerializer;
 import org.apache.commons.logging.Log;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.charset.Charset;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -43,7 +57,9 @@ import java.util.Set;
  */
 public final class TemplateEngine extends JxltEngine {
     /** The TemplateExpression cache. */
-    final SoftCache<String, TemplateExpression> cache;
+    final JexlCache<String, TemplateExpression> cache;
+    /** The template cache, null if templates are not cached. */
+    private final JexlCache<TemplateKey, TemplateScript> templates;
     /** The JEXL engine instance. */
     final Engine jexl;
     /** The logger. */
@@ -59,7 +75,7 @@ public final class TemplateEngine extends JxltEngine {
      * Creates a new instance of {@link JxltEngine} creating a local cache.
      * @param aJexl     the JexlEngine to use.
      * @param noScript  whether this engine only allows JEXL expressions or scripts
-     * @param cacheSize the number of expressions in this cache, default is 256
+     * @param cacheSize the number of expressions and of templates in this engine caches, default is 256
      * @param immediate the immediate template expression character, default is '$'
      * @param deferred  the deferred template expression character, default is '#'
      */
@@ -70,7 +86,8 @@ public final class TemplateEngine extends JxltEngine {
                           final char deferred) {
         this.jexl = aJexl;
         this.logger = aJexl.logger;
-        this.cache = new SoftCache<>(cacheSize);
+        this.cache = aJexl.createCache(cacheSize);
+        this.templates = cacheSize > 0 ? aJexl.createCache(cacheSize) : null;
         immediateChar = immediate;
         deferredChar = deferred;
         noscript = noScript;
@@ -216,8 +233,96 @@ public final class TemplateEngine extends JxltEngine {
      */
     @Override
     public void clearCache() {
-        synchronized (cache) {
-            cache.clear();
+        cache.clear();
+        if (templates != null) {
+            templates.clear();
+        }
+    }
+
+    /**
+     * The key of a cached template: its name, directive prefix, source and parameter names.
+     */
+    private static final class TemplateKey {
+        /** The template name, may be null. */
+        private final String name;
+        /** The directive prefix. */
+        private final String prefix;
+        /** The source. */
+        private final CharSequence source;
+        /** The parameter names. */
+        private final String[] parms;
+        /** The hash code. */
+        private final int hash;
+
+        /**
+         * Creates a key.
+         * @param theName the template name, may be null
+         * @param thePrefix the directive prefix
+         * @param theSource the source
+         * @param theParms the parameter names, may be null or empty
+         */
+        TemplateKey(final String theName, final String thePrefix, final CharSequence theSource,
+                    final String[] theParms) {
+            name = theName;
+            prefix = thePrefix;
+            source = theSource;
+            parms = theParms == null || theParms.length == 0 ? null : theParms.clone();
+            hash = ((Objects.hashCode(name) * 31 + prefix.hashCode()) * 31 + hashCode(source)) * 31
+                   + Arrays.hashCode(parms);
+        }
+
+        /**
+         * Computes the hash code of a sequence content, the same as the one of a string with that content.
+         * @param sequence the sequence
+         * @return the hash code
+         */
+        private static int hashCode(final CharSequence sequence) {
+            int h = 0;
+            final int length = sequence.length();
+            for (int i = 0; i < length; ++i) {
+                h = 31 * h + sequence.charAt(i);
+            }
+            return h;
+        }
+
+        /**
+         * Compares the content of two sequences.
+         * @param lhs a sequence
+         * @param rhs another sequence
+         * @return true if both have the same characters
+         */
+        private static boolean equals(final CharSequence lhs, final CharSequence rhs) {
+            final int length = lhs.length();
+            if (length != rhs.length()) {
+                return false;
+            }
+            for (int i = 0; i < length; ++i) {
+                if (lhs.charAt(i) != rhs.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof TemplateKey)) {
+                return false;
+            }
+            final TemplateKey key = (TemplateKey) obj;
+            return hash == key.hash
+                && Objects.equals(name, key.name)
+                && prefix.equals(key.prefix)
+                && Arrays.equals(parms, key.parms)
+                && equals(source, key.source);
         }
     }
 
@@ -227,6 +332,8 @@ public final class TemplateEngine extends JxltEngine {
     abstract class TemplateExpression implements Expression {
         /** The source of this template expression(see {@link TemplateEngine.TemplateExpression#prepare}). */
         protected final TemplateExpression source;
+        /** The print method used for the last value of this expression, see {@link TemplateInterpreter}. */
+        volatile TemplateInterpreter.Printer printer;
 
         /**
          * Creates an TemplateExpression.
@@ -257,6 +364,16 @@ public final class TemplateEngine extends JxltEngine {
             return null;
         }
 
+        /**
+         * Copies this expression as if parsed a number of lines below or above where it was.
+         * <p>This is used to reuse an expression of a template verbatim block that moved.</p>
+         * @param delta the number of lines
+         * @return the copy, this expression if it has no position or null if it can not be copied
+         */
+        TemplateExpression relocate(final int delta) {
+            return this;
+        }
+
         @Override
         public final String toString() {
             final StringBuilder strb = new StringBuilder();
@@ -333,6 +450,17 @@ public final class TemplateEngine extends JxltEngine {
             return this;
         }
 
+        /**
+         * Encodes the constant parts of this expression.
+         * <p>This allows printing them as bytes without encoding them at each evaluation.</p>
+         * @param charset the charset
+         * @return the encoded constant (a byte array), the encoded parts of a composite (an array of byte arrays)
+         * or null if nothing is constant
+         */
+        Object encode(final Charset charset) {
+            return null;
+        }
+
         @Override
         public final Object evaluate(final JexlContext context) {
             return evaluate(context, null, null);
@@ -426,6 +554,11 @@ public final class TemplateEngine extends JxltEngine {
         protected Object evaluate(final Interpreter interpreter) {
             return value;
         }
+
+        @Override
+        Object encode(final Charset charset) {
+            return value instanceof CharSequence ? value.toString().getBytes(charset) : null;
+        }
     }
 
     /** The base for JEXL based unified expressions. */
@@ -482,6 +615,47 @@ public final class TemplateEngine extends JxltEngine {
         JexlInfo getInfo() {
             return node.jexlInfo();
         }
+
+        @Override
+        TemplateExpression relocate(final int delta) {
+            if (delta == 0) {
+                return this;
+            }
+            final JexlNode copy = relocateTree(node, delta);
+            return copy != null ? copy(copy) : null;
+        }
+
+        /**
+         * Creates an expression of the same type and source string on another tree.
+         * @param copy the tree
+         * @return the expression
+         */
+        abstract TemplateExpression copy(JexlNode copy);
+    }
+
+    /**
+     * Copies an expression tree, anchoring it a number of lines below or above its original position.
+     * <p>The copy is made through the tree serialization, which is cheaper than parsing the expression again;
+     * the original tree is left untouched.</p>
+     * @param node the expression tree
+     * @param delta the number of lines
+     * @return the copy or null if the tree can not be copied
+     */
+    private static JexlNode relocateTree(final JexlNode node, final int delta) {
+        if (!(node instanceof ASTJexlScript) || !(node.jjtGetValue() instanceof JexlInfo)) {
+            return null;
+        }
+        final JexlInfo info = (JexlInfo) node.jjtGetValue();
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            TreeSerializer.write((ASTJexlScript) node, new DataOutputStream(bytes));
+            final ASTJexlScript copy = TreeSerializer.read(
+                    new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+            copy.jjtSetValue(new JexlInfo(info.getName(), info.getLine() + delta, info.getColumn()));
+            return copy;
+        } catch (final IOException xio) {
+            return null;
+        }
     }
 
     /** An immediate unified expression: ${jexl}. */
@@ -496,6 +670,11 @@ public final class TemplateEngine extends JxltEngine {
             super(expr, node, source);
         }
 
+        @Override
+        TemplateExpression copy(final JexlNode copy) {
+            return new ImmediateExpression(expr, copy, null);
+        }
+
         @Override
         ExpressionType getType() {
             return ExpressionType.IMMEDIATE;
@@ -521,6 +700,11 @@ public final class TemplateEngine extends JxltEngine {
             super(expr, node, source);
         }
 
+        @Override
+        TemplateExpression copy(final JexlNode copy) {
+            return new DeferredExpression(expr, copy, null);
+        }
+
         @Override
         public boolean isImmediate() {
             return false;
@@ -561,6 +745,11 @@ public final class TemplateEngine extends JxltEngine {
             }
         }
 
+        @Override
+        TemplateExpression copy(final JexlNode copy) {
+            return new NestedExpression(expr, copy, null);
+        }
+
         @Override
         public StringBuilder asString(final StringBuilder strb) {
             strb.append(expr);
@@ -610,6 +799,32 @@ public final class TemplateEngine extends JxltEngine {
                     | (counters[ExpressionType.IMMEDIATE.getIndex()] > 0 ? 1 : 0);
         }
 
+        /**
+         * Creates a composite expression with the same meta as another one.
+         * @param copy the composite expression to copy
+         * @param theExprs the copy sub-expressions
+         */
+        private CompositeExpression(final CompositeExpression copy, final TemplateExpression[] theExprs) {
+            super(null);
+            this.exprs = theExprs;
+            this.meta = copy.meta;
+        }
+
+        @Override
+        TemplateExpression relocate(final int delta) {
+            if (delta == 0) {
+                return this;
+            }
+            final TemplateExpression[] copies = new TemplateExpression[exprs.length];
+            for (int e = 0; e < exprs.length; ++e) {
+                copies[e] = exprs[e].relocate(delta);
+                if (copies[e] == null) {
+                    return null;
+                }
+            }
+            return new CompositeExpression(this, copies);
+        }
+
         @Override
         public boolean isImmediate() {
             // immediate if no deferred
@@ -672,6 +887,23 @@ public final class TemplateEngine extends JxltEngine {
             return eq ? this : builder.build(TemplateEngine.this, this);
         }
 
+        @Override
+        Object encode(final Charset charset) {
+            if (!isImmediate()) {
+                return null;
+            }
+            final byte[][] parts = new byte[exprs.length][];
+            boolean constant = false;
+            for (int e = 0; e < exprs.length; ++e) {
+                final Object part = exprs[e].encode(charset);
+                if (part instanceof byte[]) {
+                    parts[e] = (byte[]) part;
+                    constant = true;
+                }
+            }
+            return constant ? parts : null;
+        }
+
         @Override
         protected Object evaluate(final Interpreter interpreter) {
             Object value;
@@ -1077,16 +1309,32 @@ public final class TemplateEngine extends JxltEngine {
      * @return the first position after end of pattern if it matches, -1 otherwise
      */
     protected int startsWith(final CharSequence sequence, final CharSequence pattern) {
-        final int length = sequence.length();
-        int s = 0;
-        while (s < length && Character.isSpaceChar(sequence.charAt(s))) {
+        return startsWith(sequence, 0, sequence.length(), pattern);
+    }
+
+    /**
+     * Whether a line of a sequence starts with a given set of characters (following spaces).
+     * <p>Space characters at beginning of line before the pattern are discarded.</p>
+     * @param sequence the sequence
+     * @param bol the line start offset
+     * @param eol the line end offset
+     * @param pattern  the pattern to match at start of line
+     * @return the position after end of pattern relative to the line start if it matches, -1 otherwise
+     * @since 3.3.1
+     */
+    protected int startsWith(final CharSequence sequence, final int bol, final int eol, final CharSequence pattern) {
+        int s = bol;
+        while (s < eol && Character.isSpaceChar(sequence.charAt(s))) {
             s += 1;
         }
-        if (s < length && pattern.length() <= (length - s)) {
-            final CharSequence subSequence = sequence.subSequence(s, length);
-            if (subSequence.subSequence(0, pattern.length()).equals(pattern)) {
-                return s + pattern.length();
+        final int plength = pattern.length();
+        if (s < eol && plength <= (eol - s)) {
+            for (int p = 0; p < plength; ++p) {
+                if (sequence.charAt(s + p) != pattern.charAt(p)) {
+                    return -1;
+                }
             }
+            return s - bol + plength;
         }
         return -1;
     }
@@ -1221,8 +1469,250 @@ public final class TemplateEngine extends JxltEngine {
         return blocks;
     }
 
+    /**
+     * Reads lines of a template held in a character sequence grouping them by typed blocks.
+     * <p>The sequence is scanned in place, lines and blocks being delimited by offsets; each line is matched
+     * against the prefix through {@link #startsWith(CharSequence, int, int, CharSequence)} on its offsets, no
+     * line object is created. Verbatim blocks are copied once from the sequence, directive blocks are assembled
+     * from their lines stripped of the prefix.</p>
+     * @param prefix the directive prefix
+     * @param source the source sequence
+     * @return the list of blocks
+     */
+    protected List<Block> readTemplate(final String prefix, final CharSequence source) {
+        final ArrayList<Block> blocks = new ArrayList<>();
+        final StringBuilder code = new StringBuilder();
+        final int length = source.length();
+        BlockType type = null;
+        int lineno = 1;
+        int start = 0;
+        // offset of the current block start and of the current line start
+        int begin = 0;
+        int bol = 0;
+        while (bol < length) {
+            int eol = bol;
+            while (eol < length && source.charAt(eol++) != '\n') {
+                // seek end of line
+            }
+            final int prefixLen = startsWith(source, bol, eol, prefix);
+            final BlockType lineType = prefixLen >= 0 ? BlockType.DIRECTIVE : BlockType.VERBATIM;
+            if (type != lineType) {
+                if (type != null) {
+                    blocks.add(createBlock(type, start, source, begin, bol, code));
+                }
+                type = lineType;
+                start = lineno;
+                begin = bol;
+            }
+            if (lineType == BlockType.DIRECTIVE) {
+                code.append(source, bol + prefixLen, eol);
+            }
+            bol = eol;
+            lineno += 1;
+        }
+        if (type == BlockType.VERBATIM || (type == BlockType.DIRECTIVE && code.length() > 0)) {
+            blocks.add(createBlock(type, start, source, begin, length, code));
+        }
+        blocks.trimToSize();
+        return blocks;
+    }
+
+    /**
+     * Creates a block read from a character sequence.
+     * @param type the block type
+     * @param line the block first line number
+     * @param source the source sequence
+     * @param begin the verbatim block start offset
+     * @param end the verbatim block end offset
+     * @param code the directive block lines, cleared after use
+     * @return the block
+     */
+    private static Block createBlock(final BlockType type, final int line,
+                                     final CharSequence source, final int begin, final int end,
+                                     final StringBuilder code) {
+        if (type == BlockType.VERBATIM) {
+            return new Block(type, line, source.subSequence(begin, end).toString());
+        }
+        final Block block = new Block(type, line, code.toString());
+        code.setLength(0);
+        return block;
+    }
+
+    /**
+     * Creates a new template.
+     * <p>When this engine caches templates, a template is created once per name, directive prefix, source and
+     * parameter names; the cached template is returned by later calls with the same arguments.</p>
+     * @param info the jexl info (file, line, column)
+     * @param prefix the directive prefix
+     * @param source the source
+     * @param parms the parameter names
+     * @return the template
+     */
     @Override
     public TemplateScript createTemplate(final JexlInfo info, final String prefix, final Reader source, final String... parms) {
-        return new TemplateScript(this, info, prefix, source,  parms);
+        if (templates == null || prefix == null || source == null) {
+            return new TemplateScript(this, info, prefix, source,  parms);
+        }
+        final StringBuilder strb = new StringBuilder();
+        final boolean complete = read(source, strb);
+        final String text = strb.toString();
+        if (!complete) {
+            // partially read, do not cache
+            return new TemplateScript(this, info, prefix, new StringReader(text), parms);
+        }
+        final TemplateKey key = new TemplateKey(info != null ? info.getName() : null, prefix, text, parms);
+        TemplateScript template = templates.get(key);
+        if (template == null) {
+            template = new TemplateScript(this, info, prefix, new StringReader(text), parms);
+            templates.put(key, template);
+        }
+        return template;
+    }
+
+    /**
+     * Reads a source.
+     * @param source the source reader
+     * @param strb the buffer to fill
+     * @return true if the source was completely read, false if reading it failed
+     */
+    private static boolean read(final Reader source, final StringBuilder strb) {
+        final char[] buffer = new char[1024]; // CSOFF: MagicNumber
+        try {
+            int n;
+            while ((n = source.read(buffer)) >= 0) {
+                strb.append(buffer, 0, n);
+            }
+            return true;
+        } catch (final IOException xio) {
+            return false;
+        }
+    }
+
+    /**
+     * Preloads the template cache from a directory of template files.
+     * <p>Each regular file of the directory is created as a template through
+     * {@link #createTemplate(JexlInfo, String, Path, String...)}, named after the file; the same call later finds
+     * it in the cache. Nothing is loaded when this engine does not cache templates.</p>
+     * @param directory the directory
+     * @param prefix the directive prefix
+     * @param parms the parameter names
+     * @return the number of templates created
+     * @throws IOException if the directory or a file can not be read
+     * @since 3.3.1
+     */
+    @Override
+    public int preload(final Path directory, final String prefix, final String... parms) throws IOException {
+        return templates == null ? 0 : super.preload(directory, prefix, parms);
+    }
+
+    /**
+     * Creates a template from a file, memory-mapped and decoded once using the engine charset.
+     * <p>The file bytes are mapped, not copied to the heap; they are decoded once into a character buffer that is
+     * scanned in place, lines being delimited by offsets instead of copied one by one as when reading from a
+     * reader. Each block body is still copied once from the buffer.</p>
+     * <p>When this engine caches templates, the template is cached with the same key as the ones created by
+     * {@link #preload(Path, String, String...)}: its name, the file name by default, prefix, source and parameter
+     * names.</p>
+     * @param info the template info, if null, the file name is used
+     * @param prefix the directive prefix
+     * @param file the template file
+     * @param parms the parameter names
+     * @return the template
+     * @throws IOException if the file can not be read
+     * @since 3.3.1
+     */
+    @Override
+    public TemplateScript createTemplate(final JexlInfo info,
+                                         final String prefix,
+                                         final Path file,
+                                         final String... parms) throws IOException {
+        final CharBuffer text = map(file);
+        final JexlInfo jinfo = info != null ? info : jexl.createInfo(file.toString(), 1, 1);
+        if (templates == null || prefix == null) {
+            return new TemplateScript(this, jinfo, prefix, text, null, parms);
+        }
+        final TemplateKey key = new TemplateKey(jinfo.getName(), prefix, text, parms);
+        TemplateScript template = templates.get(key);
+        if (template == null) {
+            template = new TemplateScript(this, jinfo, prefix, text, null, parms);
+            templates.put(key, template);
+        }
+        return template;
+    }
+
+    /**
+     * Gets a template created by this engine class.
+     * @param template the template
+     * @return the template script or null if the template is not one
+     */
+    private static TemplateScript asTemplateScript(final Template template) {
+        return template instanceof TemplateScript ? (TemplateScript) template : null;
+    }
+
+    /**
+     * Maps a file and decodes it using the engine charset.
+     * @param file the file
+     * @return the decoded characters
+     * @throws IOException if the file can not be read
+     */
+    private CharBuffer map(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return jexl.getCharset().decode(bytes);
+        }
+    }
+
+    /**
+     * Recompiles a template whose source changed.
+     * <p>The blocks of the new source are compared to the ones of the previous compilation. The template script
+     * is only parsed again if the code of its directives changed and expressions of unchanged verbatim blocks
+     * with the same variables in scope are reused instead of parsed again. A block that moved, because lines
+     * were inserted or removed before it, reuses a copy of its previous expression anchored at its new line, so
+     * errors are reported at the right place.</p>
+     * <p>Nothing is reused if the previous template was created by another engine, with another prefix,
+     * name or parameters, or if it was prepared. Recompiled templates are not cached.</p>
+     * @param previous the previous compilation of the template, may be null
+     * @param info the template info
+     * @param prefix the directive prefix
+     * @param source the new template source
+     * @param parms the parameter names
+     * @return the template
+     * @since 3.3.1
+     */
+    @Override
+    public TemplateScript createTemplate(final Template previous,
+                                         final JexlInfo info,
+                                         final String prefix,
+                                         final Reader source,
+                                         final String... parms) {
+        StringBuilder text = null;
+        if (source != null) {
+            text = new StringBuilder();
+            read(source, text);
+        }
+        return new TemplateScript(this, info, prefix, text, asTemplateScript(previous), parms);
+    }
+
+    /**
+     * Recompiles a template from a file, memory-mapped and decoded once using the engine charset.
+     * @param previous the previous compilation of the template, may be null
+     * @param info the template info, if null, the file name is used
+     * @param prefix the directive prefix
+     * @param file the template file
+     * @param parms the parameter names
+     * @return the template
+     * @throws IOException if the file can not be read
+     * @see #createTemplate(Template, JexlInfo, String, Reader, String...)
+     * @since 3.3.1
+     */
+    @Override
+    public TemplateScript createTemplate(final Template previous,
+                                         final JexlInfo info,
+                                         final String prefix,
+                                         final Path file,
+                                         final String... parms) throws IOException {
+        final CharBuffer text = map(file);
+        final JexlInfo jinfo = info != null ? info : jexl.createInfo(file.toString(), 1, 1);
+        return new TemplateScript(this, jinfo, prefix, text, asTemplateScript(previous), parms);
     }
 }
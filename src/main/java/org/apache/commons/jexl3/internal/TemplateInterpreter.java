@@ -17,7 +17,6 @@
 package org.apache.commons.jexl3.internal;
 
 import org.apache.commons.jexl3.JexlContext;
-import org.apache.commons.jexl3.JexlInfo;
 import org.apache.commons.jexl3.JexlOptions;
 import org.apache.commons.jexl3.JxltEngine;
 import org.apache.commons.jexl3.internal.TemplateEngine.TemplateExpression;
@@ -43,6 +42,43 @@ public class TemplateInterpreter extends Interpreter {
     final TemplateExpression[] exprs;
     /** The writer used to output. */
     final Writer writer;
+    /** The encoded constants of the expressions, when the writer is an encoding writer. */
+    final Object[] encoded;
+
+    /**
+     * The print method of a writer class for a value class.
+     * <p>Template expressions cache the print method used for their last printed value.</p>
+     */
+    static final class Printer {
+        /** The writer class. */
+        private final Class<?> writerClass;
+        /** The value class. */
+        private final Class<?> valueClass;
+        /** The print method, null if the writer has none for the value. */
+        private final JexlMethod method;
+
+        /**
+         * Creates a printer.
+         * @param wclass the writer class
+         * @param vclass the value class
+         * @param vm the print method, may be null
+         */
+        Printer(final Class<?> wclass, final Class<?> vclass, final JexlMethod vm) {
+            writerClass = wclass;
+            valueClass = vclass;
+            method = vm;
+        }
+
+        /**
+         * Checks whether this printer applies.
+         * @param writer the writer
+         * @param value the value
+         * @return true if the writer and value classes are the ones of this printer
+         */
+        boolean matches(final Writer writer, final Object value) {
+            return writerClass == writer.getClass() && valueClass == value.getClass();
+        }
+    }
 
     /**
      * Helper ctor.
@@ -61,6 +97,8 @@ public class TemplateInterpreter extends Interpreter {
         TemplateExpression[] expressions;
         /** The writer. */
         Writer out;
+        /** The encoded expression constants. */
+        Object[] encoded;
 
         /**
          * Sole ctor.
@@ -114,6 +152,15 @@ public class TemplateInterpreter extends Interpreter {
             this.out = o;
             return this;
         }
+        /**
+         * Sets the encoded expression constants.
+         * @param e the encoded constants, one per expression
+         * @return this instance
+         */
+        Arguments encoded(final Object[] e) {
+            this.encoded = e;
+            return this;
+        }
     }
 
     /**
@@ -124,6 +171,7 @@ public class TemplateInterpreter extends Interpreter {
         super(args.jexl, args.options, args.jcontext, args.jframe);
         exprs = args.expressions;
         writer = args.out;
+        encoded = args.out instanceof EncodingWriter ? args.encoded : null;
         block = new LexicalFrame(frame, null);
     }
 
@@ -147,26 +195,52 @@ public class TemplateInterpreter extends Interpreter {
             return;
         }
         TemplateEngine.TemplateExpression expr = exprs[e];
+        // encoded constants are only available for immediate expressions
+        final Object constant = encoded != null ? encoded[e] : null;
+        if (constant instanceof byte[]) {
+            doPrint(expr, (byte[]) constant);
+            return;
+        }
         if (expr.isDeferred()) {
             expr = expr.prepare(context, frame, options);
         }
         if (expr instanceof TemplateEngine.CompositeExpression) {
-            printComposite((TemplateEngine.CompositeExpression) expr);
+            printComposite((TemplateEngine.CompositeExpression) expr,
+                           constant instanceof byte[][] ? (byte[][]) constant : null);
         } else {
-            doPrint(expr.getInfo(), expr.evaluate(this));
+            doPrint(expr, expr.evaluate(this));
         }
     }
 
     /**
      * Prints a composite expression.
      * @param composite the composite expression
+     * @param constants the encoded constant sub-expressions, may be null
      */
-    private void printComposite(final TemplateEngine.CompositeExpression composite) {
+    private void printComposite(final TemplateEngine.CompositeExpression composite, final byte[][] constants) {
         final TemplateEngine.TemplateExpression[] cexprs = composite.exprs;
         Object value;
-        for (final TemplateExpression cexpr : cexprs) {
-            value = cexpr.evaluate(this);
-            doPrint(cexpr.getInfo(), value);
+        for (int c = 0; c < cexprs.length; ++c) {
+            final TemplateExpression cexpr = cexprs[c];
+            if (constants != null && constants[c] != null) {
+                doPrint(cexpr, constants[c]);
+            } else {
+                value = cexpr.evaluate(this);
+                doPrint(cexpr, value);
+            }
+        }
+    }
+
+    /**
+     * Prints encoded bytes to output.
+     * @param expr the printed expression
+     * @param bytes the bytes encoded in the writer charset
+     */
+    private void doPrint(final TemplateExpression expr, final byte[] bytes) {
+        try {
+            ((EncodingWriter) writer).write(bytes);
+        } catch (final java.io.IOException xio) {
+            throw TemplateEngine.createException(expr.getInfo(), "call print", null, xio);
         }
     }
 
@@ -176,32 +250,75 @@ public class TemplateInterpreter extends Interpreter {
      * This will dynamically try to find the best suitable method in the writer through uberspection.
      * Subclassing Writer by adding 'print' methods should be the preferred way to specialize output.
      * </p>
-     * @param info the source info
+     * <p>
+     * The print method is cached by the expression for the writer and argument classes; boxed primitives printed
+     * through a JDK writer are written as strings without seeking a method.
+     * </p>
+     * @param expr the printed expression
      * @param arg  the argument to print out
      */
-    private void doPrint(final JexlInfo info, final Object arg) {
+    private void doPrint(final TemplateExpression expr, final Object arg) {
         try {
             if (writer != null) {
                 if (arg instanceof CharSequence) {
                     writer.write(arg.toString());
                 } else if (arg != null) {
-                    final Object[] value = {arg};
-                    final JexlUberspect uber = jexl.getUberspect();
-                    final JexlMethod method = uber.getMethod(writer, "print", value);
+                    if (isBoxedPrimitive(arg) && isJdkWriter(writer)) {
+                        writer.write(arg.toString());
+                        return;
+                    }
+                    final Printer cached = cache ? expr.printer : null;
+                    final JexlMethod method;
+                    if (cached != null && cached.matches(writer, arg)) {
+                        method = cached.method;
+                    } else {
+                        final JexlUberspect uber = jexl.getUberspect();
+                        method = uber.getMethod(writer, "print", arg);
+                        if (cache) {
+                            expr.printer = new Printer(writer.getClass(), arg.getClass(), method);
+                        }
+                    }
                     if (method != null) {
-                        method.invoke(writer, value);
+                        method.invoke(writer, arg);
                     } else {
                         writer.write(arg.toString());
                     }
                 }
             }
         } catch (final java.io.IOException xio) {
-            throw TemplateEngine.createException(info, "call print", null, xio);
+            throw TemplateEngine.createException(expr.getInfo(), "call print", null, xio);
         } catch (final java.lang.Exception xany) {
-            throw TemplateEngine.createException(info, "invoke print", null, xany);
+            throw TemplateEngine.createException(expr.getInfo(), "invoke print", null, xany);
         }
     }
 
+    /**
+     * Checks whether a value is a boxed primitive.
+     * @param arg the value
+     * @return true if boxed primitive, false otherwise
+     */
+    private static boolean isBoxedPrimitive(final Object arg) {
+        final Class<?> clazz = arg.getClass();
+        return clazz == Integer.class
+            || clazz == Long.class
+            || clazz == Double.class
+            || clazz == Boolean.class
+            || clazz == Float.class
+            || clazz == Short.class
+            || clazz == Byte.class
+            || clazz == Character.class;
+    }
+
+    /**
+     * Checks whether a writer is a JDK writer.
+     * <p>JDK writers print boxed primitives as their string representation.</p>
+     * @param out the writer
+     * @return true if the writer class is a JDK class or the encoding writer, false otherwise
+     */
+    private static boolean isJdkWriter(final Writer out) {
+        return out instanceof EncodingWriter || out.getClass().getClassLoader() == null;
+    }
+
     @Override
     protected Object resolveNamespace(final String prefix, final JexlNode node) {
         return "jexl".equals(prefix)? this : super.resolveNamespace(prefix, node);
@@ -274,7 +391,8 @@ public class TemplateInterpreter extends Interpreter {
                             .options(options)
                             .frame(local)
                             .expressions(exprs)
-                            .writer(writer);
+                            .writer(writer)
+                            .encoded(encoded);
                     return jexl.createTemplateInterpreter(targs);
                 }
             };
@@ -31,13 +31,20 @@ import org.apache.commons.jexl3.parser.ASTIdentifier;
 import org.apache.commons.jexl3.parser.ASTNumberLiteral;
 import org.apache.commons.jexl3.parser.JexlNode;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A Template instance.
@@ -53,6 +60,10 @@ public final class TemplateScript implements JxltEngine.Template {
     private final TemplateExpression[] exprs;
     /** The engine. */
     private final TemplateEngine jxlt;
+    /** Whether this template expressions were prepared. */
+    private final boolean prepared;
+    /** The encoded constants of the expressions, per charset. */
+    private final Map<Charset, Object[]> encoded = new ConcurrentHashMap<>();
 
     /**
      * Creates a new template from an character input.
@@ -70,6 +81,40 @@ public final class TemplateScript implements JxltEngine.Template {
                           final String directive,
                           final Reader reader,
                           final String... parms) {
+        this(engine, jexlInfo, checkPrefix(engine, directive),
+             engine.readTemplate(directive, Objects.requireNonNull(reader, "null input")), null, parms);
+    }
+
+    /**
+     * Creates a new template from a character sequence.
+     * <p>The sequence, typically a buffer decoded from a memory-mapped file, is read in place;
+     * blocks are delimited by offsets in the sequence and only their bodies are copied.</p>
+     * @param engine the template engine
+     * @param jexlInfo the source info
+     * @param directive the prefix for lines of code
+     * @param text      the input sequence
+     * @param parms     the parameter names
+     * @throws NullPointerException     if either the directive prefix or input is null
+     * @throws IllegalArgumentException if the directive prefix is invalid
+     * @since 3.3.1
+     */
+    public TemplateScript(final TemplateEngine engine,
+                          final JexlInfo jexlInfo,
+                          final String directive,
+                          final CharSequence text,
+                          final String... parms) {
+        this(engine, jexlInfo, directive, text, null, parms);
+    }
+
+    /**
+     * Checks a directive prefix.
+     * @param engine the template engine
+     * @param directive the prefix for lines of code
+     * @return the prefix
+     * @throws NullPointerException     if the directive prefix is null
+     * @throws IllegalArgumentException if the directive prefix is invalid
+     */
+    private static String checkPrefix(final TemplateEngine engine, final String directive) {
         if (directive == null) {
             throw new NullPointerException("null prefix");
         }
@@ -82,19 +127,102 @@ public final class TemplateScript implements JxltEngine.Template {
                 || (engineDeferredCharString + "{").equals(directive)) {
             throw new IllegalArgumentException(directive + ": is not a valid directive pattern");
         }
-        if (reader == null) {
-            throw new NullPointerException("null input");
-        }
+        return directive;
+    }
+
+    /**
+     * Creates a new template from a character sequence, reusing what can be from a previous compilation.
+     * <p>The template script is only parsed again if the code generated from the blocks differs; an expression
+     * of the previous compilation is reused for a verbatim block with the same body and symbols, copied and
+     * anchored at the block line if the block moved.</p>
+     * @param engine the template engine
+     * @param jexlInfo the source info
+     * @param directive the prefix for lines of code
+     * @param text      the input sequence
+     * @param previous  the previous compilation, may be null
+     * @param parms     the parameter names
+     * @throws NullPointerException     if either the directive prefix or input is null
+     * @throws IllegalArgumentException if the directive prefix is invalid
+     */
+    TemplateScript(final TemplateEngine engine,
+                   final JexlInfo jexlInfo,
+                   final String directive,
+                   final CharSequence text,
+                   final TemplateScript previous,
+                   final String... parms) {
+        this(engine, jexlInfo, checkPrefix(engine, directive),
+             engine.readTemplate(directive, Objects.requireNonNull(text, "null input")), previous, parms);
+    }
+
+    /**
+     * Creates a new template from its blocks.
+     * @param engine the template engine
+     * @param jexlInfo the source info
+     * @param directive the prefix for lines of code
+     * @param blocks    the template blocks
+     * @param previous  the previous compilation, may be null
+     * @param parms     the parameter names
+     */
+    private TemplateScript(final TemplateEngine engine,
+                           final JexlInfo jexlInfo,
+                           final String directive,
+                           final List<Block> blocks,
+                           final TemplateScript previous,
+                           final String[] parms) {
         this.jxlt = engine;
         this.prefix = directive;
-        final List<Block> blocks = jxlt.readTemplate(prefix, reader);
+        this.prepared = false;
         final List<TemplateExpression> uexprs = new ArrayList<>();
+        final String code = generate(blocks);
+        // create the script
+        final JexlInfo info = jexlInfo == null? jxlt.getEngine().createInfo() : jexlInfo;
+        final TemplateScript base = isReusable(previous, info, parms) ? previous : null;
+        if (base != null && code.equals(generate(Arrays.asList(base.source)))) {
+            script = base.script;
+        } else {
+            // allow lambda defining params
+            final Scope scope = parms == null ? null : new Scope(null, parms);
+            script = jxlt.getEngine().parse(info.at(1, 1), false, code, scope).script();
+        }
+        // seek the map of expression number to scope so we can parse Unified
+        // expression blocks with the appropriate symbols
+        final Map<Integer, JexlNode.Info> minfo = new TreeMap<>();
+        collectPrintScope(script.script(), minfo);
+        final Reuse reuse = base != null ? new Reuse(base) : null;
+        // jexl:print(...) expression counter
+        int jpe = 0;
+        // create the exprs using the intended scopes
+        for (final Block block : blocks) {
+            if (block.getType() == BlockType.VERBATIM) {
+                final JexlNode.Info ji = minfo.get(jpe);
+                TemplateExpression te = reuse != null ? reuse.find(block.getBody(), ji) : null;
+                // no node info means this verbatim is surrounded by comments markers;
+                // expr at this index is never called
+                if (te == null) {
+                    te = ji != null
+                        ? jxlt.parseExpression(ji, block.getBody(), scopeOf(ji))
+                        : jxlt.new ConstantExpression(block.getBody(), null);
+                }
+                uexprs.add(te);
+                jpe += 1;
+            }
+        }
+        source = blocks.toArray(new Block[0]);
+        exprs = uexprs.toArray(new TemplateExpression[0]);
+    }
+
+    /**
+     * Generates the script code of template blocks.
+     * <p>Verbatim blocks become calls to jexl:print(n), directive blocks are copied; comment lines keep
+     * each block at its line.</p>
+     * @param blocks the template blocks
+     * @return the script code
+     */
+    private static String generate(final List<Block> blocks) {
         final StringBuilder strb = new StringBuilder();
         int nuexpr = 0;
-        int codeStart = -1;
         int line = 1;
-        for (int b = 0; b < blocks.size(); ++b) {
-            final Block block = blocks.get(b);
+        for (final Block block : blocks) {
             final int bl = block.getLine();
             while(line < bl) {
                 strb.append("//\n");
@@ -106,10 +234,6 @@ public final class TemplateScript implements JxltEngine.Template {
                 strb.append(");\n");
                 line += 1;
             } else {
-                // keep track of first block of code, the frame creator
-                if (codeStart < 0) {
-                    codeStart = b;
-                }
                 final String body = block.getBody();
                 strb.append(body);
                 for(int c = 0; c < body.length(); ++c) {
@@ -119,35 +243,105 @@ public final class TemplateScript implements JxltEngine.Template {
                 }
             }
         }
-        // create the script
-        final JexlInfo info = jexlInfo == null? jxlt.getEngine().createInfo() : jexlInfo;
-        // allow lambda defining params
-        final Scope scope = parms == null ? null : new Scope(null, parms);
-        script = jxlt.getEngine().parse(info.at(1, 1), false, strb.toString(), scope).script();
-        // seek the map of expression number to scope so we can parse Unified
-        // expression blocks with the appropriate symbols
-        final Map<Integer, JexlNode.Info> minfo = new TreeMap<>();
-        collectPrintScope(script.script(), minfo);
-        // jexl:print(...) expression counter
-        int jpe = 0;
-        // create the exprs using the intended scopes
-        for (final Block block : blocks) {
-            if (block.getType() == BlockType.VERBATIM) {
-                final JexlNode.Info ji = minfo.get(jpe);
-                TemplateExpression te;
-                // no node info means this verbatim is surrounded by comments markers;
-                // expr at this index is never called
-                if (ji != null) {
-                    te = jxlt.parseExpression(ji, block.getBody(), scopeOf(ji));
-                } else {
-                    te = jxlt.new ConstantExpression(block.getBody(), null);
+        return strb.toString();
+    }
+
+    /**
+     * Checks whether a previous compilation can be reused by a new one.
+     * @param previous the previous compilation
+     * @param info the new template info
+     * @param parms the new template parameter names
+     * @return true if the previous compilation was not prepared and has the same name and parameters
+     */
+    private boolean isReusable(final TemplateScript previous, final JexlInfo info, final String[] parms) {
+        if (previous == null || previous.prepared || previous.jxlt != jxlt || !previous.prefix.equals(prefix)) {
+            return false;
+        }
+        final JexlInfo pinfo = previous.script.jexlInfo();
+        if (pinfo == null || !Objects.equals(pinfo.getName(), info.getName())) {
+            return false;
+        }
+        final String[] pparms = previous.script.getParameters();
+        return Arrays.equals(pparms != null && pparms.length > 0 ? pparms : null,
+                             parms != null && parms.length > 0 ? parms : null);
+    }
+
+    /**
+     * The expressions of a previous compilation, by verbatim block body.
+     */
+    private static final class Reuse {
+        /** The previous compilation print infos. */
+        private final Map<Integer, JexlNode.Info> infos = new TreeMap<>();
+        /** The previous expression numbers by body. */
+        private final Map<String, List<Integer>> bodies = new HashMap<>();
+        /** The previous expressions. */
+        private final TemplateExpression[] exprs;
+
+        /**
+         * Creates the reusable expressions of a compilation.
+         * @param previous the previous compilation
+         */
+        Reuse(final TemplateScript previous) {
+            exprs = previous.exprs;
+            collectPrintScope(previous.script.script(), infos);
+            int jpe = 0;
+            for (final Block block : previous.source) {
+                if (block.getType() == BlockType.VERBATIM) {
+                    bodies.computeIfAbsent(block.getBody(), b -> new ArrayList<>(1)).add(jpe);
+                    jpe += 1;
                 }
-                uexprs.add(te);
-                jpe += 1;
             }
         }
-        source = blocks.toArray(new Block[0]);
-        exprs = uexprs.toArray(new TemplateExpression[0]);
+
+        /**
+         * Finds a previous expression that parsing a verbatim block would create anew.
+         * <p>An expression of the same body at the same line is reused as is; one at another line, for instance
+         * when lines were inserted or removed before it, is copied and anchored at the new line. In both cases,
+         * the symbols in scope must be equivalent.</p>
+         * @param body the block body
+         * @param ji the print call info
+         * @return the expression or null if none
+         */
+        TemplateExpression find(final String body, final JexlNode.Info ji) {
+            final List<Integer> candidates = bodies.get(body);
+            if (candidates == null) {
+                return null;
+            }
+            if (ji == null) {
+                // a verbatim block never printed, surrounded by comment markers
+                for (final int jpe : candidates) {
+                    if (infos.get(jpe) == null) {
+                        return exprs[jpe];
+                    }
+                }
+                return null;
+            }
+            Integer moved = null;
+            for (final int jpe : candidates) {
+                final JexlNode.Info pi = infos.get(jpe);
+                if (pi != null && sameScope(ji, pi)) {
+                    if (ji.getLine() == pi.getLine()) {
+                        return exprs[jpe];
+                    }
+                    if (moved == null) {
+                        moved = jpe;
+                    }
+                }
+            }
+            return moved != null ? exprs[moved].relocate(ji.getLine() - infos.get(moved).getLine()) : null;
+        }
+
+        /**
+         * Checks whether two print calls have equivalent symbols in scope.
+         * @param ji the new call info
+         * @param pi the previous call info
+         * @return true if an expression parsed at one could be evaluated at the other
+         */
+        private static boolean sameScope(final JexlNode.Info ji, final JexlNode.Info pi) {
+            final Scope js = scopeOf(ji);
+            final Scope ps = scopeOf(pi);
+            return js == null ? ps == null : js.isEquivalent(ps);
+        }
     }
 
     /**
@@ -168,6 +362,7 @@ public final class TemplateScript implements JxltEngine.Template {
         source = theSource;
         script = theScript;
         exprs = theExprs;
+        prepared = true;
     }
 
     /**
@@ -300,10 +495,45 @@ public final class TemplateScript implements JxltEngine.Template {
                 .frame(frame)
                 .expressions(exprs)
                 .writer(writer);
+        if (writer instanceof EncodingWriter) {
+            targs.encoded(encode(((EncodingWriter) writer).getCharset()));
+        }
         final Interpreter interpreter = jexl.createTemplateInterpreter(targs);
         interpreter.interpret(script);
     }
 
+    @Override
+    public void evaluate(final JexlContext context, final OutputStream out, final Charset charset,
+                         final Object... args) {
+        if (!EncodingWriter.isConcatenative(charset)) {
+            JxltEngine.Template.super.evaluate(context, out, charset, args);
+            return;
+        }
+        final EncodingWriter writer = new EncodingWriter(out, charset);
+        evaluate(context, writer, args);
+        try {
+            writer.finish();
+        } catch (final IOException xio) {
+            throw TemplateEngine.createException(script.jexlInfo(), "write", null, xio);
+        }
+    }
+
+    /**
+     * Gets the encoded constants of the expressions.
+     * <p>They are encoded once per charset and printed as bytes by the interpreter.</p>
+     * @param charset the charset
+     * @return the encoded constants, one per expression
+     */
+    Object[] encode(final Charset charset) {
+        return encoded.computeIfAbsent(charset, cs -> {
+            final Object[] constants = new Object[exprs.length];
+            for (int e = 0; e < exprs.length; ++e) {
+                constants[e] = exprs[e].isDeferred() ? null : exprs[e].encode(cs);
+            }
+            return constants;
+        });
+    }
+
     @Override
     public Set<List<String>> getVariables() {
         final Engine.VarCollector collector = jxlt.getEngine().varCollector();
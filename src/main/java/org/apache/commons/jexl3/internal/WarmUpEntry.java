@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3.internal;
+
+import org.apache.commons.jexl3.JexlArithmetic;
+import org.apache.commons.jexl3.JexlInfo;
+import org.apache.commons.jexl3.JexlOperator;
+import org.apache.commons.jexl3.JexlWarmUp;
+import org.apache.commons.jexl3.introspection.JexlMethod;
+import org.apache.commons.jexl3.introspection.JexlPropertyGet;
+import org.apache.commons.jexl3.introspection.JexlPropertySet;
+import org.apache.commons.jexl3.parser.ASTAddNode;
+import org.apache.commons.jexl3.parser.ASTArrayAccess;
+import org.apache.commons.jexl3.parser.ASTBitwiseAndNode;
+import org.apache.commons.jexl3.parser.ASTBitwiseComplNode;
+import org.apache.commons.jexl3.parser.ASTBitwiseOrNode;
+import org.apache.commons.jexl3.parser.ASTBitwiseXorNode;
+import org.apache.commons.jexl3.parser.ASTConstructorNode;
+import org.apache.commons.jexl3.parser.ASTDecrementGetNode;
+import org.apache.commons.jexl3.parser.ASTDivNode;
+import org.apache.commons.jexl3.parser.ASTEQNode;
+import org.apache.commons.jexl3.parser.ASTERNode;
+import org.apache.commons.jexl3.parser.ASTEWNode;
+import org.apache.commons.jexl3.parser.ASTFunctionNode;
+import org.apache.commons.jexl3.parser.ASTGENode;
+import org.apache.commons.jexl3.parser.ASTGTNode;
+import org.apache.commons.jexl3.parser.ASTGetDecrementNode;
+import org.apache.commons.jexl3.parser.ASTGetIncrementNode;
+import org.apache.commons.jexl3.parser.ASTIdentifierAccess;
+import org.apache.commons.jexl3.parser.ASTIncrementGetNode;
+import org.apache.commons.jexl3.parser.ASTLENode;
+import org.apache.commons.jexl3.parser.ASTLTNode;
+import org.apache.commons.jexl3.parser.ASTMethodNode;
+import org.apache.commons.jexl3.parser.ASTModNode;
+import org.apache.commons.jexl3.parser.ASTMulNode;
+import org.apache.commons.jexl3.parser.ASTNENode;
+import org.apache.commons.jexl3.parser.ASTNEWNode;
+import org.apache.commons.jexl3.parser.ASTNRNode;
+import org.apache.commons.jexl3.parser.ASTNSWNode;
+import org.apache.commons.jexl3.parser.ASTNotNode;
+import org.apache.commons.jexl3.parser.ASTSWNode;
+import org.apache.commons.jexl3.parser.ASTSetAddNode;
+import org.apache.commons.jexl3.parser.ASTSetAndNode;
+import org.apache.commons.jexl3.parser.ASTSetDivNode;
+import org.apache.commons.jexl3.parser.ASTSetModNode;
+import org.apache.commons.jexl3.parser.ASTSetMultNode;
+import org.apache.commons.jexl3.parser.ASTSetOrNode;
+import org.apache.commons.jexl3.parser.ASTSetShiftLeftNode;
+import org.apache.commons.jexl3.parser.ASTSetShiftRightNode;
+import org.apache.commons.jexl3.parser.ASTSetShiftRightUnsignedNode;
+import org.apache.commons.jexl3.parser.ASTSetSubNode;
+import org.apache.commons.jexl3.parser.ASTSetXorNode;
+import org.apache.commons.jexl3.parser.ASTShiftLeftNode;
+import org.apache.commons.jexl3.parser.ASTShiftRightNode;
+import org.apache.commons.jexl3.parser.ASTShiftRightUnsignedNode;
+import org.apache.commons.jexl3.parser.ASTSubNode;
+import org.apache.commons.jexl3.parser.ASTUnaryMinusNode;
+import org.apache.commons.jexl3.parser.ASTUnaryPlusNode;
+import org.apache.commons.jexl3.parser.JexlNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A warm-up report entry, a member access or operator node of a script.
+ */
+final class WarmUpEntry implements JexlWarmUp.Entry {
+    /** The operators evaluated by operator nodes, by node class. */
+    private static final Map<Class<? extends JexlNode>, JexlOperator> OPERATORS = new HashMap<>();
+    static {
+        OPERATORS.put(ASTAddNode.class, JexlOperator.ADD);
+        OPERATORS.put(ASTSubNode.class, JexlOperator.SUBTRACT);
+        OPERATORS.put(ASTMulNode.class, JexlOperator.MULTIPLY);
+        OPERATORS.put(ASTDivNode.class, JexlOperator.DIVIDE);
+        OPERATORS.put(ASTModNode.class, JexlOperator.MOD);
+        OPERATORS.put(ASTBitwiseAndNode.class, JexlOperator.AND);
+        OPERATORS.put(ASTBitwiseOrNode.class, JexlOperator.OR);
+        OPERATORS.put(ASTBitwiseXorNode.class, JexlOperator.XOR);
+        OPERATORS.put(ASTShiftLeftNode.class, JexlOperator.SHIFTLEFT);
+        OPERATORS.put(ASTShiftRightNode.class, JexlOperator.SHIFTRIGHT);
+        OPERATORS.put(ASTShiftRightUnsignedNode.class, JexlOperator.SHIFTRIGHTU);
+        OPERATORS.put(ASTEQNode.class, JexlOperator.EQ);
+        OPERATORS.put(ASTNENode.class, JexlOperator.EQ);
+        OPERATORS.put(ASTGENode.class, JexlOperator.GTE);
+        OPERATORS.put(ASTGTNode.class, JexlOperator.GT);
+        OPERATORS.put(ASTLENode.class, JexlOperator.LTE);
+        OPERATORS.put(ASTLTNode.class, JexlOperator.LT);
+        OPERATORS.put(ASTSWNode.class, JexlOperator.STARTSWITH);
+        OPERATORS.put(ASTNSWNode.class, JexlOperator.STARTSWITH);
+        OPERATORS.put(ASTEWNode.class, JexlOperator.ENDSWITH);
+        OPERATORS.put(ASTNEWNode.class, JexlOperator.ENDSWITH);
+        OPERATORS.put(ASTERNode.class, JexlOperator.CONTAINS);
+        OPERATORS.put(ASTNRNode.class, JexlOperator.CONTAINS);
+        OPERATORS.put(ASTUnaryMinusNode.class, JexlOperator.NEGATE);
+        OPERATORS.put(ASTUnaryPlusNode.class, JexlOperator.POSITIVIZE);
+        OPERATORS.put(ASTBitwiseComplNode.class, JexlOperator.COMPLEMENT);
+        OPERATORS.put(ASTNotNode.class, JexlOperator.NOT);
+        OPERATORS.put(ASTSetAddNode.class, JexlOperator.SELF_ADD);
+        OPERATORS.put(ASTSetSubNode.class, JexlOperator.SELF_SUBTRACT);
+        OPERATORS.put(ASTSetMultNode.class, JexlOperator.SELF_MULTIPLY);
+        OPERATORS.put(ASTSetDivNode.class, JexlOperator.SELF_DIVIDE);
+        OPERATORS.put(ASTSetModNode.class, JexlOperator.SELF_MOD);
+        OPERATORS.put(ASTSetAndNode.class, JexlOperator.SELF_AND);
+        OPERATORS.put(ASTSetOrNode.class, JexlOperator.SELF_OR);
+        OPERATORS.put(ASTSetXorNode.class, JexlOperator.SELF_XOR);
+        OPERATORS.put(ASTSetShiftLeftNode.class, JexlOperator.SELF_SHIFTLEFT);
+        OPERATORS.put(ASTSetShiftRightNode.class, JexlOperator.SELF_SHIFTRIGHT);
+        OPERATORS.put(ASTSetShiftRightUnsignedNode.class, JexlOperator.SELF_SHIFTRIGHTU);
+        OPERATORS.put(ASTGetIncrementNode.class, JexlOperator.GET_AND_INCREMENT);
+        OPERATORS.put(ASTGetDecrementNode.class, JexlOperator.GET_AND_DECREMENT);
+        OPERATORS.put(ASTIncrementGetNode.class, JexlOperator.INCREMENT_AND_GET);
+        OPERATORS.put(ASTDecrementGetNode.class, JexlOperator.DECREMENT_AND_GET);
+    }
+    /** The node. */
+    private final JexlNode node;
+    /** The operator of an operator node. */
+    private final JexlOperator operator;
+
+    /**
+     * Creates an entry.
+     * @param theNode the node
+     * @param theOperator the operator of an operator node, null for a member access node
+     */
+    private WarmUpEntry(final JexlNode theNode, final JexlOperator theOperator) {
+        node = theNode;
+        operator = theOperator;
+    }
+
+    /**
+     * Collects the entries of a script.
+     * @param script the script tree
+     * @param operators the operator overloads of the arithmetic, null if none
+     * @return the member access nodes and the operator nodes whose operator is overloaded, in script order
+     */
+    static List<WarmUpEntry> collect(final JexlNode script, final JexlArithmetic.Uberspect operators) {
+        final List<WarmUpEntry> list = new ArrayList<>();
+        collect(script, operators, list);
+        return list;
+    }
+
+    /**
+     * Collects the entries of a tree.
+     * @param node the tree root
+     * @param operators the operator overloads of the arithmetic, null if none
+     * @param list the list of entries to fill
+     */
+    private static void collect(final JexlNode node,
+                                final JexlArithmetic.Uberspect operators,
+                                final List<WarmUpEntry> list) {
+        if (isMemberAccess(node)) {
+            list.add(new WarmUpEntry(node, null));
+        } else if (operators != null) {
+            final JexlOperator operator = OPERATORS.get(node.getClass());
+            if (operator != null && operators.overloads(operator)) {
+                list.add(new WarmUpEntry(node, operator));
+            }
+        }
+        final int nc = node.jjtGetNumChildren();
+        for (int c = 0; c < nc; ++c) {
+            collect(node.jjtGetChild(c), operators, list);
+        }
+    }
+
+    /**
+     * Checks whether a node caches an executor when evaluated.
+     * @param node the node
+     * @return true if a call, a property or an indexed access, false otherwise
+     */
+    private static boolean isMemberAccess(final JexlNode node) {
+        if (node instanceof ASTMethodNode || node instanceof ASTFunctionNode || node instanceof ASTConstructorNode) {
+            return true;
+        }
+        final JexlNode parent = node.jjtGetParent();
+        if (node instanceof ASTIdentifierAccess) {
+            // the name of a method is cached by the method node
+            return !(parent instanceof ASTMethodNode);
+        }
+        return parent instanceof ASTArrayAccess;
+    }
+
+    @Override
+    public JexlInfo getInfo() {
+        return node.jexlInfo();
+    }
+
+    @Override
+    public String getSource() {
+        final Debugger dbg = new Debugger().indentation(0).depth(8);
+        return dbg.data(node);
+    }
+
+    @Override
+    public JexlOperator getOperator() {
+        return operator;
+    }
+
+    @Override
+    public boolean isCached() {
+        final Object value = node.jjtGetValue();
+        if (operator != null) {
+            return value instanceof JexlMethod;
+        }
+        if (value instanceof InlineCache) {
+            return !((InlineCache) value).isMegamorphic();
+        }
+        return value instanceof JexlNode.Funcall
+               || value instanceof JexlPropertyGet
+               || value instanceof JexlPropertySet
+               || value instanceof JexlMethod;
+    }
+
+    @Override
+    public boolean isMegamorphic() {
+        final Object value = node.jjtGetValue();
+        return value instanceof InlineCache && ((InlineCache) value).isMegamorphic();
+    }
+
+    @Override
+    public long getHits() {
+        final Object value = node.jjtGetValue();
+        return value instanceof InlineCache ? ((InlineCache) value).getHits() : 0L;
+    }
+
+    @Override
+    public long getMisses() {
+        final Object value = node.jjtGetValue();
+        return value instanceof InlineCache ? ((InlineCache) value).getMisses() : 0L;
+    }
+}
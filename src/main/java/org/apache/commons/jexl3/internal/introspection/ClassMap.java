@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -39,6 +40,10 @@ import java.util.concurrent.ConcurrentHashMap;
  * <p>
  * Originally taken from the Velocity tree so we can be self-sufficient.
  * </p>
+ * <p>
+ * A class map is either eager, reflecting all the methods and fields of the class hierarchy when created,
+ * or lazy, reflecting the methods and fields of a given name the first time they are looked up.
+ * </p>
  *
  * @see MethodKey
  * @since 1.0
@@ -63,6 +68,28 @@ final class ClassMap {
      * The cache miss marker method.
      */
     static final Method CACHE_MISS = cacheMiss();
+    /**
+     * The cache miss marker field.
+     */
+    private static final Field FIELD_MISS = fieldMiss();
+    /**
+     * The marker for names without methods.
+     */
+    private static final Method[] NO_METHODS = new Method[0];
+
+    /**
+     * A field used as a marker for cache miss.
+     *
+     * @return the CACHE_MISS field
+     */
+    private static Field fieldMiss() {
+        try {
+            return ClassMap.class.getDeclaredField("CACHE_MISS");
+        } catch (final Exception xio) {
+            // this really can't make an error...
+            return null;
+        }
+    }
     /**
      * This is the cache to store and look up the method information.
      * <p>
@@ -79,13 +106,33 @@ final class ClassMap {
      */
     private final Map<MethodKey, Method> byKey ;
     /**
-     * Keep track of all methods with the same name; this is not modified after creation.
+     * Keep track of all methods with the same name; this is not modified after creation unless lazy.
      */
     private final Map<String, Method[]> byName;
+    /**
+     * The overloads of a method name, indexed by argument count; built on the first resolution of a name.
+     */
+    private final Map<String, Overloads> byArity = new ConcurrentHashMap<>();
     /**
      * Cache of fields.
      */
     private final Map<String, Field> fieldCache;
+    /**
+     * The class, only kept by lazy maps.
+     */
+    private final Class<?> clazz;
+    /**
+     * The permissions, only kept by lazy maps.
+     */
+    private final JexlPermissions permissions;
+    /**
+     * The logger, only kept by lazy maps.
+     */
+    private final Log log;
+    /**
+     * Whether all the method names of a lazy map have been resolved.
+     */
+    private volatile boolean complete;
 
     /**
      * Singleton for permissions non-allowed classes.
@@ -118,6 +165,10 @@ final class ClassMap {
         });
         this.byName = Collections.emptyMap();
         this.fieldCache = Collections.emptyMap();
+        this.clazz = null;
+        this.permissions = null;
+        this.log = null;
+        this.complete = true;
     }
 
     /**
@@ -127,9 +178,37 @@ final class ClassMap {
      * @param permissions the permissions to apply during introspection
      * @param log         the logger.
      */
-    @SuppressWarnings("LeakingThisInConstructor")
     ClassMap(final Class<?> aClass, final JexlPermissions permissions, final Log log) {
+        this(aClass, permissions, log, false);
+    }
+
+    /**
+     * Creates a class map.
+     * <p>A lazy map only reflects the methods and fields of a name the first time they are looked up;
+     * this avoids reflecting and checking the permissions of members that scripts never use.</p>
+     *
+     * @param aClass      the class to deconstruct.
+     * @param permissions the permissions to apply during introspection
+     * @param log         the logger.
+     * @param lazy        whether methods and fields are reflected when first looked up
+     * @since 3.3.1
+     */
+    @SuppressWarnings("LeakingThisInConstructor")
+    ClassMap(final Class<?> aClass, final JexlPermissions permissions, final Log log, final boolean lazy) {
         this.byKey = new ConcurrentHashMap<>();
+        if (lazy) {
+            this.byName = new ConcurrentHashMap<>();
+            this.fieldCache = new ConcurrentHashMap<>();
+            this.clazz = aClass;
+            this.permissions = permissions;
+            this.log = log;
+            this.complete = false;
+            return;
+        }
+        this.clazz = null;
+        this.permissions = null;
+        this.log = null;
+        this.complete = true;
         this.byName = new HashMap<>();
         // eagerly cache methods
         create(this, permissions, aClass, log);
@@ -155,7 +234,28 @@ final class ClassMap {
      * @return A Field object representing the field to invoke or null.
      */
     Field getField(final String fname) {
-        return fieldCache.get(fname);
+        if (fname == null) {
+            return null;
+        }
+        Field field = fieldCache.get(fname);
+        if (field == null && clazz != null) {
+            field = FIELD_MISS;
+            try {
+                // same resolution as the eager map, the last allowed public field of that name; a hidden field
+                // thus resolves the same way in both
+                for (final Field f : clazz.getFields()) {
+                    if (fname.equals(f.getName()) && permissions.allow(f)) {
+                        field = f;
+                    }
+                }
+            } catch (final SecurityException se) {
+                if (log.isDebugEnabled()) {
+                    log.debug("While accessing field " + fname + " of " + clazz + ": ", se);
+                }
+            }
+            fieldCache.put(fname, field);
+        }
+        return field == FIELD_MISS ? null : field;
     }
 
     /**
@@ -164,6 +264,15 @@ final class ClassMap {
      * @return the array of field names
      */
     String[] getFieldNames() {
+        if (clazz != null) {
+            final List<String> names = new ArrayList<>();
+            for (final Field field : clazz.getFields()) {
+                if (getField(field.getName()) != null) {
+                    names.add(field.getName());
+                }
+            }
+            return names.toArray(new String[0]);
+        }
         return fieldCache.keySet().toArray(new String[0]);
     }
 
@@ -173,6 +282,16 @@ final class ClassMap {
      * @return the array of method names
      */
     String[] getMethodNames() {
+        if (clazz != null) {
+            resolveAll();
+            final List<String> names = new ArrayList<>(byName.size());
+            for (final Map.Entry<String, Method[]> entry : byName.entrySet()) {
+                if (entry.getValue().length > 0) {
+                    names.add(entry.getKey());
+                }
+            }
+            return names.toArray(new String[0]);
+        }
         return byName.keySet().toArray(new String[0]);
     }
 
@@ -183,7 +302,7 @@ final class ClassMap {
      * @return the array of methods (null or non-empty)
      */
     Method[] getMethods(final String methodName) {
-        final Method[] lm = byName.get(methodName);
+        final Method[] lm = getMethodList(methodName);
         if (lm != null && lm.length > 0) {
             return lm.clone();
         }
@@ -215,11 +334,26 @@ final class ClassMap {
             return null;
         }
         if (cacheEntry == null) {
+            final Method[] methodList = getMethodList(methodKey.getMethod());
+            if (clazz != null) {
+                // resolving the name of a lazy map registered its exact signatures
+                cacheEntry = byKey.get(methodKey);
+                if (cacheEntry == CACHE_MISS) {
+                    return null;
+                }
+                if (cacheEntry != null) {
+                    return cacheEntry;
+                }
+            }
             try {
-                // That one is expensive...
-                final Method[] methodList = byName.get(methodKey.getMethod());
-                if (methodList != null) {
-                    cacheEntry = methodKey.getMostSpecificMethod(methodList);
+                // That one is expensive, only consider the methods whose arity fits
+                if (methodList != null && methodList.length > 0) {
+                    final Overloads overloads = byArity.computeIfAbsent(methodKey.getMethod(),
+                                                                        k -> new Overloads(methodList));
+                    final Method[] candidates = overloads.getCandidates(methodKey.getParameters().length);
+                    if (candidates.length > 0) {
+                        cacheEntry = methodKey.getMostSpecificMethod(candidates);
+                    }
                 }
                 byKey.put(methodKey, cacheEntry == null? CACHE_MISS : cacheEntry);
             } catch (final MethodKey.AmbiguousException ae) {
@@ -233,6 +367,111 @@ final class ClassMap {
         return cacheEntry;
     }
 
+    /**
+     * The methods of a given name indexed by argument count.
+     * <p>A method is a candidate for a number of arguments if it has as many parameters or if it is a vararg
+     * method whose fixed parameters are not more than the arguments; the other methods can not be applicable.
+     * Candidates keep the order of the methods, the most specific resolution is thus unchanged.</p>
+     */
+    private static final class Overloads {
+        /** The candidates per argument count, up to the maximum number of parameters. */
+        private final Method[][] candidates;
+        /** The candidates for more arguments than the maximum number of parameters, the vararg methods. */
+        private final Method[] varargs;
+
+        /**
+         * Creates the index.
+         * @param methods the methods of a given name
+         */
+        Overloads(final Method[] methods) {
+            int max = 0;
+            final boolean[] isVarArgs = new boolean[methods.length];
+            for (int m = 0; m < methods.length; ++m) {
+                max = Math.max(max, methods[m].getParameterCount());
+                isVarArgs[m] = MethodKey.isVarArgs(methods[m]);
+            }
+            candidates = new Method[max + 1][];
+            for (int argc = 0; argc <= max; ++argc) {
+                candidates[argc] = select(methods, isVarArgs, argc);
+            }
+            varargs = select(methods, isVarArgs, max + 1);
+        }
+
+        /**
+         * Selects the methods that may be applicable to a number of arguments.
+         * @param methods the methods
+         * @param isVarArgs whether each method is vararg
+         * @param argc the number of arguments
+         * @return the candidates
+         */
+        private static Method[] select(final Method[] methods, final boolean[] isVarArgs, final int argc) {
+            final List<Method> list = new ArrayList<>(methods.length);
+            for (int m = 0; m < methods.length; ++m) {
+                final int parmc = methods[m].getParameterCount();
+                if (parmc == argc || (isVarArgs[m] && parmc - 1 <= argc)) {
+                    list.add(methods[m]);
+                }
+            }
+            return list.toArray(new Method[0]);
+        }
+
+        /**
+         * Gets the methods that may be applicable to a number of arguments.
+         * @param argc the number of arguments
+         * @return the candidates, may be empty
+         */
+        Method[] getCandidates(final int argc) {
+            return argc < candidates.length ? candidates[argc] : varargs;
+        }
+    }
+
+    /**
+     * Gets the methods of a given name, resolving them if this map is lazy.
+     *
+     * @param name the method name
+     * @return the methods, null or empty if none
+     */
+    private Method[] getMethodList(final String name) {
+        if (name == null) {
+            return null;
+        }
+        Method[] methods = byName.get(name);
+        if (methods == null && clazz != null && !complete) {
+            final Map<MethodKey, Method> methodMap = new LinkedHashMap<>();
+            collect(methodMap, permissions, clazz, name, log);
+            final List<Method> lm = new ArrayList<>(methodMap.size());
+            for (final Map.Entry<MethodKey, Method> entry : methodMap.entrySet()) {
+                final Method method = entry.getValue();
+                byKey.putIfAbsent(entry.getKey(), method);
+                if (method != CACHE_MISS) {
+                    lm.add(method);
+                }
+            }
+            methods = lm.isEmpty() ? NO_METHODS : lm.toArray(new Method[0]);
+            final Method[] previous = byName.putIfAbsent(name, methods);
+            if (previous != null) {
+                methods = previous;
+            }
+        }
+        return methods;
+    }
+
+    /**
+     * Resolves all the methods of a lazy map.
+     */
+    private void resolveAll() {
+        if (!complete) {
+            final Map<MethodKey, Method> methodMap = new LinkedHashMap<>();
+            collect(methodMap, permissions, clazz, null, log);
+            for (final Method method : methodMap.values()) {
+                if (method != CACHE_MISS) {
+                    getMethodList(method.getName());
+                }
+            }
+            complete = true;
+        }
+    }
+
     /**
      * Populate the Map of direct hits. These are taken from all the public methods
      * that our class, its parents and their implemented interfaces provide.
@@ -251,15 +490,7 @@ final class ClassMap {
         //
         // We also ignore all SecurityExceptions that might happen due to SecurityManager restrictions.
         //
-        for (Class<?> classToReflect = clazz; classToReflect != null; classToReflect = classToReflect.getSuperclass()) {
-            if (Modifier.isPublic(classToReflect.getModifiers()) && ClassTool.isExported(classToReflect)) {
-                populateWithClass(cache, permissions, classToReflect, log);
-            }
-            final Class<?>[] interfaces = classToReflect.getInterfaces();
-            for (final Class<?> anInterface : interfaces) {
-                populateWithInterface(cache, permissions, anInterface, log);
-            }
-        }
+        collect(cache.byKey, permissions, clazz, null, log);
         // now that we've got all methods keyed in, lets organize them by name
         if (!cache.byKey.isEmpty()) {
             final List<Method> lm = new ArrayList<>(cache.byKey.size());
@@ -285,23 +516,50 @@ final class ClassMap {
         }
     }
 
+    /**
+     * Collects the public methods of a class hierarchy, bottom-first.
+     *
+     * @param byKey       the map to fill
+     * @param permissions the permissions to apply during introspection
+     * @param clazz       the class to collect the methods of
+     * @param name        the method name, null for all methods
+     * @param log         the Log
+     */
+    private static void collect(final Map<MethodKey, Method> byKey,
+                                final JexlPermissions permissions,
+                                final Class<?> clazz,
+                                final String name,
+                                final Log log) {
+        for (Class<?> classToReflect = clazz; classToReflect != null; classToReflect = classToReflect.getSuperclass()) {
+            if (Modifier.isPublic(classToReflect.getModifiers()) && ClassTool.isExported(classToReflect)) {
+                populateWithClass(byKey, permissions, classToReflect, name, log);
+            }
+            final Class<?>[] interfaces = classToReflect.getInterfaces();
+            for (final Class<?> anInterface : interfaces) {
+                populateWithInterface(byKey, permissions, anInterface, name, log);
+            }
+        }
+    }
+
     /**
      * Recurses up interface hierarchy to get all super interfaces.
      *
-     * @param cache       the cache to fill
+     * @param byKey       the map to fill
      * @param permissions the permissions to apply during introspection
      * @param iface       the interface to populate the cache from
+     * @param name        the method name, null for all methods
      * @param log         the Log
      */
-    private static void populateWithInterface(final ClassMap cache,
+    private static void populateWithInterface(final Map<MethodKey, Method> byKey,
                                               final JexlPermissions permissions,
                                               final Class<?> iface,
+                                              final String name,
                                               final Log log) {
         if (Modifier.isPublic(iface.getModifiers())) {
-            populateWithClass(cache, permissions, iface, log);
+            populateWithClass(byKey, permissions, iface, name, log);
             final Class<?>[] supers = iface.getInterfaces();
             for (final Class<?> aSuper : supers) {
-                populateWithInterface(cache, permissions, aSuper, log);
+                populateWithInterface(byKey, permissions, aSuper, name, log);
             }
         }
     }
@@ -309,14 +567,16 @@ final class ClassMap {
     /**
      * Recurses up class hierarchy to get all super classes.
      *
-     * @param cache       the cache to fill
+     * @param byKey       the map to fill
      * @param permissions the permissions to apply during introspection
      * @param clazz       the class to populate the cache from
+     * @param name        the method name, null for all methods
      * @param log         the Log
      */
-    private static void populateWithClass(final ClassMap cache,
+    private static void populateWithClass(final Map<MethodKey, Method> byKey,
                                           final JexlPermissions permissions,
                                           final Class<?> clazz,
+                                          final String name,
                                           final Log log) {
         try {
             final Method[] methods = clazz.getDeclaredMethods();
@@ -325,9 +585,12 @@ final class ClassMap {
                 if (!Modifier.isPublic(mi.getModifiers())) {
                     continue;
                 }
+                if (name != null && !name.equals(mi.getName())) {
+                    continue;
+                }
                 // add method to byKey cache; do not override
                 final MethodKey key = new MethodKey(mi);
-                final Method pmi = cache.byKey.putIfAbsent(key, permissions.allow(mi) ? mi : CACHE_MISS);
+                final Method pmi = byKey.putIfAbsent(key, permissions.allow(mi) ? mi : CACHE_MISS);
                 if (pmi != null && pmi != CACHE_MISS && log.isDebugEnabled() && !key.equals(new MethodKey(pmi))) {
                     // foo(int) and foo(Integer) have the same signature for JEXL
                     log.debug("Method " + pmi + " is already registered, key: " + key.debugString());
@@ -28,6 +28,8 @@ import org.apache.commons.jexl3.introspection.JexlMethod;
 public final class ConstructorMethod implements JexlMethod {
     /** The wrapped constructor. */
     private final Constructor<?> ctor;
+    /** The method handle invoker, null if the constructor is invoked through reflection. */
+    private final MethodHandleInvoker invoker;
 
     /**
      * Discovers a class constructor and wrap it as a JexlMethod.
@@ -49,7 +51,7 @@ public final class ConstructorMethod implements JexlMethod {
         }
         final Constructor<?> ctor = is.getConstructor(clazz, new MethodKey(className, args));
         if (ctor != null) {
-            return new ConstructorMethod(ctor);
+            return new ConstructorMethod(ctor, is.getInvoker(ctor));
         }
         return null;
     }
@@ -58,7 +60,30 @@ public final class ConstructorMethod implements JexlMethod {
      * @param theCtor the constructor to wrap
      */
     ConstructorMethod(final Constructor<?> theCtor) {
+        this(theCtor, null);
+    }
+
+    /**
+     * Creates a constructor method.
+     * @param theCtor the constructor to wrap
+     * @param mhi the method handle invoker, null to use reflection
+     */
+    ConstructorMethod(final Constructor<?> theCtor, final MethodHandleInvoker mhi) {
         this.ctor = theCtor;
+        this.invoker = mhi;
+    }
+
+    /**
+     * Creates a new instance.
+     * @param params the constructor arguments
+     * @return the new instance
+     * @throws InstantiationException if the class is abstract
+     * @throws IllegalAccessException if the constructor is not accessible
+     * @throws InvocationTargetException if the constructor throws an exception
+     */
+    private Object newInstance(final Object... params)
+            throws InstantiationException, IllegalAccessException, InvocationTargetException {
+        return invoker != null ? invoker.invoke(null, params) : ctor.newInstance(params);
     }
 
     @Override
@@ -73,7 +98,7 @@ public final class ConstructorMethod implements JexlMethod {
             }
         }
         if (invoke) {
-                return ctor.newInstance(params);
+                return newInstance(params);
             }
         throw new IntrospectionException("constructor resolution error");
     }
@@ -94,7 +119,7 @@ public final class ConstructorMethod implements JexlMethod {
                 }
                 invoke &= name == null || ctorClass.getName().equals(name);
                 if (invoke) {
-                    return ctor.newInstance(args);
+                    return newInstance(args);
                 }
             } catch (InstantiationException | IllegalArgumentException | IllegalAccessException xinstance) {
                 return Uberspect.TRY_FAILED;
@@ -28,6 +28,10 @@ public final class FieldGetExecutor implements JexlPropertyGet {
      * The public field.
      */
     private final Field field;
+    /**
+     * The method handle invoker, null if the field is read through reflection.
+     */
+    private final MethodHandleInvoker invoker;
 
     /**
      * Attempts to discover a FieldGetExecutor.
@@ -41,7 +45,7 @@ public final class FieldGetExecutor implements JexlPropertyGet {
         if (identifier != null) {
             final Field field = is.getField(clazz, identifier);
             if (field != null) {
-                return new FieldGetExecutor(field);
+                return new FieldGetExecutor(field, is.getInvoker(field));
             }
         }
         return null;
@@ -49,14 +53,16 @@ public final class FieldGetExecutor implements JexlPropertyGet {
     /**
      * Creates a new instance of FieldPropertyGet.
      * @param theField the class public field
+     * @param mhi the method handle invoker, null to use reflection
      */
-    private FieldGetExecutor(final Field theField) {
+    private FieldGetExecutor(final Field theField, final MethodHandleInvoker mhi) {
         field = theField;
+        invoker = mhi;
     }
 
     @Override
     public Object invoke(final Object obj) throws Exception {
-        return field.get(obj);
+        return invoker != null ? invoker.invoke(obj, null) : field.get(obj);
     }
 
     @Override
@@ -21,16 +21,15 @@ import org.apache.commons.logging.Log;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This basic function of this class is to return a Method object for a
@@ -43,6 +42,8 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  * the method name and the array of parameters classes.
  * This mapping is performed for all the public methods of a class and stored.</p>
  *
+ * <p>The maps are concurrent: reads do not lock and each class map is created at most once.</p>
+ *
  * @since 1.0
  */
 public final class Introspector {
@@ -66,27 +67,52 @@ public final class Introspector {
     /**
      * The class loader used to solve constructors if needed.
      */
-    private ClassLoader loader;
+    private volatile ClassLoader loader;
     /**
      * The permissions.
      */
     private final JexlPermissions permissions;
-    /**
-     * The read/write lock.
-     */
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
     /**
      * Holds the method maps for the classes we know about, keyed by Class.
      */
-    private final Map<Class<?>, ClassMap> classMethodMaps = new HashMap<>();
+    private final Map<Class<?>, ClassMap> classMethodMaps = new ConcurrentHashMap<>();
     /**
      * Holds the map of classes ctors we know about as well as unknown ones.
      */
-    private final Map<MethodKey, Constructor<?>> constructorsMap = new HashMap<>();
+    private final Map<MethodKey, Constructor<?>> constructorsMap = new ConcurrentHashMap<>();
     /**
      * Holds the set of classes we have introspected.
      */
-    private final Map<String, Class<?>> constructibleClasses = new HashMap<>();
+    private final Map<String, Class<?>> constructibleClasses = new ConcurrentHashMap<>();
+    /**
+     * The introspection options.
+     * @since 3.3.1
+     */
+    public enum Option {
+        /**
+         * Methods, property getters and setters, public fields and constructors are invoked through method handles
+         * instead of reflection; the permissions and the executor caching and try-invoke contracts are the same.
+         */
+        METHOD_HANDLES,
+        /**
+         * The methods and fields of a class are reflected name by name, when they are first looked up, instead of
+         * reflecting the whole class hierarchy when the class is first introspected.
+         */
+        LAZY_MAPS
+    }
+
+    /**
+     * The marker for members that can not be invoked through a method handle.
+     */
+    private static final Object NO_INVOKER = new Object();
+    /**
+     * Holds the method handle invokers per member, null if members are invoked through reflection.
+     */
+    private final Map<Member, Object> invokers;
+    /**
+     * Whether class maps reflect members when first looked up.
+     */
+    private final boolean lazy;
 
     /**
      * Create the introspector.
@@ -104,9 +130,41 @@ public final class Introspector {
      * @param perms the permissions
      */
     public Introspector(final Log log, final ClassLoader cloader, final JexlPermissions perms) {
+        this(log, cloader, perms, null);
+    }
+
+    /**
+     * Create the introspector.
+     * @param log     the logger to use
+     * @param cloader the class loader
+     * @param perms the permissions
+     * @param options the introspection options, may be null
+     * @since 3.3.1
+     */
+    public Introspector(final Log log, final ClassLoader cloader, final JexlPermissions perms,
+                        final Set<Option> options) {
+        this.lazy = options != null && options.contains(Option.LAZY_MAPS);
         this.logger = log;
         this.loader = cloader;
         this.permissions = perms == null? JexlPermissions.RESTRICTED : perms;
+        this.invokers = options != null && options.contains(Option.METHOD_HANDLES) ? new ConcurrentHashMap<>() : null;
+    }
+
+    /**
+     * Gets the method handle invoker of a member.
+     * <p>The member is one returned by this introspector, thus already allowed by its permissions.</p>
+     * @param member the method, constructor or field
+     * @return the invoker or null if members are invoked through reflection
+     */
+    MethodHandleInvoker getInvoker(final Member member) {
+        if (invokers == null || member == null) {
+            return null;
+        }
+        final Object invoker = invokers.computeIfAbsent(member, m -> {
+            final MethodHandleInvoker mhi = MethodHandleInvoker.create(m);
+            return mhi != null ? mhi : NO_INVOKER;
+        });
+        return invoker instanceof MethodHandleInvoker ? (MethodHandleInvoker) invoker : null;
     }
 
     /**
@@ -227,103 +285,76 @@ public final class Introspector {
      * or null if no unambiguous constructor could be found through introspection.
      */
     public Constructor<?> getConstructor(final Class<?> c, final MethodKey key) {
-        Constructor<?> ctor;
-        lock.readLock().lock();
-        try {
-            ctor = constructorsMap.get(key);
-            if (ctor != null) {
-                // miss or not?
-                return CTOR_MISS.equals(ctor) ? null : ctor;
-            }
-        } finally {
-            lock.readLock().unlock();
+        Constructor<?> ctor = constructorsMap.get(key);
+        if (ctor == null) {
+            // let's introspect; a class not found or an ambiguous constructor are not cached
+            ctor = constructorsMap.computeIfAbsent(key, k -> introspectConstructor(c, k));
         }
-        // let's introspect...
-        lock.writeLock().lock();
+        // miss or not?
+        return ctor == null || CTOR_MISS.equals(ctor) ? null : ctor;
+    }
+
+    /**
+     * Finds the most specific constructor for a key.
+     * @param c   the class we want to instantiate
+     * @param key Key of the constructor being searched for
+     * @return the constructor, the cache-miss marker
+     * or null if the class could not be found or the constructor is ambiguous
+     */
+    private Constructor<?> introspectConstructor(final Class<?> c, final MethodKey key) {
+        final String cname = key.getMethod();
         try {
-            // again for kicks
-            ctor = constructorsMap.get(key);
-            if (ctor != null) {
-                // miss or not?
-                return CTOR_MISS.equals(ctor) ? null : ctor;
-            }
-            final String cname = key.getMethod();
             // do we know about this class?
             Class<?> clazz = constructibleClasses.get(cname);
-            try {
-                // do find the most specific ctor
-                if (clazz == null) {
-                    if (c != null && c.getName().equals(key.getMethod())) {
-                        clazz = c;
-                    } else {
-                        clazz = loader.loadClass(cname);
-                    }
-                    // add it to list of known loaded classes
-                    constructibleClasses.put(cname, clazz);
-                }
-                final List<Constructor<?>> l = new ArrayList<>();
-                for (final Constructor<?> ictor : clazz.getConstructors()) {
-                    if (permissions.allow(ictor)) {
-                        l.add(ictor);
-                    }
-                }
-                // try to find one
-                ctor = key.getMostSpecificConstructor(l.toArray(new Constructor<?>[0]));
-                if (ctor != null) {
-                    constructorsMap.put(key, ctor);
+            // do find the most specific ctor
+            if (clazz == null) {
+                if (c != null && c.getName().equals(key.getMethod())) {
+                    clazz = c;
                 } else {
-                    constructorsMap.put(key, CTOR_MISS);
-                }
-            } catch (final ClassNotFoundException xnotfound) {
-                if (logger != null && logger.isDebugEnabled()) {
-                    logger.debug("unable to find class: "
-                            + cname + "."
-                            + key.debugString(), xnotfound);
+                    clazz = loader.loadClass(cname);
                 }
-            } catch (final MethodKey.AmbiguousException xambiguous) {
-                if (logger != null  && xambiguous.isSevere() &&  logger.isInfoEnabled()) {
-                    logger.info("ambiguous constructor invocation: "
-                            + cname + "."
-                            + key.debugString(), xambiguous);
+                // add it to list of known loaded classes
+                constructibleClasses.put(cname, clazz);
+            }
+            final List<Constructor<?>> l = new ArrayList<>();
+            for (final Constructor<?> ictor : clazz.getConstructors()) {
+                if (permissions.allow(ictor)) {
+                    l.add(ictor);
                 }
-                ctor = null;
             }
-            return ctor;
-        } finally {
-            lock.writeLock().unlock();
+            // try to find one
+            final Constructor<?> ctor = key.getMostSpecificConstructor(l.toArray(new Constructor<?>[0]));
+            return ctor != null ? ctor : CTOR_MISS;
+        } catch (final ClassNotFoundException xnotfound) {
+            if (logger != null && logger.isDebugEnabled()) {
+                logger.debug("unable to find class: "
+                        + cname + "."
+                        + key.debugString(), xnotfound);
+            }
+            return null;
+        } catch (final MethodKey.AmbiguousException xambiguous) {
+            if (logger != null  && xambiguous.isSevere() &&  logger.isInfoEnabled()) {
+                logger.info("ambiguous constructor invocation: "
+                        + cname + "."
+                        + key.debugString(), xambiguous);
+            }
+            return null;
         }
     }
 
     /**
      * Gets the ClassMap for a given class.
+     * <p>The class map is created at most once, readers of an existing class map do not lock.</p>
      * @param c the class
      * @return the class map
      */
     private ClassMap getMap(final Class<?> c) {
-        ClassMap classMap;
-        lock.readLock().lock();
-        try {
-            classMap = classMethodMaps.get(c);
-        } finally {
-            lock.readLock().unlock();
-        }
-        if (classMap == null) {
-            lock.writeLock().lock();
-            try {
-                // try again
-                classMap = classMethodMaps.get(c);
-                if (classMap == null) {
-                    classMap = permissions.allow(c)
-                            ? new ClassMap(c, permissions, logger)
-                            : ClassMap.empty();
-                    classMethodMaps.put(c, classMap);
-                }
-            } finally {
-                lock.writeLock().unlock();
-            }
-
-        }
-        return classMap;
+        final ClassMap classMap = classMethodMaps.get(c);
+        return classMap != null
+               ? classMap
+               : classMethodMaps.computeIfAbsent(c, k -> permissions.allow(k)
+                                                         ? new ClassMap(k, permissions, logger, lazy)
+                                                         : ClassMap.empty());
     }
 
     /**
@@ -335,31 +366,23 @@ public final class Introspector {
         final ClassLoader previous = loader;
         final ClassLoader current = classLoader == null? getClass().getClassLoader() : classLoader;
         if (!current.equals(loader)) {
-            lock.writeLock().lock();
-            try {
+            synchronized (this) {
                 // clean up constructor and class maps
-                final Iterator<Map.Entry<MethodKey, Constructor<?>>> mentries = constructorsMap.entrySet().iterator();
-                while (mentries.hasNext()) {
-                    final Map.Entry<MethodKey, Constructor<?>> entry = mentries.next();
-                    final Class<?> clazz = entry.getValue().getDeclaringClass();
-                    if (isLoadedBy(previous, clazz)) {
-                        mentries.remove();
+                constructorsMap.entrySet().removeIf(entry -> {
+                    if (isLoadedBy(previous, entry.getValue().getDeclaringClass())) {
                         // the method name is the name of the class
                         constructibleClasses.remove(entry.getKey().getMethod());
+                        return true;
                     }
-                }
+                    return false;
+                });
                 // clean up method maps
-                final Iterator<Map.Entry<Class<?>, ClassMap>> centries = classMethodMaps.entrySet().iterator();
-                while (centries.hasNext()) {
-                    final Map.Entry<Class<?>, ClassMap> entry = centries.next();
-                    final Class<?> clazz = entry.getKey();
-                    if (isLoadedBy(previous, clazz)) {
-                        centries.remove();
-                    }
+                classMethodMaps.keySet().removeIf(clazz -> isLoadedBy(previous, clazz));
+                // clean up method handle invokers
+                if (invokers != null) {
+                    invokers.keySet().removeIf(member -> isLoadedBy(previous, member.getDeclaringClass()));
                 }
                 loader = current;
-            } finally {
-                lock.writeLock().unlock();
             }
         }
     }
@@ -30,6 +30,8 @@ public final class MethodExecutor extends AbstractExecutor.Method {
     private final int vaStart;
     /** If this method is a vararg method, vaClass is the component type of the vararg array. */
     private final Class<?> vaClass;
+    /** The method handle invoker, null if the method is invoked through reflection. */
+    private final MethodHandleInvoker invoker;
 
     /**
      * Discovers a {@link MethodExecutor}.
@@ -58,7 +60,7 @@ public final class MethodExecutor extends AbstractExecutor.Method {
         if (m == null && obj instanceof Class<?>) {
             m = is.getMethod((Class<?>) obj, key);
         }
-        return m == null? null : new MethodExecutor(clazz, m, key);
+        return m == null? null : new MethodExecutor(clazz, m, key, is.getInvoker(m));
     }
 
     /**
@@ -66,9 +68,12 @@ public final class MethodExecutor extends AbstractExecutor.Method {
      * @param c the class this executor applies to
      * @param m the method
      * @param k the MethodKey
+     * @param mhi the method handle invoker, null to use reflection
      */
-    private MethodExecutor(final Class<?> c, final java.lang.reflect.Method m, final MethodKey k) {
+    private MethodExecutor(final Class<?> c, final java.lang.reflect.Method m, final MethodKey k,
+                           final MethodHandleInvoker mhi) {
         super(c, m, k);
+        invoker = mhi;
         int vastart = -1;
         Class<?> vaclass = null;
         if (MethodKey.isVarArgs(method)) {
@@ -86,18 +91,17 @@ public final class MethodExecutor extends AbstractExecutor.Method {
         if (vaClass != null && args != null) {
             args = handleVarArg(args);
         }
-        if (method.getDeclaringClass() == ArrayListWrapper.class && o.getClass().isArray()) {
-            return method.invoke(new ArrayListWrapper(o), args);
-        }
-        return method.invoke(o, args);
+        final Object target = method.getDeclaringClass() == ArrayListWrapper.class && o.getClass().isArray()
+                              ? new ArrayListWrapper(o)
+                              : o;
+        return invoker != null ? invoker.invoke(target, args) : method.invoke(target, args);
     }
 
     @Override
     public Object tryInvoke(final String name, final Object obj, final Object... args) {
-        final MethodKey tkey = new MethodKey(name, args);
         // let's assume that invocation will fly if the declaring class is the
-        // same and arguments have the same type
-        if (objectClass.equals(obj.getClass()) && tkey.equals(key)) {
+        // same and arguments have the same type; the key is matched without allocation
+        if (objectClass.equals(obj.getClass()) && key.matches(name, args)) {
             try {
                 return invoke(obj, args);
             } catch (IllegalAccessException | IllegalArgumentException xill) {
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3.internal.introspection;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Invokes a method, a constructor or gets a field through a method handle.
+ * <p>Every member is adapted to the same <code>(Object target, Object[] arguments)Object</code> signature;
+ * the handle is invoked exactly, avoiding the access checks and exception wrapping of reflective calls.</p>
+ * <p>Invocations behave as their reflective counterparts: an exception thrown by the member is reported
+ * as an {@link InvocationTargetException} and arguments that can not be converted to the member parameter types
+ * as an {@link IllegalArgumentException}.</p>
+ */
+final class MethodHandleInvoker {
+    /** The lookup, only public members of public classes can be invoked. */
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+    /** The invoker signature. */
+    private static final MethodType INVOKER = MethodType.methodType(Object.class, Object.class, Object[].class);
+    /** The handle wrapping exceptions thrown by members. */
+    private static final MethodHandle WRAP;
+    static {
+        try {
+            WRAP = MethodHandles.lookup().findStatic(MethodHandleInvoker.class, "wrap",
+                    MethodType.methodType(Object.class, Throwable.class));
+        } catch (final NoSuchMethodException | IllegalAccessException xany) {
+            throw new ExceptionInInitializerError(xany);
+        }
+    }
+
+    /**
+     * Carries an exception thrown by a member through the adapted handle.
+     */
+    private static final class TargetException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Creates a target exception.
+         * @param cause the exception thrown by the member
+         */
+        TargetException(final Throwable cause) {
+            super(null, cause, false, false);
+        }
+    }
+
+    /**
+     * Wraps an exception thrown by a member.
+     * @param cause the exception
+     * @return never returns
+     */
+    private static Object wrap(final Throwable cause) {
+        throw new TargetException(cause);
+    }
+
+    /** The adapted handle. */
+    private final MethodHandle handle;
+
+    /**
+     * Creates an invoker.
+     * @param handle the handle adapted to the invoker signature
+     */
+    private MethodHandleInvoker(final MethodHandle handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * Creates the invoker of a member.
+     * @param member a method, a constructor or a field
+     * @return the invoker or null if the member can not be invoked through a handle
+     */
+    static MethodHandleInvoker create(final Member member) {
+        if (!Modifier.isPublic(member.getDeclaringClass().getModifiers())) {
+            return null;
+        }
+        try {
+            final MethodHandle handle;
+            if (member instanceof Method) {
+                handle = adapt(LOOKUP.unreflect((Method) member), Modifier.isStatic(member.getModifiers()), true);
+            } else if (member instanceof Constructor<?>) {
+                handle = adapt(LOOKUP.unreflectConstructor((Constructor<?>) member), true, true);
+            } else if (member instanceof Field) {
+                final Field field = (Field) member;
+                handle = adapt(LOOKUP.unreflectGetter(field), Modifier.isStatic(field.getModifiers()), false);
+            } else {
+                return null;
+            }
+            return new MethodHandleInvoker(handle);
+        } catch (final IllegalAccessException | RuntimeException xany) {
+            return null;
+        }
+    }
+
+    /**
+     * Adapts a handle to the invoker signature.
+     * @param direct the member handle
+     * @param noTarget whether the member has no target instance
+     * @param wrap whether to wrap exceptions thrown by the member
+     * @return the adapted handle
+     */
+    private static MethodHandle adapt(final MethodHandle direct, final boolean noTarget, final boolean wrap) {
+        MethodHandle mh = direct.asFixedArity();
+        if (wrap) {
+            final MethodType type = mh.type();
+            final MethodHandle handler = MethodHandles.dropArguments(
+                    WRAP.asType(MethodType.methodType(type.returnType(), Throwable.class)), 1, type.parameterList());
+            mh = MethodHandles.catchException(mh, Throwable.class, handler);
+        }
+        if (noTarget) {
+            mh = MethodHandles.dropArguments(mh, 0, Object.class);
+        }
+        final int arity = mh.type().parameterCount() - 1;
+        mh = mh.asType(MethodType.genericMethodType(arity + 1));
+        return mh.asSpreader(Object[].class, arity).asType(INVOKER);
+    }
+
+    /**
+     * Invokes the member.
+     * @param target the target instance, ignored for static members and constructors
+     * @param args the arguments, null for a field
+     * @return the result, null for void methods
+     * @throws InvocationTargetException if the member throws an exception
+     * @throws IllegalArgumentException if the arguments do not fit the member parameters
+     */
+    Object invoke(final Object target, final Object[] args) throws InvocationTargetException {
+        try {
+            return (Object) handle.invokeExact(target, args);
+        } catch (final TargetException xtarget) {
+            throw new InvocationTargetException(xtarget.getCause());
+        } catch (final ClassCastException | NullPointerException | WrongMethodTypeException xconvert) {
+            throw new IllegalArgumentException(xconvert);
+        } catch (final RuntimeException | Error xrt) {
+            throw xrt;
+        } catch (final Throwable xany) {
+            // only the wrapped target can throw a checked exception
+            throw new InvocationTargetException(xany);
+        }
+    }
+}
@@ -134,6 +134,31 @@ public final class MethodKey {
         return params;
     }
 
+    /**
+     * Checks whether this key is the one a method name and a set of arguments would create.
+     * <p>This is equivalent to <code>equals(new MethodKey(name, args))</code> without creating the key;
+     * the arguments classes are compared in place.</p>
+     * @param name the method name
+     * @param args the method arguments
+     * @return true if the name and arguments classes match this key, false otherwise
+     */
+    boolean matches(final String name, final Object[] args) {
+        if (!method.equals(name)) {
+            return false;
+        }
+        final int size = args == null ? 0 : args.length;
+        if (size != params.length) {
+            return false;
+        }
+        for (int p = 0; p < size; ++p) {
+            final Object arg = args[p];
+            if (params[p] != (arg == null ? Void.class : arg.getClass())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public int hashCode() {
         return hashCode;
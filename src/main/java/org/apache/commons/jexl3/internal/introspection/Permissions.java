@@ -200,6 +200,39 @@ public class Permissions implements JexlPermissions {
         }
     };
 
+    /**
+     * The permissions of a class, computed once.
+     * <p>Decisions combine the class annotations, the package and class rules and the wildcard set;
+     * they also summarize the class hierarchy so that checking a class does not walk its superclasses.</p>
+     */
+    private static final class Decision {
+        /** The class constraints. */
+        private final NoJexlClass nojexl;
+        /** Whether the whole class is denied. */
+        private final boolean denied;
+        /** Whether the class package is allowed by the wildcard set. */
+        private final boolean wildcard;
+        /** Whether the class or one of its superclasses is denied. */
+        private final boolean hierarchyDenied;
+        /** Whether the class or one of its superclasses is allowed by the wildcard set. */
+        private final boolean hierarchyAllowed;
+
+        /**
+         * Creates a decision.
+         * @param nojexl the class constraints
+         * @param denied whether the class is denied
+         * @param wildcard whether the class package is allowed
+         * @param parent the superclass decision, null if none
+         */
+        Decision(final NoJexlClass nojexl, final boolean denied, final boolean wildcard, final Decision parent) {
+            this.nojexl = nojexl;
+            this.denied = denied;
+            this.wildcard = wildcard;
+            this.hierarchyDenied = denied || (parent != null && parent.hierarchyDenied);
+            this.hierarchyAllowed = wildcard || (parent != null && parent.hierarchyAllowed);
+        }
+    }
+
     /**
      * The @NoJexl execution-time map.
      */
@@ -208,6 +241,16 @@ public class Permissions implements JexlPermissions {
      * The closed world package patterns.
      */
     private final Set<String> allowed;
+    /**
+     * The per-class decisions.
+     * <p>Permissions are immutable once parsed; composing creates new permissions.</p>
+     */
+    private final ClassValue<Decision> decisions = new ClassValue<Decision>() {
+        @Override
+        protected Decision computeValue(final Class<?> clazz) {
+            return decide(clazz);
+        }
+    };
 
     /** Allow inheritance. */
     protected Permissions() {
@@ -254,13 +297,22 @@ public class Permissions implements JexlPermissions {
     }
 
     /**
-     * Gets the package constraints.
-     * @param packageName the package name
-     * @return the package constraints instance, not-null.
+     * Computes the permissions of a class.
+     * @param clazz the class
+     * @return the decision
      */
-    private NoJexlPackage getNoJexlPackage(final String packageName) {
-        final NoJexlPackage njp = packages.get(packageName);
-        return njp != null? njp : JEXL_PACKAGE;
+    private Decision decide(final Class<?> clazz) {
+        final String pkgName = ClassTool.getPackageName(clazz);
+        final NoJexlPackage njp = packages.get(pkgName);
+        final NoJexlClass njc = njp != null ? njp.getNoJexl(clazz) : null;
+        // arrays are not denied; is clazz annotated with nojexl ?
+        final boolean denied = !clazz.isArray()
+                && (clazz.getAnnotation(NoJexl.class) != null || Objects.equals(NOJEXL_CLASS, njc));
+        final Class<?> parent = clazz.getSuperclass();
+        return new Decision(njc != null ? njc : JEXL_CLASS,
+                denied,
+                wildcardAllow(allowed, pkgName),
+                parent != null ? decisions.get(parent) : null);
     }
 
     /**
@@ -270,15 +322,7 @@ public class Permissions implements JexlPermissions {
      * @return the class constraints instance, not-null.
      */
     private NoJexlClass getNoJexl(final Class<?> clazz) {
-        final String pkgName = ClassTool.getPackageName(clazz);
-        final NoJexlPackage njp = getNoJexlPackage(pkgName);
-        if (njp != null) {
-            final NoJexlClass njc = njp.getNoJexl(clazz);
-            if (njc != null) {
-                return njc;
-            }
-        }
-        return JEXL_CLASS;
+        return decisions.get(clazz).nojexl;
     }
 
     /**
@@ -287,7 +331,7 @@ public class Permissions implements JexlPermissions {
      * @return true if allowed, false otherwise
      */
     private boolean wildcardAllow(final Class<?> clazz) {
-        return wildcardAllow(allowed, ClassTool.getPackageName(clazz));
+        return decisions.get(clazz).wildcard;
     }
 
     /**
@@ -330,17 +374,7 @@ public class Permissions implements JexlPermissions {
      * @return true if denied, false otherwise
      */
     private boolean deny(final Class<?> clazz) {
-        // Don't deny arrays
-        if (clazz.isArray()) {
-            return false;
-        }
-        // is clazz annotated with nojexl ?
-        final NoJexl nojexl = clazz.getAnnotation(NoJexl.class);
-        if (nojexl != null) {
-            return true;
-        }
-        final NoJexlPackage njp = packages.get(ClassTool.getPackageName(clazz));
-        return njp != null && Objects.equals(NOJEXL_CLASS, njp.getNoJexl(clazz));
+        return decisions.get(clazz).denied;
     }
 
     /**
@@ -411,24 +445,9 @@ public class Permissions implements JexlPermissions {
         if (Proxy.isProxyClass(clazz)) {
             return true;
         }
-        // class must be allowed
-        if (deny(clazz)) {
-            return false;
-        }
-        // no super class can be denied and at least one must be allowed
-        boolean explicit = wildcardAllow(clazz);
-        Class<?> walk = clazz.getSuperclass();
-        while (walk != null) {
-            if (deny(walk)) {
-                return false;
-            }
-            if (!explicit) {
-                explicit = wildcardAllow(walk);
-            }
-            walk = walk.getSuperclass();
-        }
-        // check wildcards
-        return explicit;
+        // class must be allowed, no super class can be denied and at least one must be allowed
+        final Decision decision = decisions.get(clazz);
+        return !decision.hierarchyDenied && decision.hierarchyAllowed;
     }
 
     /**
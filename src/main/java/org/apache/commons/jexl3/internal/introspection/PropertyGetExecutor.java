@@ -28,6 +28,8 @@ public final class PropertyGetExecutor extends AbstractExecutor.Get {
     private static final Object[] EMPTY_PARAMS = {};
     /** The property. */
     private final String property;
+    /** The method handle invoker, null if the method is invoked through reflection. */
+    private final MethodHandleInvoker invoker;
 
     /**
      * Discovers a PropertyGetExecutor.
@@ -40,7 +42,7 @@ public final class PropertyGetExecutor extends AbstractExecutor.Get {
      */
     public static PropertyGetExecutor discover(final Introspector is, final Class<?> clazz, final String property) {
         final java.lang.reflect.Method method = discoverGet(is, "get", clazz, property);
-        return method == null? null : new PropertyGetExecutor(clazz, method, property);
+        return method == null? null : new PropertyGetExecutor(clazz, method, property, is.getInvoker(method));
     }
 
     /**
@@ -48,10 +50,13 @@ public final class PropertyGetExecutor extends AbstractExecutor.Get {
      * @param clazz he class the get method applies to
      * @param method the method held by this executor
      * @param identifier the property to get
+     * @param mhi the method handle invoker, null to use reflection
      */
-    private PropertyGetExecutor(final Class<?> clazz, final java.lang.reflect.Method method, final String identifier) {
+    private PropertyGetExecutor(final Class<?> clazz, final java.lang.reflect.Method method, final String identifier,
+                                final MethodHandleInvoker mhi) {
         super(clazz, method);
         property = identifier;
+        invoker = mhi;
     }
 
     @Override
@@ -61,7 +66,10 @@ public final class PropertyGetExecutor extends AbstractExecutor.Get {
 
     @Override
     public Object invoke(final Object o) throws IllegalAccessException, InvocationTargetException {
-        return method == null ? null : method.invoke(o, (Object[]) null);
+        if (method == null) {
+            return null;
+        }
+        return invoker != null ? invoker.invoke(o, null) : method.invoke(o, (Object[]) null);
     }
 
     @Override
@@ -70,7 +78,7 @@ public final class PropertyGetExecutor extends AbstractExecutor.Get {
             && property.equals(castString(identifier))
             && objectClass.equals(o.getClass())) {
             try {
-                return method.invoke(o, (Object[]) null);
+                return invoke(o);
             } catch (IllegalAccessException | IllegalArgumentException xill) {
                 return TRY_FAILED;// fail
             } catch (final InvocationTargetException xinvoke) {
@@ -31,6 +31,8 @@ public class PropertySetExecutor extends AbstractExecutor.Set {
     protected final String property;
     /** The property value class. */
     protected final Class<?> valueClass;
+    /** The method handle invoker, null if the method is invoked through reflection. */
+    private final MethodHandleInvoker invoker;
 
     /**
      * Discovers a PropertySetExecutor.
@@ -50,7 +52,7 @@ public class PropertySetExecutor extends AbstractExecutor.Set {
             return null;
         }
         final java.lang.reflect.Method method = discoverSet(is, clazz, property, value);
-        return method != null? new PropertySetExecutor(clazz, method, property, value) : null;
+        return method != null? new PropertySetExecutor(clazz, method, property, value, is.getInvoker(method)) : null;
     }
 
     /**
@@ -64,9 +66,26 @@ public class PropertySetExecutor extends AbstractExecutor.Set {
                                   final java.lang.reflect.Method method,
                                   final String key,
                                   final Object value) {
+        this(clazz, method, key, value, null);
+    }
+
+    /**
+     * Creates an instance.
+     * @param clazz  the class the set method applies to
+     * @param method the method called through this executor
+     * @param key    the key to use as 1st argument to the set method
+     * @param value    the value
+     * @param mhi the method handle invoker, null to use reflection
+     */
+    PropertySetExecutor(final Class<?> clazz,
+                        final java.lang.reflect.Method method,
+                        final String key,
+                        final Object value,
+                        final MethodHandleInvoker mhi) {
         super(clazz, method);
         property = key;
         valueClass = classOf(value);
+        invoker = mhi;
     }
 
     @Override
@@ -87,7 +106,11 @@ public class PropertySetExecutor extends AbstractExecutor.Set {
                     arg = Array.newInstance(componentType, 0);
                 }
             }
-            method.invoke(o, arg);
+            if (invoker != null) {
+                invoker.invoke(o, new Object[]{arg});
+            } else {
+                method.invoke(o, arg);
+            }
         }
         return arg;
     }
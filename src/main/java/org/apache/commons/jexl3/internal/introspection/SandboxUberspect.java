@@ -26,16 +26,42 @@ import org.apache.commons.jexl3.introspection.JexlUberspect;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
 
 /**
  * An uberspect that controls usage of properties, methods and constructors through a sandbox.
  * @since 3.0
  */
 public final class SandboxUberspect implements JexlUberspect {
+    /** The maximum number of names whose decision is kept per class and access kind. */
+    private static final int MAX_NAMES = 1024;
+    /** Marker for a name denied by the sandbox in the decision tables. */
+    private static final Object DENIED = new Object();
+    /** Marker for a name allowed as is by the sandbox in the decision tables. */
+    private static final Object ALLOWED = new Object();
     /** The base uberspect. */
     private final JexlUberspect uberspect;
     /**  The sandbox. */
     private final JexlSandbox sandbox;
+    /** The read decisions, per class and property name. */
+    private final ClassValue<Map<String, Object>> reads = new Decisions();
+    /** The write decisions, per class and property name. */
+    private final ClassValue<Map<String, Object>> writes = new Decisions();
+    /** The execute decisions, per class and method name. */
+    private final ClassValue<Map<String, Object>> executes = new Decisions();
+
+    /**
+     * The sandbox decisions for the names of a class.
+     * <p>The sandbox is a private copy that can not change; decisions are thus never stale.</p>
+     */
+    private static final class Decisions extends ClassValue<Map<String, Object>> {
+        @Override
+        protected Map<String, Object> computeValue(final Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    }
 
     /**
      * A constructor for JexlSandbox uberspect.
@@ -53,6 +79,39 @@ public final class SandboxUberspect implements JexlUberspect {
         this.sandbox = theSandbox.copy();
     }
 
+    /**
+     * Gets the sandbox decision for a name of a class, memoized.
+     * <p>Null names are not memoized.</p>
+     * @param decisions the decisions of the access kind
+     * @param clazz the class
+     * @param name the property or method name
+     * @param check the sandbox check of the access kind
+     * @return the name to use or null if denied
+     */
+    private static String decide(final ClassValue<Map<String, Object>> decisions,
+                                 final Class<?> clazz,
+                                 final String name,
+                                 final BiFunction<Class<?>, String, String> check) {
+        if (name == null) {
+            return check.apply(clazz, null);
+        }
+        final Map<String, Object> names = decisions.get(clazz);
+        Object actual = names.get(name);
+        if (actual == null) {
+            final String checked = check.apply(clazz, name);
+            // keep the name identity when allowed as is
+            actual = checked == null ? DENIED : eq(checked, name) ? ALLOWED : checked;
+            // property names may be map keys, do not grow without bounds
+            if (names.size() < MAX_NAMES) {
+                names.put(name, actual);
+            }
+        }
+        if (actual == DENIED) {
+            return null;
+        }
+        return actual == ALLOWED ? name : (String) actual;
+    }
+
     @Override
     public void setClassLoader(final ClassLoader loader) {
         uberspect.setClassLoader(loader);
@@ -77,7 +136,7 @@ public final class SandboxUberspect implements JexlUberspect {
     public JexlMethod getConstructor(final Object ctorHandle, final Object... args) {
         final String className;
         if (ctorHandle instanceof Class<?>) {
-            className = sandbox.execute((Class<?>) ctorHandle, "");
+            className = decide(executes, (Class<?>) ctorHandle, "", sandbox::execute);
         } else if (ctorHandle != null) {
             className = sandbox.execute(ctorHandle.toString(), "");
         } else {
@@ -90,7 +149,7 @@ public final class SandboxUberspect implements JexlUberspect {
     public JexlMethod getMethod(final Object obj, final String method, final Object... args) {
         if (obj != null && method != null) {
             final Class<?> clazz = (obj instanceof Class) ? (Class<?>) obj : obj.getClass();
-            final String actual = sandbox.execute(clazz, method);
+            final String actual = decide(executes, clazz, method, sandbox::execute);
             if (actual != null && actual != JexlSandbox.NULL) {
                 return uberspect.getMethod(obj, actual, args);
             }
@@ -127,7 +186,7 @@ public final class SandboxUberspect implements JexlUberspect {
             final Class<?> clazz = obj instanceof Class<?>? (Class<?>) obj : obj.getClass();
             if (identifier != null) {
                 final String property = identifier.toString();
-                final String actual = sandbox.read(clazz, property);
+                final String actual = decide(reads, clazz, property, sandbox::read);
                 if (actual != null) {
                     // no transformation, strict equality: use identifier before string conversion
                     final Object pty = eq(actual, property) ? identifier : actual;
@@ -157,7 +216,7 @@ public final class SandboxUberspect implements JexlUberspect {
             final Class<?> clazz = obj instanceof Class<?>? (Class<?>) obj : obj.getClass();
             if (identifier != null) {
                 final String property = identifier.toString();
-                final String actual = sandbox.write(clazz, property);
+                final String actual = decide(writes, clazz, property, sandbox::write);
                 if (actual != null) {
                     // no transformation, strict equality: use identifier before string conversion
                     final Object pty = eq(actual, property) ? identifier : actual;
@@ -60,6 +60,8 @@ public class Uberspect implements JexlUberspect {
     private final JexlUberspect.ResolverStrategy strategy;
     /** The permissions. */
     private final JexlPermissions permissions;
+    /** The introspection options. */
+    private final Set<Introspector.Option> options;
     /** The introspector version. */
     private final AtomicInteger version;
     /** The soft reference to the introspector currently in use. */
@@ -73,6 +75,15 @@ public class Uberspect implements JexlUberspect {
      * allowing a fail fast test during interpretation by avoiding seeking a method when there is none.
      */
     private final Map<Class<? extends JexlArithmetic>, Set<JexlOperator>> operatorMap;
+    /**
+     * The map from arithmetic classes to resolved operator methods.
+     * <p>
+     * Each arithmetic class maps the method keys - operator method name and operand classes - to the resolved
+     * operator method or to {@link #OPERATOR_MISS} when no overload applies.
+     */
+    private final Map<Class<? extends JexlArithmetic>, Map<MethodKey, Object>> operatorMethods;
+    /** Marker for operand classes that no operator overload applies to. */
+    private static final Object OPERATOR_MISS = new Object();
 
     /**
      * Creates a new Uberspect.
@@ -90,15 +101,48 @@ public class Uberspect implements JexlUberspect {
      * @param perms the introspector permissions
      */
     public Uberspect(final Log runtimeLogger, final JexlUberspect.ResolverStrategy sty, final JexlPermissions perms) {
+        this(runtimeLogger, sty, perms, null);
+    }
+
+    /**
+     * Creates a new Uberspect.
+     * @param runtimeLogger the logger used for all logging needs
+     * @param sty the resolver strategy
+     * @param perms the introspector permissions
+     * @param options the introspection options, may be null
+     * @since 3.3.1
+     */
+    public Uberspect(final Log runtimeLogger, final JexlUberspect.ResolverStrategy sty, final JexlPermissions perms,
+                     final Set<Introspector.Option> options) {
+        this.options = options == null || options.isEmpty()
+                ? EnumSet.noneOf(Introspector.Option.class)
+                : EnumSet.copyOf(options);
         logger = runtimeLogger == null? LogFactory.getLog(JexlEngine.class) : runtimeLogger;
         strategy = sty == null? JexlUberspect.JEXL_STRATEGY : sty;
         permissions = perms == null? JexlPermissions.RESTRICTED : perms;
         ref = new SoftReference<>(null);
         loader = new SoftReference<>(getClass().getClassLoader());
         operatorMap = new ConcurrentHashMap<>();
+        operatorMethods = new ConcurrentHashMap<>();
         version = new AtomicInteger(0);
     }
 
+    /**
+     * @return true if members are invoked through method handles, false if through reflection
+     * @since 3.3.1
+     */
+    public boolean isMethodHandles() {
+        return options.contains(Introspector.Option.METHOD_HANDLES);
+    }
+
+    /**
+     * @return true if class members are reflected when first looked up, false if when the class is introspected
+     * @since 3.3.1
+     */
+    public boolean isLazyIntrospection() {
+        return options.contains(Introspector.Option.LAZY_MAPS);
+    }
+
     /**
      * Gets the current introspector base.
      * <p>
@@ -113,7 +157,7 @@ public class Uberspect implements JexlUberspect {
             synchronized (this) {
                 intro = ref.get();
                 if (intro == null) {
-                    intro = new Introspector(logger, loader.get(), permissions);
+                    intro = new Introspector(logger, loader.get(), permissions, options);
                     ref = new SoftReference<>(intro);
                     loader = new SoftReference<>(intro.getLoader());
                     version.incrementAndGet();
@@ -131,11 +175,12 @@ public class Uberspect implements JexlUberspect {
             if (intro != null) {
                 intro.setLoader(nloader);
             } else {
-                intro = new Introspector(logger, nloader, permissions);
+                intro = new Introspector(logger, nloader, permissions, options);
                 ref = new SoftReference<>(intro);
             }
             loader = new SoftReference<>(intro.getLoader());
             operatorMap.clear();
+            operatorMethods.clear();
             version.incrementAndGet();
         }
     }
@@ -419,6 +464,8 @@ public class Uberspect implements JexlUberspect {
         private final JexlArithmetic arithmetic;
         /** The set of overloaded operators. */
         private final Set<JexlOperator> overloads;
+        /** The operator methods resolved for the arithmetic class. */
+        private final Map<MethodKey, Object> methods;
 
         /**
          * Creates an instance.
@@ -426,15 +473,48 @@ public class Uberspect implements JexlUberspect {
          * @param theOverloads  the overloaded operators
          */
         ArithmeticUberspect(final JexlArithmetic theArithmetic, final Set<JexlOperator> theOverloads) {
+            this(theArithmetic, theOverloads, new ConcurrentHashMap<>());
+        }
+
+        /**
+         * Creates an instance.
+         * @param theArithmetic the arithmetic instance
+         * @param theOverloads  the overloaded operators
+         * @param theMethods the operator methods resolved for the arithmetic class
+         */
+        ArithmeticUberspect(final JexlArithmetic theArithmetic,
+                            final Set<JexlOperator> theOverloads,
+                            final Map<MethodKey, Object> theMethods) {
             this.arithmetic = theArithmetic;
             this.overloads = theOverloads;
+            this.methods = theMethods;
         }
 
         @Override
         public JexlMethod getOperator(final JexlOperator operator, final Object... args) {
-            return overloads.contains(operator) && args != null
-                   ? getMethod(arithmetic, operator.getMethodName(), args)
-                   : null;
+            if (!overloads.contains(operator) || args == null) {
+                return null;
+            }
+            // resolve once per operand classes, including when there is no applicable overload
+            final MethodKey key = new MethodKey(operator.getMethodName(), args);
+            Object method = methods.get(key);
+            if (method == null) {
+                final JexlMethod vm = getMethod(arithmetic, operator.getMethodName(), args);
+                // the base arithmetic methods are not overloads
+                method = vm == null || isBaseArithmetic(vm) ? OPERATOR_MISS : vm;
+                methods.put(key, method);
+            }
+            return method != OPERATOR_MISS ? (JexlMethod) method : null;
+        }
+
+        /**
+         * Checks whether a method is declared by the base arithmetic class.
+         * @param vm the method
+         * @return true if declared by JexlArithmetic, false otherwise
+         */
+        private boolean isBaseArithmetic(final JexlMethod vm) {
+            return vm instanceof MethodExecutor
+                   && JexlArithmetic.class.equals(((MethodExecutor) vm).getMethod().getDeclaringClass());
         }
 
         @Override
@@ -479,7 +559,9 @@ public class Uberspect implements JexlUberspect {
                 // register this arithmetic class in the operator map
                 operatorMap.put(aclass, ops);
             }
-            jau = new ArithmeticUberspect(arithmetic, ops);
+            final Map<MethodKey, Object> methods = operatorMethods.computeIfAbsent(aclass,
+                    k -> new ConcurrentHashMap<>());
+            jau = new ArithmeticUberspect(arithmetic, ops, methods);
         }
         return jau;
     }
@@ -33,6 +33,8 @@ public class ASTJexlScript extends JexlLexicalNode  {
     private transient JexlFeatures features = null;
     /** The script scope. */
     private transient Scope scope = null;
+    /** The compiled code, shared by all the scripts using this tree. */
+    private transient volatile Object code = null;
 
     public ASTJexlScript(final int id) {
         super(id);
@@ -90,6 +92,21 @@ public class ASTJexlScript extends JexlLexicalNode  {
         return features;
     }
 
+    /**
+     * Sets the compiled code of this script.
+     * @param theCode the code
+     */
+    public void setCode(final Object theCode) {
+        this.code = theCode;
+    }
+
+    /**
+     * @return the compiled code of this script, null if not compiled yet
+     */
+    public Object getCode() {
+        return code;
+    }
+
     /**
      * Sets this script scope.
      * @param theScope the scope
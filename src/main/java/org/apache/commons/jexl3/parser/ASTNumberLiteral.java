@@ -57,6 +57,15 @@ public final class ASTNumberLiteral extends JexlNode implements JexlNode.Constan
         return nlp.isInteger();
     }
 
+    /**
+     * Sets this node literal.
+     * @param type the literal class
+     * @param value the literal value
+     */
+    void setLiteral(final Class<? extends Number> type, final Number value) {
+        nlp.assignLiteral(type, value);
+    }
+
     /**
      * Sets this node as a natural literal.
      * Originally from OGNL.
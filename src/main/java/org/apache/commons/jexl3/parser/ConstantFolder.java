@@ -0,0 +1,328 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3.parser;
+
+import org.apache.commons.jexl3.JexlArithmetic;
+
+/**
+ * Folds the constant sub-trees of a script.
+ * <p>Arithmetic, comparison and logical operators whose operands are all literals are replaced by the literal
+ * of their value; conditional expressions and if statements whose condition is a boolean literal are replaced
+ * by the branch they would evaluate.</p>
+ * <p>Folding is only correct for the stock {@link JexlArithmetic}: there are no operator overloads and
+ * the folded operations - integer, long and double arithmetic, string concatenation, boolean logic - do not
+ * depend on the arithmetic options. Operations that fail, like a division by zero, or whose
+ * result is not representable by a literal are left in the tree and still evaluated at runtime.</p>
+ * @since 3.3.1
+ */
+public final class ConstantFolder {
+    /** Marker for non-constant values. */
+    private static final Object NOT_CONSTANT = new Object();
+
+    /** The arithmetic used to evaluate constant operations. */
+    private final JexlArithmetic arithmetic = new JexlArithmetic(true);
+
+    /** Use {@link #fold(ASTJexlScript)}. */
+    private ConstantFolder() {}
+
+    /**
+     * Checks whether scripts evaluated with an arithmetic can be folded.
+     * @param arithmetic the arithmetic
+     * @return true if the arithmetic is the stock one, false otherwise
+     */
+    public static boolean isFoldable(final JexlArithmetic arithmetic) {
+        return arithmetic != null && arithmetic.getClass() == JexlArithmetic.class;
+    }
+
+    /**
+     * Folds the constant sub-trees of a script, in place.
+     * @param script the script
+     * @return the script
+     */
+    public static ASTJexlScript fold(final ASTJexlScript script) {
+        new ConstantFolder().foldChildren(script);
+        return script;
+    }
+
+    /**
+     * Folds the children of a node, replacing them when they fold.
+     * @param node the node
+     */
+    private void foldChildren(final JexlNode node) {
+        final int numChildren = node.jjtGetNumChildren();
+        for (int i = 0; i < numChildren; ++i) {
+            final JexlNode child = node.jjtGetChild(i);
+            final JexlNode folded = fold(child);
+            if (folded != child) {
+                node.jjtAddChild(folded, i);
+                folded.jjtSetParent(node);
+            }
+        }
+    }
+
+    /**
+     * Folds a node.
+     * @param node the node
+     * @return the folded node or the node itself
+     */
+    private JexlNode fold(final JexlNode node) {
+        foldChildren(node);
+        try {
+            if (node instanceof ASTIfStatement) {
+                return foldIf((ASTIfStatement) node);
+            }
+            if (node instanceof ASTTernaryNode) {
+                return foldTernary((ASTTernaryNode) node);
+            }
+            if (node instanceof ASTReferenceExpression) {
+                // a parenthesized constant, unless it is the head of a member access
+                if (node.jjtGetParent() instanceof ASTReference) {
+                    return node;
+                }
+                final Object value = constant(node);
+                return value != NOT_CONSTANT ? literal(node, value) : node;
+            }
+            final Object value = evaluate(node);
+            return value != NOT_CONSTANT ? literal(node, value) : node;
+        } catch (final ArithmeticException | UnsupportedOperationException xany) {
+            // let the interpreter report the error at runtime
+            return node;
+        }
+    }
+
+    /**
+     * Gets the constant value of a node.
+     * @param node the node
+     * @return the constant value or NOT_CONSTANT
+     */
+    private static Object constant(final JexlNode node) {
+        if (node instanceof ASTReferenceExpression && node.jjtGetNumChildren() == 1) {
+            return constant(node.jjtGetChild(0));
+        }
+        if (node instanceof ASTNumberLiteral) {
+            final Object value = ((ASTNumberLiteral) node).getLiteral();
+            return isNumber(value) ? value : NOT_CONSTANT;
+        }
+        if (node instanceof ASTStringLiteral) {
+            return ((ASTStringLiteral) node).getLiteral();
+        }
+        if (node instanceof ASTTrueNode) {
+            return Boolean.TRUE;
+        }
+        if (node instanceof ASTFalseNode) {
+            return Boolean.FALSE;
+        }
+        return NOT_CONSTANT;
+    }
+
+    /**
+     * Checks whether a value is a number whose operations are independent of the arithmetic options.
+     * @param value the value
+     * @return true if an Integer, a Long or a Double
+     */
+    private static boolean isNumber(final Object value) {
+        if (value == null) {
+            return false;
+        }
+        final Class<?> clazz = value.getClass();
+        return clazz == Integer.class || clazz == Long.class || clazz == Double.class;
+    }
+
+    /**
+     * Evaluates an operator node whose operands are constant.
+     * @param node the node
+     * @return the value or NOT_CONSTANT
+     */
+    private Object evaluate(final JexlNode node) {
+        if (node instanceof ASTNotNode) {
+            final Object value = constant(node.jjtGetChild(0));
+            return value instanceof Boolean ? arithmetic.not(value) : NOT_CONSTANT;
+        }
+        if (node instanceof ASTUnaryMinusNode) {
+            final JexlNode child = node.jjtGetChild(0);
+            final Object value = constant(child);
+            if (isNumber(value) && child instanceof ASTNumberLiteral) {
+                final Class<? extends Number> clazz = ((ASTNumberLiteral) child).getLiteralClass();
+                return arithmetic.narrowNumber((Number) arithmetic.negate(value), clazz);
+            }
+            return NOT_CONSTANT;
+        }
+        if (node.jjtGetNumChildren() != 2) {
+            return NOT_CONSTANT;
+        }
+        final Object left = constant(node.jjtGetChild(0));
+        if (left == NOT_CONSTANT) {
+            return NOT_CONSTANT;
+        }
+        if (node instanceof ASTAndNode && Boolean.FALSE.equals(left)) {
+            return Boolean.FALSE;
+        }
+        if (node instanceof ASTOrNode && Boolean.TRUE.equals(left)) {
+            return Boolean.TRUE;
+        }
+        final Object right = constant(node.jjtGetChild(1));
+        if (right == NOT_CONSTANT) {
+            return NOT_CONSTANT;
+        }
+        if (left instanceof Boolean && right instanceof Boolean) {
+            if (node instanceof ASTAndNode || node instanceof ASTOrNode) {
+                return right;
+            }
+            if (node instanceof ASTEQNode) {
+                return left.equals(right);
+            }
+            if (node instanceof ASTNENode) {
+                return !left.equals(right);
+            }
+            return NOT_CONSTANT;
+        }
+        if (left instanceof String && right instanceof String) {
+            return node instanceof ASTAddNode ? arithmetic.add(left, right) : NOT_CONSTANT;
+        }
+        if (isNumber(left) && isNumber(right)) {
+            return evaluate(node, left, right);
+        }
+        return NOT_CONSTANT;
+    }
+
+    /**
+     * Evaluates a numeric operator.
+     * @param node the operator node
+     * @param left the left operand
+     * @param right the right operand
+     * @return the value or NOT_CONSTANT
+     */
+    private Object evaluate(final JexlNode node, final Object left, final Object right) {
+        if (node instanceof ASTAddNode) {
+            return arithmetic.add(left, right);
+        }
+        if (node instanceof ASTSubNode) {
+            return arithmetic.subtract(left, right);
+        }
+        if (node instanceof ASTMulNode) {
+            return arithmetic.multiply(left, right);
+        }
+        if (node instanceof ASTDivNode) {
+            return arithmetic.divide(left, right);
+        }
+        if (node instanceof ASTModNode) {
+            return arithmetic.mod(left, right);
+        }
+        if (node instanceof ASTEQNode) {
+            return arithmetic.equals(left, right);
+        }
+        if (node instanceof ASTNENode) {
+            return !arithmetic.equals(left, right);
+        }
+        if (node instanceof ASTLTNode) {
+            return arithmetic.lessThan(left, right);
+        }
+        if (node instanceof ASTLENode) {
+            return arithmetic.lessThanOrEqual(left, right);
+        }
+        if (node instanceof ASTGTNode) {
+            return arithmetic.greaterThan(left, right);
+        }
+        if (node instanceof ASTGENode) {
+            return arithmetic.greaterThanOrEqual(left, right);
+        }
+        return NOT_CONSTANT;
+    }
+
+    /**
+     * Creates the literal node of a value.
+     * @param node the folded node
+     * @param value the value
+     * @return the literal node or the folded node if the value has no literal
+     */
+    private static JexlNode literal(final JexlNode node, final Object value) {
+        final JexlNode literal;
+        if (value instanceof Boolean) {
+            literal = (Boolean) value
+                ? new ASTTrueNode(ParserTreeConstants.JJTTRUENODE)
+                : new ASTFalseNode(ParserTreeConstants.JJTFALSENODE);
+        } else if (value instanceof String) {
+            final ASTStringLiteral string = new ASTStringLiteral(ParserTreeConstants.JJTSTRINGLITERAL);
+            string.setLiteral((String) value);
+            literal = string;
+        } else if (isNumber(value) && !Double.isInfinite(((Number) value).doubleValue())
+                   && !Double.isNaN(((Number) value).doubleValue())) {
+            final ASTNumberLiteral number = new ASTNumberLiteral(ParserTreeConstants.JJTNUMBERLITERAL);
+            number.setLiteral(((Number) value).getClass(), (Number) value);
+            literal = number;
+        } else {
+            return node;
+        }
+        literal.setLineColumn(node.getLineColumn());
+        return literal;
+    }
+
+    /**
+     * Folds a conditional expression whose condition is a boolean literal.
+     * @param node the conditional node
+     * @return the evaluated branch or the node itself
+     */
+    private static JexlNode foldTernary(final ASTTernaryNode node) {
+        if (node.jjtGetNumChildren() == 3) {
+            final Object condition = constant(node.jjtGetChild(0));
+            if (condition instanceof Boolean) {
+                return node.jjtGetChild((Boolean) condition ? 1 : 2);
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Prunes the branches of an if statement whose conditions are boolean literals.
+     * <p>Pairs of condition and statement whose condition is false are removed; the statement of
+     * a true condition replaces the remaining branches. An if statement that can not execute
+     * any branch becomes the null literal, its value.</p>
+     * @param node the if statement
+     * @return the pruned statement
+     */
+    private static JexlNode foldIf(final ASTIfStatement node) {
+        final int numChildren = node.jjtGetNumChildren();
+        int ifElse = 0;
+        // skip false conditions
+        while (ifElse < numChildren - 1 && Boolean.FALSE.equals(constant(node.jjtGetChild(ifElse)))) {
+            ifElse += 2;
+        }
+        if (ifElse < numChildren - 1 && Boolean.TRUE.equals(constant(node.jjtGetChild(ifElse)))) {
+            return node.jjtGetChild(ifElse + 1);
+        }
+        if (ifElse == 0) {
+            return node;
+        }
+        if (ifElse >= numChildren) {
+            final JexlNode none = new ASTNullLiteral(ParserTreeConstants.JJTNULLLITERAL);
+            none.setLineColumn(node.getLineColumn());
+            return none;
+        }
+        if (ifElse == numChildren - 1) {
+            // only the else statement remains
+            return node.jjtGetChild(ifElse);
+        }
+        final ASTIfStatement pruned = new ASTIfStatement(ParserTreeConstants.JJTIFSTATEMENT);
+        pruned.setLineColumn(node.getLineColumn());
+        for (int i = ifElse; i < numChildren; ++i) {
+            final JexlNode child = node.jjtGetChild(i);
+            pruned.jjtAddChild(child, i - ifElse);
+            child.jjtSetParent(pruned);
+        }
+        return pruned;
+    }
+}
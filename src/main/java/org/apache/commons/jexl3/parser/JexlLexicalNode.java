@@ -68,6 +68,14 @@ public abstract class JexlLexicalNode extends JexlNode implements JexlParser.Lex
         return lexicalScope;
     }
 
+    /**
+     * Sets the lexical scope.
+     * @param scope the scope
+     */
+    void setLexicalScope(final LexicalScope scope) {
+        lexicalScope = scope;
+    }
+
     @Override
     public void jjtClose() {
 
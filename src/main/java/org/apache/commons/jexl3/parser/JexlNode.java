@@ -65,6 +65,21 @@ public abstract class JexlNode extends SimpleNode {
         return this.lc >>> 0xc;
     }
 
+    /**
+     * @return the encoded line and column
+     */
+    int getLineColumn() {
+        return this.lc;
+    }
+
+    /**
+     * Sets the encoded line and column.
+     * @param encoded the line and column as encoded by {@link #jjtSetFirstToken(Token)}
+     */
+    void setLineColumn(final int encoded) {
+        this.lc = encoded;
+    }
+
     public int getColumn() {
         return this.lc & 0xfff;
     }
@@ -99,6 +114,12 @@ public abstract class JexlNode extends SimpleNode {
      */
     public interface Funcall {}
 
+    /**
+     * Marker interface for caches of executors.
+     * @since 3.3.1
+     */
+    public interface ExecutorCache {}
+
     /**
      * Clears any cached value of type JexlProperty{G,S}et or JexlMethod.
      * <p>
@@ -111,6 +132,7 @@ public abstract class JexlNode extends SimpleNode {
             || value instanceof JexlPropertySet
             || value instanceof JexlMethod
             || value instanceof Funcall
+            || value instanceof ExecutorCache
             || value instanceof Class  ) {
             jjtSetValue(null);
         }
@@ -62,6 +62,18 @@ public final class NumberParser implements Serializable {
     }
 
 
+    /**
+     * Sets this parser literal.
+     * @param type the expected class
+     * @param value the literal value
+     * @return this parser instance
+     */
+    NumberParser assignLiteral(final Class<? extends Number> type, final Number value) {
+        literal = value;
+        clazz = type;
+        return this;
+    }
+
     Class<? extends Number> getLiteralClass() {
         return clazz;
     }
@@ -0,0 +1,483 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3.parser;
+
+import org.apache.commons.jexl3.JexlInfo;
+import org.apache.commons.jexl3.internal.LexicalScope;
+import org.apache.commons.jexl3.internal.Scope;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Writes and reads script trees in a compact binary form.
+ * <p>Each node is written as its type identifier, its encoded line and column, its type specific
+ * properties (names, symbols, literals, lexical scopes, script scopes and pragmas) and its children.
+ * Scopes are written once and referenced by their index afterwards so lambdas keep sharing their parent scope.
+ * The root script information (name, line, column) is written first.</p>
+ * <p>The node type identifiers are those of the parser that produced the tree; a tree can only be read
+ * by the same version of JEXL.</p>
+ * <p>The features are not written, they belong to the engine that parsed the script.</p>
+ * @since 3.3.1
+ */
+public final class TreeSerializer {
+    /** The null value tag. */
+    private static final byte NULL = 0;
+    /** The string value tag. */
+    private static final byte STRING = 1;
+    /** The boolean value tag. */
+    private static final byte BOOLEAN = 2;
+    /** The integer value tag. */
+    private static final byte INTEGER = 3;
+    /** The long value tag. */
+    private static final byte LONG = 4;
+    /** The big integer value tag. */
+    private static final byte BIGINTEGER = 5;
+    /** The float value tag. */
+    private static final byte FLOAT = 6;
+    /** The double value tag. */
+    private static final byte DOUBLE = 7;
+    /** The big decimal value tag. */
+    private static final byte BIGDECIMAL = 8;
+    /** The set value tag. */
+    private static final byte SET = 9;
+    /** The number classes, indexed by tag. */
+    private static final Class<?>[] NUMBERS = {
+        null, null, null,
+        Integer.class, Long.class, BigInteger.class, Float.class, Double.class, BigDecimal.class
+    };
+    /** The null scope marker. */
+    private static final int NO_SCOPE = -1;
+    /** The new scope marker. */
+    private static final int NEW_SCOPE = -2;
+    /** The node constructors, indexed by node type identifier. */
+    private static final Constructor<?>[] CTORS = new Constructor<?>[ParserTreeConstants.jjtNodeName.length];
+
+    /** The scopes already written. */
+    private final Map<Scope, Integer> written = new IdentityHashMap<>();
+    /** The scopes already read. */
+    private final List<Scope> read = new ArrayList<>();
+
+    /** Use the static methods. */
+    private TreeSerializer() {}
+
+    /**
+     * Writes a script tree.
+     * @param script the script
+     * @param out the output
+     * @throws IOException if writing fails or the tree contains an unsupported pragma value
+     */
+    public static void write(final ASTJexlScript script, final DataOutput out) throws IOException {
+        final Object value = script.jjtGetValue();
+        if (value instanceof JexlInfo) {
+            final JexlInfo info = (JexlInfo) value;
+            out.writeBoolean(true);
+            writeString(out, info.getName());
+            out.writeInt(info.getLine());
+            out.writeInt(info.getColumn());
+        } else {
+            out.writeBoolean(false);
+        }
+        new TreeSerializer().writeNode(script, out);
+    }
+
+    /**
+     * Reads a script tree.
+     * @param in the input
+     * @return the script
+     * @throws IOException if reading fails or the input is not a valid tree
+     */
+    public static ASTJexlScript read(final DataInput in) throws IOException {
+        JexlInfo info = null;
+        if (in.readBoolean()) {
+            final String name = readString(in);
+            final int line = in.readInt();
+            final int column = in.readInt();
+            info = new JexlInfo(name, line, column);
+        }
+        final JexlNode node = new TreeSerializer().readNode(in);
+        if (!(node instanceof ASTJexlScript)) {
+            throw new IOException("not a script: " + node.getClass().getSimpleName());
+        }
+        if (info != null) {
+            node.jjtSetValue(info);
+        }
+        return (ASTJexlScript) node;
+    }
+
+    /**
+     * Writes a node and its descendants.
+     * @param node the node
+     * @param out the output
+     * @throws IOException if writing fails
+     */
+    private void writeNode(final JexlNode node, final DataOutput out) throws IOException {
+        out.writeShort(node.id);
+        out.writeInt(node.getLineColumn());
+        if (node instanceof ASTIdentifier) {
+            final ASTIdentifier identifier = (ASTIdentifier) node;
+            writeString(out, identifier.getNamespace());
+            writeString(out, identifier.name);
+            out.writeInt(identifier.symbol);
+            out.writeInt(identifier.flags);
+        } else if (node instanceof ASTIdentifierAccess) {
+            writeString(out, ((ASTIdentifierAccess) node).getName());
+        } else if (node instanceof ASTAnnotation) {
+            writeString(out, ((ASTAnnotation) node).getName());
+        } else if (node instanceof ASTQualifiedIdentifier) {
+            writeString(out, ((ASTQualifiedIdentifier) node).getName());
+        } else if (node instanceof ASTStringLiteral) {
+            writeString(out, ((ASTStringLiteral) node).getLiteral());
+        } else if (node instanceof ASTJxltLiteral) {
+            writeString(out, ((ASTJxltLiteral) node).getLiteral());
+        } else if (node instanceof ASTRegexLiteral) {
+            final ASTRegexLiteral regex = (ASTRegexLiteral) node;
+            writeString(out, regex.getLiteral() != null ? regex.getLiteral().pattern() : null);
+        } else if (node instanceof ASTNumberLiteral) {
+            final ASTNumberLiteral number = (ASTNumberLiteral) node;
+            out.writeByte(numberTag(number.getLiteralClass()));
+            writeValue(out, number.getLiteral());
+        }
+        if (node instanceof JexlLexicalNode) {
+            final LexicalScope lexical = ((JexlLexicalNode) node).getLexicalScope();
+            out.writeBoolean(lexical != null);
+            if (lexical != null) {
+                lexical.write(out);
+            }
+            if (node instanceof ASTForeachStatement) {
+                out.writeInt(((ASTForeachStatement) node).getLoopForm());
+            } else if (node instanceof ASTJexlScript) {
+                final ASTJexlScript script = (ASTJexlScript) node;
+                writeScope(script.getScope(), out);
+                final Map<String, Object> pragmas = script.getPragmas();
+                if (pragmas == null) {
+                    out.writeInt(-1);
+                } else {
+                    out.writeInt(pragmas.size());
+                    for (final Map.Entry<String, Object> pragma : pragmas.entrySet()) {
+                        writeString(out, pragma.getKey());
+                        writeValue(out, pragma.getValue());
+                    }
+                }
+            }
+        }
+        final int count = node.jjtGetNumChildren();
+        out.writeInt(count);
+        for (int c = 0; c < count; ++c) {
+            writeNode(node.jjtGetChild(c), out);
+        }
+    }
+
+    /**
+     * Reads a node and its descendants.
+     * @param in the input
+     * @return the node
+     * @throws IOException if reading fails
+     */
+    private JexlNode readNode(final DataInput in) throws IOException {
+        final JexlNode node = createNode(in.readShort());
+        node.setLineColumn(in.readInt());
+        if (node instanceof ASTIdentifier) {
+            final ASTIdentifier identifier = (ASTIdentifier) node;
+            final String namespace = readString(in);
+            final String name = readString(in);
+            if (node instanceof ASTNamespaceIdentifier) {
+                ((ASTNamespaceIdentifier) node).setNamespace(namespace, name);
+            } else {
+                identifier.name = name;
+            }
+            identifier.symbol = in.readInt();
+            identifier.flags = in.readInt();
+        } else if (node instanceof ASTIdentifierAccess) {
+            ((ASTIdentifierAccess) node).setIdentifier(readString(in));
+        } else if (node instanceof ASTAnnotation) {
+            ((ASTAnnotation) node).setName(readString(in));
+        } else if (node instanceof ASTQualifiedIdentifier) {
+            ((ASTQualifiedIdentifier) node).setName(readString(in));
+        } else if (node instanceof ASTStringLiteral) {
+            ((ASTStringLiteral) node).setLiteral(readString(in));
+        } else if (node instanceof ASTJxltLiteral) {
+            ((ASTJxltLiteral) node).setLiteral(readString(in));
+        } else if (node instanceof ASTRegexLiteral) {
+            final String pattern = readString(in);
+            if (pattern != null) {
+                ((ASTRegexLiteral) node).setLiteral(pattern);
+            }
+        } else if (node instanceof ASTNumberLiteral) {
+            final int tag = in.readByte();
+            @SuppressWarnings("unchecked")
+            final Class<? extends Number> type = tag > 0 && tag < NUMBERS.length
+                    ? (Class<? extends Number>) NUMBERS[tag]
+                    : null;
+            ((ASTNumberLiteral) node).setLiteral(type, (Number) readValue(in));
+        }
+        if (node instanceof JexlLexicalNode) {
+            if (in.readBoolean()) {
+                ((JexlLexicalNode) node).setLexicalScope(LexicalScope.read(in));
+            }
+            if (node instanceof ASTForeachStatement) {
+                ((ASTForeachStatement) node).setLoopForm(in.readInt());
+            } else if (node instanceof ASTJexlScript) {
+                final ASTJexlScript script = (ASTJexlScript) node;
+                // the parameters are already declared in the lexical scope, this is idempotent
+                script.setScope(readScope(in));
+                final int count = in.readInt();
+                if (count >= 0) {
+                    final Map<String, Object> pragmas = new TreeMap<>();
+                    for (int p = 0; p < count; ++p) {
+                        final String key = readString(in);
+                        pragmas.put(key, readValue(in));
+                    }
+                    script.setPragmas(pragmas.isEmpty()
+                            ? Collections.emptyMap()
+                            : Collections.unmodifiableMap(pragmas));
+                }
+            }
+        }
+        final int count = in.readInt();
+        if (count > 0) {
+            final JexlNode[] children = new JexlNode[count];
+            for (int c = 0; c < count; ++c) {
+                final JexlNode child = readNode(in);
+                child.jjtSetParent(node);
+                children[c] = child;
+            }
+            node.jjtSetChildren(children);
+        }
+        // as the parser does, lets the node compute its properties from its children
+        node.jjtClose();
+        return node;
+    }
+
+    /**
+     * Creates a node from its type identifier.
+     * @param id the node type identifier
+     * @return the node instance
+     * @throws IOException if the identifier is invalid or the node can not be created
+     */
+    private static JexlNode createNode(final int id) throws IOException {
+        if (id < 0 || id >= CTORS.length) {
+            throw new IOException("invalid node identifier " + id);
+        }
+        try {
+            Constructor<?> ctor = CTORS[id];
+            if (ctor == null) {
+                final String name = TreeSerializer.class.getPackage().getName()
+                        + ".AST" + ParserTreeConstants.jjtNodeName[id];
+                final Class<?> clazz = Class.forName(name, false, TreeSerializer.class.getClassLoader());
+                if (!JexlNode.class.isAssignableFrom(clazz)) {
+                    throw new IOException("invalid node class " + name);
+                }
+                ctor = clazz.getDeclaredConstructor(int.class);
+                CTORS[id] = ctor;
+            }
+            return (JexlNode) ctor.newInstance(id);
+        } catch (final ReflectiveOperationException xreflect) {
+            throw new IOException("unable to create node " + id, xreflect);
+        }
+    }
+
+    /**
+     * Writes a scope, only its index if it was already written.
+     * @param scope the scope
+     * @param out the output
+     * @throws IOException if writing fails
+     */
+    private void writeScope(final Scope scope, final DataOutput out) throws IOException {
+        if (scope == null) {
+            out.writeInt(NO_SCOPE);
+            return;
+        }
+        final Integer index = written.get(scope);
+        if (index != null) {
+            out.writeInt(index);
+            return;
+        }
+        // a new scope: its parent, then its content; its index is its order of appearance
+        out.writeInt(NEW_SCOPE);
+        writeScope(scope.getParent(), out);
+        written.put(scope, written.size());
+        scope.write(out);
+    }
+
+    /**
+     * Reads a scope.
+     * @param in the input
+     * @return the scope
+     * @throws IOException if reading fails
+     */
+    private Scope readScope(final DataInput in) throws IOException {
+        final int index = in.readInt();
+        if (index == NO_SCOPE) {
+            return null;
+        }
+        if (index == NEW_SCOPE) {
+            final Scope parent = readScope(in);
+            final Scope scope = Scope.read(parent, in);
+            read.add(scope);
+            return scope;
+        }
+        if (index < 0 || index >= read.size()) {
+            throw new IOException("invalid scope index " + index);
+        }
+        return read.get(index);
+    }
+
+    /**
+     * Gets the tag of a number class.
+     * @param clazz the class
+     * @return the tag, NULL if unknown
+     */
+    private static byte numberTag(final Class<?> clazz) {
+        for (byte tag = INTEGER; tag <= BIGDECIMAL; ++tag) {
+            if (NUMBERS[tag].equals(clazz)) {
+                return tag;
+            }
+        }
+        return NULL;
+    }
+
+    /**
+     * Writes a literal or pragma value.
+     * @param out the output
+     * @param value the value
+     * @throws IOException if writing fails or the value type is not supported
+     */
+    private static void writeValue(final DataOutput out, final Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof BigInteger) {
+            out.writeByte(BIGINTEGER);
+            writeString(out, value.toString());
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(BIGDECIMAL);
+            writeString(out, value.toString());
+        } else if (value instanceof Set<?>) {
+            final Set<?> set = (Set<?>) value;
+            out.writeByte(SET);
+            out.writeInt(set.size());
+            for (final Object item : set) {
+                writeValue(out, item);
+            }
+        } else {
+            throw new IOException("unsupported value type " + value.getClass().getName());
+        }
+    }
+
+    /**
+     * Reads a literal or pragma value.
+     * @param in the input
+     * @return the value
+     * @throws IOException if reading fails or the value type is not supported
+     */
+    private static Object readValue(final DataInput in) throws IOException {
+        final byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case BOOLEAN:
+                return in.readBoolean();
+            case INTEGER:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case BIGINTEGER:
+                return new BigInteger(readString(in));
+            case FLOAT:
+                return in.readFloat();
+            case DOUBLE:
+                return in.readDouble();
+            case BIGDECIMAL:
+                return new BigDecimal(readString(in));
+            case SET: {
+                final int size = in.readInt();
+                final Set<Object> set = new LinkedHashSet<>();
+                for (int i = 0; i < size; ++i) {
+                    set.add(readValue(in));
+                }
+                return set;
+            }
+            default:
+                throw new IOException("invalid value tag " + tag);
+        }
+    }
+
+    /**
+     * Writes a string of any length.
+     * @param out the output
+     * @param str the string, may be null
+     * @throws IOException if writing fails
+     */
+    private static void writeString(final DataOutput out, final String str) throws IOException {
+        if (str == null) {
+            out.writeInt(-1);
+        } else {
+            final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(DataOutput, String)}.
+     * @param in the input
+     * @return the string, may be null
+     * @throws IOException if reading fails
+     */
+    private static String readString(final DataInput in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
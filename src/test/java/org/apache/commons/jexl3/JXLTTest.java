@@ -623,6 +623,138 @@ public class JXLTTest extends JexlTestCase {
         Assert.assertEquals("froboz{42}", writer.toString());
     }
 
+    public static class NumberWriter extends FrobozWriter {
+        public NumberWriter(final Writer w) {
+            super(w);
+        }
+
+        public void print(final Integer i) {
+            super.print("#");
+            super.print(i.intValue());
+        }
+    }
+
+    @Test
+    public void testPrintDispatch() throws Exception {
+        final JxltEngine.Template t = JXLT.createTemplate("$$",
+            new StringReader("$$ for (var x : list) {\n${x};\n$$ }\n"), "list");
+        final List<Object> list = Arrays.asList(1, new Froboz(2), 3, 4L, 5.5d, true, new Froboz(6), 'c');
+        for (int i = 0; i < 2; ++i) {
+            final Writer writer = new NumberWriter(new StringWriter());
+            t.evaluate(context, writer, list);
+            Assert.assertEquals("#1;\nfroboz{2};\n#3;\n4;\n5.5;\ntrue;\nfroboz{6};\nc;\n", writer.toString());
+            final StringWriter strw = new StringWriter();
+            t.evaluate(context, strw, list);
+            Assert.assertTrue(strw.toString().startsWith("1;\n"));
+            Assert.assertTrue(strw.toString().endsWith(";\n4;\n5.5;\ntrue;\n"
+                + list.get(6) + ";\nc;\n"));
+        }
+    }
+
+    @Test
+    public void testTemplateCache() throws Exception {
+        final String src = "$$ var x = 1;\nHello ${user} ${x}\n";
+        final JxltEngine.Template t0 = JXLT.createTemplate(src);
+        Assert.assertSame(t0, JXLT.createTemplate("$$", new StringReader(src)));
+        Assert.assertNotSame(t0, JXLT.createTemplate(src, "user"));
+        Assert.assertSame(JXLT.createTemplate(src, "user"), JXLT.createTemplate(src, "user"));
+        Assert.assertNotSame(t0, JXLT.createTemplate("##", new StringReader(src)));
+        JXLT.clearCache();
+        Assert.assertNotSame(t0, JXLT.createTemplate(src));
+        // the name is part of the key
+        final JxltEngine.Template named = JXLT.createTemplate(new JexlInfo("hello", 1, 1), src);
+        Assert.assertSame(named, JXLT.createTemplate(new JexlInfo("hello", 1, 1), src));
+        Assert.assertNotSame(named, JXLT.createTemplate(src));
+        Assert.assertNotSame(named, JXLT.createTemplate(new JexlInfo("bye", 1, 1), src));
+        // preloading
+        final java.nio.file.Path dir = java.nio.file.Files.createTempDirectory("jxlt");
+        try {
+            final java.nio.file.Path file = dir.resolve("hello.jxlt");
+            java.nio.file.Files.write(file, src.getBytes(ENGINE.getCharset()));
+            JXLT.clearCache();
+            Assert.assertEquals(1, JXLT.preload(dir, "$$", "user"));
+            final JxltEngine.Template t1 = JXLT.createTemplate(null, "$$", file, "user");
+            Assert.assertSame(t1, JXLT.createTemplate(null, "$$", file, "user"));
+            // same name and source through a reader
+            final JexlInfo info = new JexlInfo(file.toString(), 1, 1);
+            Assert.assertSame(t1, JXLT.createTemplate(info, "$$", new StringReader(src), "user"));
+            Assert.assertNotSame(t1, JXLT.createTemplate(src, "user"));
+            final StringWriter strw = new StringWriter();
+            t1.evaluate(context, strw, "world");
+            Assert.assertEquals("Hello world 1\n", strw.toString());
+        } finally {
+            java.nio.file.Files.delete(dir.resolve("hello.jxlt"));
+            java.nio.file.Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void testBaseFileTemplate() throws Exception {
+        // a template engine only implementing the abstract methods
+        final JxltEngine base = new JxltEngine() {
+            @Override
+            public Expression createExpression(final JexlInfo info, final String expression) {
+                return JXLT.createExpression(info, expression);
+            }
+
+            @Override
+            public Template createTemplate(final JexlInfo info, final String prefix, final java.io.Reader source,
+                                           final String... parms) {
+                return JXLT.createTemplate(info, prefix, source, parms);
+            }
+
+            @Override
+            public JexlEngine getEngine() {
+                return JXLT.getEngine();
+            }
+
+            @Override
+            public void clearCache() {
+                JXLT.clearCache();
+            }
+        };
+        final String src = "$$ var x = 1;\nHello ${user} ${x}\n";
+        final java.nio.file.Path dir = java.nio.file.Files.createTempDirectory("jxlt");
+        final java.nio.file.Path file = dir.resolve("hello.jxlt");
+        try {
+            java.nio.file.Files.write(file, src.getBytes(ENGINE.getCharset()));
+            Assert.assertEquals(1, base.preload(dir, "$$", "user"));
+            final JxltEngine.Template template = base.createTemplate(null, "$$", file, "user");
+            final StringWriter strw = new StringWriter();
+            template.evaluate(context, strw, "world");
+            Assert.assertEquals("Hello world 1\n", strw.toString());
+        } finally {
+            java.nio.file.Files.delete(file);
+            java.nio.file.Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void testFileTemplate() throws Exception {
+        final String[] srcs = {
+            "$$ var x = 1;\nHello ${user} ${x}\n",
+            "<report>\n\n  $$ var y = 2;\n$$ var z = 3;\n\n    ${user + y + z}\n</report>",
+            "Hi ${user}\n$$ if (true) {\n  again\n$$ }\n$$",
+            ""
+        };
+        final java.nio.file.Path file = java.nio.file.Files.createTempFile("jxlt", ".jxlt");
+        try {
+            for (final String src : srcs) {
+                java.nio.file.Files.write(file, src.getBytes(ENGINE.getCharset()));
+                final JxltEngine.Template expected = JXLT.createTemplate("$$", new StringReader(src), "user");
+                final JxltEngine.Template read = JXLT.createTemplate(null, "$$", file, "user");
+                Assert.assertEquals(src, expected.asString(), read.asString());
+                final StringWriter lhs = new StringWriter();
+                expected.evaluate(context, lhs, "world");
+                final StringWriter rhs = new StringWriter();
+                read.evaluate(context, rhs, "world");
+                Assert.assertEquals(src, lhs.toString(), rhs.toString());
+            }
+        } finally {
+            java.nio.file.Files.delete(file);
+        }
+    }
+
     @Test
     public void testReport() throws Exception {
         final String rpt
@@ -823,6 +955,40 @@ public class JXLTTest extends JexlTestCase {
         Assert.assertTrue(output.contains("table1") && output.contains("table2"));
     }
 
+    @Test
+    public void testOutputStream() throws Exception {
+        context.set("tables", new String[]{"table1", "tabl\u00e92"});
+        context.set("w" ,"x=1");
+        final JxltEngine.Template inc = JXLT.createTemplate("$$", new StringReader("-- ${c} ${x}\u00e7\n"), "c", "x");
+        context.set("inc", inc);
+        final JxltEngine.Template t = JXLT.createTemplate("$$", new StringReader(
+             "s\u00e9lect * from \n"+
+             "$$var comma = false; \n"+
+             "$$for(var c : tables) { \n"+
+             "$$  if (comma) $jexl.write(','); else comma = true;\n"+
+             "${c}"+
+             "\n$$}\n"+
+             "$$ jexl:include(inc, '\u00fc', 42);\n"+
+             "$$ var f = (z) -> { jexl:include(inc, z, '\u20ac'); };\n"+
+             "$$ f('\u00e0');\n"+
+             "where ${w} \ud83d\ude00 #{size(tables)}\n"
+        ));
+        final StringWriter strw = new StringWriter();
+        t.evaluate(context, strw);
+        final String expected = strw.toString();
+        Assert.assertTrue(expected, expected.contains("tabl\u00e92") && expected.contains("-- \u00e0 \u20ac\u00e7"));
+        for (final java.nio.charset.Charset cs : Arrays.asList(
+                java.nio.charset.StandardCharsets.UTF_8,
+                java.nio.charset.StandardCharsets.UTF_16,
+                java.nio.charset.StandardCharsets.ISO_8859_1)) {
+            for (int i = 0; i < 2; ++i) {
+                final java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+                t.evaluate(context, out, cs);
+                Assert.assertArrayEquals(cs.name(), expected.getBytes(cs), out.toByteArray());
+            }
+        }
+    }
+
     public static class Executor311 {
         private final String name;
 
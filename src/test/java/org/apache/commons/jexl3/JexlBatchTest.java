@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the parallel batch executor.
+ */
+public class JexlBatchTest {
+    private static List<JexlContext> contexts(final int size) {
+        final List<JexlContext> contexts = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            final MapContext ctxt = new MapContext();
+            ctxt.set("i", i);
+            contexts.add(ctxt);
+        }
+        return contexts;
+    }
+
+    @Test
+    public void testOrdered() {
+        final JexlEngine jexl = new JexlBuilder().strict(true).create();
+        final JexlScript script = jexl.createScript("i % 7 == 3 ? i / 0 : i * k", "k");
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final List<JexlBatch.Result> results = new JexlBatch(pool).execute(script, contexts(1000), 2);
+            Assert.assertEquals(1000, results.size());
+            for (int i = 0; i < results.size(); ++i) {
+                final JexlBatch.Result result = results.get(i);
+                Assert.assertFalse(result.isCancelled());
+                if (i % 7 == 3) {
+                    Assert.assertNotNull(result.getException());
+                    Assert.assertNull(result.getValue());
+                } else {
+                    Assert.assertNull(result.getException());
+                    Assert.assertEquals(i * 2, result.getValue());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testTimeout() {
+        final JexlEngine jexl = new JexlBuilder().cancellable(true).create();
+        final JexlScript script = jexl.createScript("while(true) { i += 1; }");
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            final JexlBatch batch = new JexlBatch(pool).timeout(100, TimeUnit.MILLISECONDS);
+            Assert.assertEquals(100L, batch.timeout());
+            final long start = System.currentTimeMillis();
+            final List<JexlBatch.Result> results = batch.execute(script, contexts(16));
+            Assert.assertTrue(System.currentTimeMillis() - start < 10_000L);
+            Assert.assertEquals(16, results.size());
+            for (final JexlBatch.Result result : results) {
+                Assert.assertTrue(result.isCancelled());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** A function that ignores cancellation. */
+    public static class Blocker {
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        public int block() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    latch.await();
+                    break;
+                } catch (final InterruptedException xint) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return 0;
+        }
+
+        public void release() {
+            latch.countDown();
+        }
+    }
+
+    @Test
+    public void testTimeoutUncancellable() {
+        final JexlEngine jexl = new JexlBuilder().cancellable(true).create();
+        final JexlScript script = jexl.createScript("i == 3 ? blocker.block() : i", "blocker");
+        final Blocker blocker = new Blocker();
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            final JexlBatch batch = new JexlBatch(pool).timeout(100, TimeUnit.MILLISECONDS);
+            final long start = System.currentTimeMillis();
+            final List<JexlBatch.Result> results = batch.execute(script, contexts(8), blocker);
+            // the caller returns although the row never finishes
+            Assert.assertTrue(System.currentTimeMillis() - start < 10_000L);
+            Assert.assertEquals(8, results.size());
+            Assert.assertTrue(results.get(3).isCancelled());
+        } finally {
+            blocker.release();
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks the script warm-up.
+ */
+public class JexlWarmUpTest extends JexlTestCase {
+
+    public JexlWarmUpTest() {
+        super("JexlWarmUpTest");
+    }
+
+    @Test
+    public void testWarmUp() {
+        final JexlEngine jexl = new JexlBuilder().cache(16).strict(true).create();
+        final JexlScript script = jexl.createScript(
+            "if (flag) { m.count = m.count + list.size() } else { list.get(0).nosuch() } m['count']",
+            "flag", "m", "list");
+        final Map<String, Object> map = new HashMap<>();
+        map.put("count", 1);
+        final List<Object> list = new ArrayList<>();
+        list.add("a");
+        final JexlWarmUp report = jexl.warmUp(script, new MapContext(), true, map, list);
+        Assert.assertNull(report.getException());
+        Assert.assertEquals(6, report.getEntries().size());
+        // the else branch was not evaluated
+        final List<JexlWarmUp.Entry> uncached = report.getUncached();
+        Assert.assertEquals(2, uncached.size());
+        Assert.assertEquals(".get(0)", uncached.get(0).getSource());
+        Assert.assertEquals(1, uncached.get(0).getInfo().getLine());
+        Assert.assertTrue(report.toString(), report.toString().startsWith("4/6 cached"));
+        // the warmed up script is evaluated as usual
+        Assert.assertEquals(3, script.execute(null, true, map, list));
+    }
+
+    @Test
+    public void testWarmUpError() {
+        final JexlEngine jexl = new JexlBuilder().cache(16).strict(true).create();
+        final JexlScript script = jexl.createScript("x.size() + x.nosuch()", "x");
+        final JexlWarmUp report = jexl.warmUp(script, null, new ArrayList<>());
+        Assert.assertNotNull(report.getException());
+        Assert.assertEquals(1, report.getUncached().size());
+        Assert.assertTrue(report.toString(), report.toString().contains("nosuch"));
+        try {
+            JEXL.warmUp(script, null);
+            Assert.fail("script was not created by this engine");
+        } catch (final IllegalArgumentException xarg) {
+            Assert.assertNotNull(xarg);
+        }
+    }
+
+    public static class Value {
+        private final int value;
+
+        public Value(final int value) {
+            this.value = value;
+        }
+
+        public int getValue() {
+            return value;
+        }
+    }
+
+    public static class Value1 extends Value {
+        public Value1() {
+            super(1);
+        }
+    }
+
+    public static class Value2 extends Value {
+        public Value2() {
+            super(2);
+        }
+    }
+
+    public static class Value3 extends Value {
+        public Value3() {
+            super(3);
+        }
+    }
+
+    public static class Value4 extends Value {
+        public Value4() {
+            super(4);
+        }
+    }
+
+    public static class Value5 extends Value {
+        public Value5() {
+            super(5);
+        }
+    }
+
+    public static class ValueArithmetic extends JexlArithmetic {
+        public ValueArithmetic(final boolean astrict) {
+            super(astrict);
+        }
+
+        public Object add(final Value lhs, final Value rhs) {
+            return lhs.getValue() + rhs.getValue();
+        }
+    }
+
+    @Test
+    public void testOperators() {
+        final JexlEngine jexl = new JexlBuilder().cache(16).arithmetic(new ValueArithmetic(true)).create();
+        final JexlScript script = jexl.createScript("flag ? x + y : y + x - 1", "flag", "x", "y");
+        final JexlWarmUp report = jexl.warmUp(script, null, true, new Value1(), new Value2());
+        Assert.assertNull(report.getException());
+        // only the overloaded operator nodes are listed, subtract is not overloaded
+        Assert.assertEquals(2, report.getEntries().size());
+        final JexlWarmUp.Entry evaluated = report.getEntries().get(0);
+        Assert.assertEquals(JexlOperator.ADD, evaluated.getOperator());
+        Assert.assertTrue(evaluated.isCached());
+        final List<JexlWarmUp.Entry> uncached = report.getUncached();
+        Assert.assertEquals(1, uncached.size());
+        Assert.assertEquals("y + x", uncached.get(0).getSource());
+        // no overloads, no operator nodes
+        final JexlScript plain = JEXL.createScript("x + y", "x", "y");
+        Assert.assertTrue(JEXL.warmUp(plain, null, 1, 2).getEntries().isEmpty());
+    }
+
+    @Test
+    public void testPolymorphic() {
+        final JexlEngine jexl = new JexlBuilder().cache(16).strict(true).create();
+        final JexlScript script = jexl.createScript("var s = 0; for (var x : list) { s += x.value } s", "list");
+        final List<Object> list = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            list.add(new Value1());
+            list.add(new Value2());
+            list.add(new Value3());
+        }
+        final JexlWarmUp report = jexl.warmUp(script, null, list);
+        Assert.assertEquals(1, report.getEntries().size());
+        final JexlWarmUp.Entry entry = report.getEntries().get(0);
+        Assert.assertTrue(entry.isCached());
+        Assert.assertFalse(entry.isMegamorphic());
+        // the first evaluation of each class resolves its getter, then all hit
+        Assert.assertEquals(2, entry.getMisses());
+        Assert.assertEquals(27, entry.getHits());
+        Assert.assertEquals(60, script.execute(null, list));
+        Assert.assertEquals(2, entry.getMisses());
+        Assert.assertEquals(57, entry.getHits());
+        // beyond the limit, the node no longer caches
+        list.add(new Value4());
+        list.add(new Value5());
+        Assert.assertEquals(69, script.execute(null, list));
+        Assert.assertTrue(entry.isMegamorphic());
+        Assert.assertFalse(entry.isCached());
+        Assert.assertEquals(69, script.execute(null, list));
+    }
+}
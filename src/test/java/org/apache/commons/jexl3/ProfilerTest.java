@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks the per-node profiler.
+ */
+public class ProfilerTest extends JexlTestCase {
+
+    public ProfilerTest() {
+        super("ProfilerTest");
+    }
+
+    /** A context exposing a profiler. */
+    public static class ProfiledContext extends MapContext implements JexlContext.ProfilerHandle {
+        private final JexlProfiler profiler;
+
+        public ProfiledContext(final JexlProfiler profiler) {
+            this.profiler = profiler;
+        }
+
+        @Override
+        public JexlProfiler getProfiler() {
+            return profiler;
+        }
+    }
+
+    @Test
+    public void testCounters() {
+        final JexlScript script = JEXL.createScript(new JexlInfo("profiled", 1, 1),
+            "var f = (a) -> { a * 2 };\n"
+          + "var s = 0;\n"
+          + "for (var i : 1..n) {\n"
+          + "  s = s + f(i);\n"
+          + "}\n"
+          + "s", "n");
+        final JexlProfiler profiler = new JexlProfiler();
+        Assert.assertEquals(110, script.execute(new ProfiledContext(profiler), 10));
+        JexlProfiler.Entry add = null;
+        for (final JexlProfiler.Entry entry : profiler.getEntries()) {
+            Assert.assertTrue(entry.getCount() > 0);
+            Assert.assertTrue(entry.getInclusiveNanos() >= entry.getExclusiveNanos());
+            Assert.assertEquals("profiled", entry.getInfo().getName());
+            if (entry.getSource().equals("s + f(i)")) {
+                add = entry;
+            }
+        }
+        Assert.assertNotNull(add);
+        Assert.assertEquals(10, add.getCount());
+        Assert.assertEquals(4, add.getInfo().getLine());
+        // the lambda body is evaluated by another interpreter, profiled as well
+        boolean lambda = false;
+        for (final JexlProfiler.Entry entry : profiler.getEntries()) {
+            if (entry.getSource().equals("a * 2")) {
+                Assert.assertEquals(10, entry.getCount());
+                lambda = true;
+            }
+        }
+        Assert.assertTrue(lambda);
+        final String table = profiler.toString();
+        Assert.assertTrue(table, table.contains("s + f(i)"));
+        Assert.assertTrue(table, table.startsWith("line:column"));
+        // the annotated source
+        final String listing = profiler.listing(script);
+        Assert.assertTrue(listing, listing.startsWith("    1 | var f = (a) -> { a * 2 };"));
+        Assert.assertTrue(listing, listing.contains("    4 |   s = s + f(i);"));
+        Assert.assertTrue(listing, listing.contains("      |       ^ 10 x "));
+        Assert.assertTrue(listing, listing.contains(" excl: s + f(i)"));
+        profiler.clear();
+        Assert.assertTrue(profiler.getEntries().isEmpty());
+    }
+
+    @Test
+    public void testDisabled() {
+        final JexlScript script = JEXL.createScript("x + 1", "x");
+        Assert.assertEquals(2, script.execute(new ProfiledContext(null), 1));
+        final JexlProfiler profiler = new JexlProfiler();
+        Assert.assertEquals(2, script.execute(new MapContext(), 1));
+        Assert.assertTrue(profiler.getEntries().isEmpty());
+        Assert.assertEquals(2, script.execute(new ProfiledContext(profiler), 1));
+        // the script and its add node
+        Assert.assertEquals(2, profiler.getEntries().stream()
+            .filter(e -> e.getSource().equals("x + 1") && e.getCount() == 1).count());
+    }
+
+    @Test
+    public void testLocations() {
+        final JexlInfo info = new JexlInfo("located", 1, 1);
+        final String src = "var r = 0;\nfor (var i : 1..4) { r += i }\nr";
+        final JexlProfiler profiler = new JexlProfiler();
+        // two parsings of the same script share their counters
+        final JexlEngine jexl = new JexlBuilder().cache(0).create();
+        final JexlScript s0 = jexl.createScript(info, src);
+        final JexlScript s1 = jexl.createScript(info, src);
+        Assert.assertNotSame(s0, s1);
+        Assert.assertEquals(10, s0.execute(new ProfiledContext(profiler)));
+        final int size = profiler.getEntries().size();
+        Assert.assertEquals(10, s1.execute(new ProfiledContext(profiler)));
+        Assert.assertEquals(size, profiler.getEntries().size());
+        Assert.assertTrue(profiler.getEntries().stream()
+            .anyMatch(e -> e.getSource().equals("r += i") && e.getCount() == 8));
+    }
+
+    @Test
+    public void testExceptions() {
+        final JexlScript script = JEXL.createScript("var r = 0; for (var i : 1..5) { if (i > 2) break; r += i; } r");
+        final JexlProfiler profiler = new JexlProfiler();
+        Assert.assertEquals(3, script.execute(new ProfiledContext(profiler)));
+        // the visits interrupted by break are accounted for as well
+        Assert.assertTrue(profiler.getEntries().stream().anyMatch(e -> e.getSource().equals("break")));
+    }
+}
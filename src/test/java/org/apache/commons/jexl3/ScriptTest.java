@@ -25,6 +25,9 @@ import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.InetSocketAddress;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.function.Function;
@@ -290,4 +293,30 @@ public class ScriptTest extends JexlTestCase {
         Assert.assertEquals("OK", resultatJexl.getCode());
     }
 
+    @Test
+    public void testExecuteAll() {
+        final JexlScript s = JEXL.createScript("var t = x * y; t + z", "x", "y");
+        final JexlContext jc = new MapContext();
+        jc.set("z", 1);
+        final List<Object[]> rows = Arrays.asList(new Object[]{2, 3}, new Object[]{4, 5}, new Object[]{6, 0});
+        Assert.assertEquals(Arrays.asList(7, 21, 1), s.executeAll(jc, rows));
+        Assert.assertTrue(s.executeAll(jc, Arrays.asList()).isEmpty());
+        // rows from a stream
+        final JexlScript filter = JEXL.createScript("row.length() > min", "row");
+        jc.set("min", 2);
+        final BitSet bits = filter.test(jc, Arrays.stream(new String[]{"a", "abc", "abcd", "", "xyz"})
+                .map(row -> new Object[]{row})::iterator);
+        Assert.assertEquals("{1, 2, 4}", bits.toString());
+    }
+
+    @Test
+    public void testExecuteAllClosure() {
+        final JexlScript add = (JexlScript) JEXL.createScript("var k = 10; (x, y) -> x + y + k").execute(null);
+        final List<Object[]> rows = Arrays.asList(new Object[]{1, 2}, new Object[]{3, 4});
+        Assert.assertEquals(Arrays.asList(13, 17), add.executeAll(null, rows));
+        final JexlScript curried = add.curry(100);
+        Assert.assertEquals(Arrays.asList(112, 114), curried.executeAll(null,
+                Arrays.asList(new Object[]{2}, new Object[]{4})));
+    }
+
 }
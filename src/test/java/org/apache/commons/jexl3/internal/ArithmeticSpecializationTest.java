@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3.internal;
+
+import org.apache.commons.jexl3.JexlArithmetic;
+import org.apache.commons.jexl3.JexlBuilder;
+import org.apache.commons.jexl3.JexlEngine;
+import org.apache.commons.jexl3.JexlOperator;
+import org.apache.commons.jexl3.parser.ASTAddNode;
+import org.apache.commons.jexl3.parser.JexlNode;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks the type-specialized arithmetic operations.
+ */
+public class ArithmeticSpecializationTest {
+    private static final Object[] OPERANDS = {
+        0, 1, -7, 42, Integer.MAX_VALUE, Integer.MIN_VALUE,
+        0L, 3L, -5L, Long.MAX_VALUE, Long.MIN_VALUE, (long) Integer.MAX_VALUE + 1,
+        0.0d, -0.0d, 1.5d, -2.25d, Double.NaN, Double.POSITIVE_INFINITY
+    };
+
+    private static final JexlOperator[] OPERATORS = {
+        JexlOperator.ADD, JexlOperator.SUBTRACT, JexlOperator.MULTIPLY,
+        JexlOperator.EQ, JexlOperator.LT, JexlOperator.LTE, JexlOperator.GT, JexlOperator.GTE
+    };
+
+    private static Object stock(final JexlArithmetic arithmetic, final JexlOperator operator,
+                                final Object left, final Object right) {
+        switch (operator) {
+            case ADD: return arithmetic.add(left, right);
+            case SUBTRACT: return arithmetic.subtract(left, right);
+            case MULTIPLY: return arithmetic.multiply(left, right);
+            case EQ: return arithmetic.equals(left, right);
+            case LT: return arithmetic.lessThan(left, right);
+            case LTE: return arithmetic.lessThanOrEqual(left, right);
+            case GT: return arithmetic.greaterThan(left, right);
+            case GTE: return arithmetic.greaterThanOrEqual(left, right);
+            default: throw new IllegalArgumentException(operator.toString());
+        }
+    }
+
+    @Test
+    public void testSameAsStock() {
+        final JexlArithmetic arithmetic = new JexlArithmetic(true);
+        for (final JexlOperator operator : OPERATORS) {
+            for (final Object left : OPERANDS) {
+                for (final Object right : OPERANDS) {
+                    final JexlNode node = new ASTAddNode(0);
+                    final Object fast = ArithmeticSpecialization.tryEvaluate(node, operator, left, right);
+                    if (left.getClass() == right.getClass()) {
+                        final Object expected = stock(arithmetic, operator, left, right);
+                        final String msg = left + " " + operator + " " + right;
+                        Assert.assertEquals(msg, expected, fast);
+                        Assert.assertEquals(msg, expected.getClass(), fast.getClass());
+                    } else {
+                        Assert.assertSame(JexlEngine.TRY_FAILED, fast);
+                        Assert.assertSame(ArithmeticSpecialization.GENERIC, node.jjtGetValue());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDeoptimize() {
+        final JexlNode node = new ASTAddNode(0);
+        Assert.assertSame(JexlEngine.TRY_FAILED, ArithmeticSpecialization.tryEvaluate(node, JexlOperator.ADD, null, 1));
+        Assert.assertNull(node.jjtGetValue());
+        Assert.assertEquals(3, ArithmeticSpecialization.tryEvaluate(node, JexlOperator.ADD, 1, 2));
+        Assert.assertSame(ArithmeticSpecialization.INTEGER, node.jjtGetValue());
+        Assert.assertSame(JexlEngine.TRY_FAILED, ArithmeticSpecialization.tryEvaluate(node, JexlOperator.ADD, 1.0d, 2.0d));
+        Assert.assertSame(ArithmeticSpecialization.GENERIC, node.jjtGetValue());
+        // generic for good
+        Assert.assertSame(JexlEngine.TRY_FAILED, ArithmeticSpecialization.tryEvaluate(node, JexlOperator.ADD, 1, 2));
+    }
+
+    @Test
+    public void testInterpreter() {
+        final JexlEngine jexl = new JexlBuilder().cache(16).create();
+        final Script script = (Script) jexl.createScript("x + y", "x", "y");
+        Assert.assertEquals(5, script.execute(null, 2, 3));
+        Assert.assertSame(ArithmeticSpecialization.INTEGER, script.script.jjtGetChild(0).jjtGetValue());
+        Assert.assertEquals(5000000000L, script.execute(null, Integer.MAX_VALUE, 2852516353L));
+        Assert.assertSame(ArithmeticSpecialization.GENERIC, script.script.jjtGetChild(0).jjtGetValue());
+        Assert.assertEquals("ab", script.execute(null, "a", "b"));
+        // derived arithmetic is never specialized
+        final JexlEngine jexl2 = new JexlBuilder().cache(16).arithmetic(new JexlArithmetic(true) {}).create();
+        final Script script2 = (Script) jexl2.createScript("x * y", "x", "y");
+        Assert.assertEquals(6, script2.execute(null, 2, 3));
+        Assert.assertNull(script2.script.jjtGetChild(0).jjtGetValue());
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3.internal;
+
+import org.apache.commons.jexl3.JexlBuilder;
+import org.apache.commons.jexl3.JexlFeatures;
+import org.apache.commons.jexl3.JexlInfo;
+import org.apache.commons.jexl3.JexlScript;
+import org.apache.commons.jexl3.MapContext;
+import org.apache.commons.jexl3.parser.ASTJexlScript;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks saving and loading the expression cache.
+ */
+public class CacheFileTest {
+    private static final String[] SOURCES = {
+        "#pragma jexl.options '+strict'\n var z = 3; x + y + z",
+        "let f = (a, b) -> { a * b + x }; f(y, 2)",
+        "x < y ? 'lesser' : 'greater'",
+        "var s = 0; for (var i : x..y) { s += i }; s"
+    };
+
+    private static Engine createEngine() {
+        return (Engine) new JexlBuilder().cache(32).create();
+    }
+
+    @Test
+    public void testSaveLoad() throws IOException {
+        final Path path = File.createTempFile("jexl", ".cache").toPath();
+        try {
+            final Engine jexl = createEngine();
+            final Object[] expected = new Object[SOURCES.length];
+            for (int s = 0; s < SOURCES.length; ++s) {
+                final JexlScript script = jexl.createScript(new JexlInfo("test" + s, 3, 1), SOURCES[s], "x", "y");
+                expected[s] = script.execute(new MapContext(), 4, 7);
+            }
+            Assert.assertTrue(jexl.createExpression("1 + 2").evaluate(null).equals(3));
+            Assert.assertEquals(SOURCES.length + 1, jexl.saveCache(path));
+
+            final Engine jexl2 = createEngine();
+            Assert.assertEquals(SOURCES.length + 1, jexl2.loadCache(path));
+            final Debugger dbg = new Debugger();
+            final Set<ASTJexlScript> loadedTrees = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (final Map.Entry<Source, ASTJexlScript> entry : jexl2.cache.entries()) {
+                final ASTJexlScript loaded = entry.getValue();
+                loadedTrees.add(loaded);
+                Assert.assertNotNull(loaded.getFeatures());
+                final ASTJexlScript parsed = jexl.cache.get(entry.getKey());
+                Assert.assertNotNull(parsed);
+                Assert.assertNull(Util.checkEquals(parsed, loaded));
+                dbg.debug(parsed);
+                final String src = dbg.toString();
+                dbg.debug(loaded);
+                Assert.assertEquals(src, dbg.toString());
+                Assert.assertEquals(parsed.jexlInfo().toString(), loaded.jexlInfo().toString());
+                Assert.assertEquals(parsed.getPragmas(), loaded.getPragmas());
+            }
+            for (int s = 0; s < SOURCES.length; ++s) {
+                final JexlScript script = jexl2.createScript(SOURCES[s], "x", "y");
+                // hits the preloaded cache
+                Assert.assertTrue(loadedTrees.contains(((Script) script).script));
+                Assert.assertEquals(2, script.getParameters().length);
+                Assert.assertEquals(expected[s], script.execute(new MapContext(), 4, 7));
+            }
+            Assert.assertEquals(SOURCES.length + 1, jexl2.cache.count());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testStale() throws IOException {
+        final Path path = File.createTempFile("jexl", ".cache").toPath();
+        try {
+            final Engine jexl = createEngine();
+            jexl.createScript("x + y", "x", "y");
+            Assert.assertEquals(1, jexl.saveCache(path));
+            final Engine jexl2 = (Engine) new JexlBuilder().cache(32).features(new JexlFeatures().loops(false)).create();
+            Assert.assertEquals(0, jexl2.loadCache(path));
+            Assert.assertEquals(0, jexl2.cache.count());
+            // not a cache file
+            Files.write(path, "not a cache file".getBytes("UTF-8"));
+            try {
+                jexl.loadCache(path);
+                Assert.fail("should have failed");
+            } catch (final IOException xio) {
+                Assert.assertNotNull(xio);
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
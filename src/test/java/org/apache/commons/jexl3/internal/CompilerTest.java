@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3.internal;
+
+import org.apache.commons.jexl3.JexlArithmetic;
+import org.apache.commons.jexl3.JexlBuilder;
+import org.apache.commons.jexl3.JexlContext;
+import org.apache.commons.jexl3.JexlEngine;
+import org.apache.commons.jexl3.JexlScript;
+import org.apache.commons.jexl3.MapContext;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Checks compiled scripts evaluate exactly as interpreted ones.
+ */
+public class CompilerTest {
+    private static final String[] SOURCES = {
+        "x + y", "x - y * 2", "(x + y) / 3", "x % y", "x / 0", "x % 0", "-x + y",
+        "x == y", "x != y", "x < y", "x <= y", "x > y", "x >= y",
+        "x && y", "x || y", "!x", "x ? y : z", "x ?: z", "z ? x : y",
+        "x + z", "z + x", "z / x", "z < 1", "u + 1", "u ? 1 : 2",
+        "'a' + x", "x + 1.5", "x + 1.5B", "x * 100000000000", "1 + 2 * 3 - 4 / 5",
+        "var t = x + y; t * t", "let s = 0; for (var i : x..y) { s += i; } s",
+        "(x -> x * 2)(y)", "x + y; null", "true && x > 0 || false"
+    };
+
+    /** An arithmetic overloading add for lists. */
+    public static class ListArithmetic extends JexlArithmetic {
+        public ListArithmetic(final boolean astrict) {
+            super(astrict);
+        }
+
+        public Object add(final List<?> l, final Object r) {
+            final List<Object> result = new ArrayList<>(l);
+            result.add(r);
+            return result;
+        }
+
+        public Object not(final List<?> l) {
+            return l.isEmpty();
+        }
+    }
+
+    private static Object run(final JexlEngine jexl, final String src, final JexlContext ctxt, final Object... args) {
+        try {
+            final JexlScript script = jexl.createScript(src, "x", "y", "z");
+            return script.execute(ctxt, args);
+        } catch (final RuntimeException xany) {
+            return xany.getClass().getName() + ": " + xany.getMessage();
+        }
+    }
+
+    private static void checkSame(final JexlBuilder builder, final Object[]... argss) {
+        final JexlEngine interpreted = builder.compile(false).create();
+        final JexlEngine compiled = builder.compile(true).create();
+        for (final Object[] args : argss) {
+            for (final String src : SOURCES) {
+                final JexlContext ctxt = new MapContext();
+                final Object expected = run(interpreted, src, ctxt, args);
+                final Object result = run(compiled, src, ctxt, args);
+                Assert.assertEquals(src + " " + Arrays.toString(args), expected, result);
+            }
+        }
+    }
+
+    private static final Object[][] ARGS = {
+        {3, 4, null},
+        {0, 7L, true},
+        {2.5d, 2, false},
+        {new BigDecimal("1.5"), 3, "abc"},
+        {true, false, 1},
+        {"x", "y", 0},
+        {null, 1, 2},
+        {Arrays.asList(1, 2), 3, Arrays.asList()}
+    };
+
+    @Test
+    public void testLenient() {
+        checkSame(new JexlBuilder().strict(false).safe(false), ARGS);
+    }
+
+    @Test
+    public void testStrict() {
+        checkSame(new JexlBuilder().strict(true).safe(false), ARGS);
+    }
+
+    @Test
+    public void testSafe() {
+        checkSame(new JexlBuilder().strict(false).safe(true).silent(true), ARGS);
+    }
+
+    @Test
+    public void testOverloads() {
+        checkSame(new JexlBuilder().arithmetic(new ListArithmetic(true)).strict(true), ARGS);
+        checkSame(new JexlBuilder().arithmetic(new ListArithmetic(false)).strict(false), ARGS);
+    }
+
+    @Test
+    public void testCompiled() {
+        final Engine jexl = (Engine) new JexlBuilder().compile(true).create();
+        final Script script = (Script) jexl.createScript("x + 1", "x");
+        Assert.assertNotNull(script.code);
+        Assert.assertEquals(3, script.execute(null, 2));
+        final Script closure = (Script) ((JexlScript) jexl.createScript("var f = y -> y * 2; f").execute(null));
+        Assert.assertNull(closure.code);
+        Assert.assertEquals(6, closure.execute(null, 3));
+        final Engine jexl2 = (Engine) new JexlBuilder().create();
+        Assert.assertNull(((Script) jexl2.createScript("x + 1", "x")).code);
+    }
+
+    @Test
+    public void testCompiledOnce() {
+        final Engine jexl = (Engine) new JexlBuilder().compile(true).cache(16).create();
+        final Script script = (Script) jexl.createScript("x + y", "x", "y");
+        // cache hits and curried scripts share the tree and its code
+        final Script hit = (Script) jexl.createScript("x + y", "x", "y");
+        Assert.assertNotSame(script, hit);
+        Assert.assertSame(script.code, hit.code);
+        final Script curried = (Script) script.curry(1);
+        Assert.assertSame(script.code, curried.code);
+        Assert.assertEquals(3, curried.execute(null, 2));
+    }
+}
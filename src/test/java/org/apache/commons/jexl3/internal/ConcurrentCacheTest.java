@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3.internal;
+
+import org.apache.commons.jexl3.JexlBuilder;
+import org.apache.commons.jexl3.JexlEngine;
+import org.apache.commons.jexl3.JexlScript;
+import org.apache.commons.jexl3.MapContext;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Checks the concurrent cache.
+ */
+public class ConcurrentCacheTest {
+
+    @Test
+    public void testCapacity() {
+        final ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(16);
+        for (int i = 0; i < 64; ++i) {
+            cache.put(i, Integer.toString(i));
+        }
+        Assert.assertEquals(16, cache.capacity());
+        Assert.assertEquals(16, cache.count());
+        Assert.assertEquals(48, cache.getEvictions());
+        Assert.assertEquals(16, cache.entries().size());
+        cache.clear();
+        Assert.assertEquals(0, cache.count());
+        Assert.assertNull(cache.get(63));
+    }
+
+    @Test
+    public void testSecondChance() {
+        final ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(4);
+        for (int i = 0; i < 4; ++i) {
+            cache.put(i, Integer.toString(i));
+        }
+        // visiting 0 saves it from the next eviction, 1 is evicted instead
+        Assert.assertEquals("0", cache.get(0));
+        cache.put(4, "4");
+        Assert.assertEquals("0", cache.get(0));
+        Assert.assertNull(cache.get(1));
+        Assert.assertEquals(2, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+        Assert.assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void testEngine() throws Exception {
+        final List<ConcurrentCache<?, ?>> caches = new ArrayList<>();
+        final JexlEngine jexl = new JexlBuilder().cache(8).cacheFactory(size -> {
+            final ConcurrentCache<?, ?> cache = new ConcurrentCache<>(size);
+            caches.add(cache);
+            return cache;
+        }).create();
+        Assert.assertEquals(1, caches.size());
+        final ConcurrentCache<?, ?> cache = caches.get(0);
+        final ExecutorService execs = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; ++t) {
+                futures.add(execs.submit(() -> {
+                    int sum = 0;
+                    for (int l = 0; l < 256; ++l) {
+                        final JexlScript script = jexl.createScript("x + " + (l % 16), "x");
+                        sum += (Integer) script.execute(new MapContext(), 1);
+                    }
+                    return sum;
+                }));
+            }
+            for (final Future<Integer> future : futures) {
+                Assert.assertEquals(Integer.valueOf(16 * (16 + 120)), future.get());
+            }
+        } finally {
+            execs.shutdown();
+        }
+        Assert.assertTrue(cache.count() <= 8);
+        Assert.assertEquals(4 * 256, cache.getHits() + cache.getMisses());
+        Assert.assertTrue(cache.getEvictions() > 0);
+        jexl.clearCache();
+        Assert.assertEquals(0, cache.count());
+        // the template engine expression and template caches
+        jexl.createJxltEngine(false, 8, '$', '#');
+        Assert.assertEquals(3, caches.size());
+    }
+}
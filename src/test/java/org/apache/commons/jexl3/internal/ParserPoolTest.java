@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3.internal;
+
+import org.apache.commons.jexl3.JexlBuilder;
+import org.apache.commons.jexl3.JexlException;
+import org.apache.commons.jexl3.JexlScript;
+import org.apache.commons.jexl3.parser.Parser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Checks the parser pool.
+ */
+public class ParserPoolTest {
+
+    @Test
+    public void testReuse() {
+        final ParserPool pool = new ParserPool(2);
+        final Parser p0 = pool.acquire();
+        final Parser p1 = pool.acquire();
+        Assert.assertNotSame(p0, p1);
+        pool.release(p0);
+        pool.release(p1);
+        // pool is full, this one is dropped
+        pool.release(ParserPool.createParser());
+        final Parser p2 = pool.acquire();
+        final Parser p3 = pool.acquire();
+        Assert.assertTrue((p2 == p0 && p3 == p1) || (p2 == p1 && p3 == p0));
+        Assert.assertEquals(4, pool.getContended());
+        Assert.assertEquals(2, pool.getAllocated());
+    }
+
+    @Test
+    public void testNoPool() {
+        final ParserPool pool = new ParserPool(0);
+        final Parser p0 = pool.acquire();
+        pool.release(p0);
+        Assert.assertNotSame(p0, pool.acquire());
+        Assert.assertEquals(2, pool.getAllocated());
+    }
+
+    @Test
+    public void testEngine() throws Exception {
+        final int nthreads = 4;
+        final Engine jexl = (Engine) new JexlBuilder().parserPool(nthreads).create();
+        Assert.assertEquals(nthreads, jexl.getParserPool().capacity());
+        final ExecutorService execs = Executors.newFixedThreadPool(nthreads);
+        try {
+            final List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < nthreads; ++t) {
+                futures.add(execs.submit(() -> {
+                    int sum = 0;
+                    for (int l = 0; l < 256; ++l) {
+                        final JexlScript script = jexl.createScript("var y = " + l + "; x + y", "x");
+                        sum += (Integer) script.execute(null, 1);
+                        try {
+                            jexl.createScript("x + ");
+                            Assert.fail("should have failed");
+                        } catch (final JexlException.Parsing xparse) {
+                            // parsers must remain usable after errors
+                        }
+                    }
+                    return sum;
+                }));
+            }
+            for (final Future<Integer> future : futures) {
+                Assert.assertEquals(Integer.valueOf(256 + 255 * 128), future.get());
+            }
+        } finally {
+            execs.shutdown();
+        }
+        // no more than one parser per thread beyond the main one
+        Assert.assertTrue(jexl.getParserPool().getAllocated() <= nthreads);
+    }
+}
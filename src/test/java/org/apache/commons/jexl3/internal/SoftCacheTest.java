@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3.internal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks the soft cache.
+ */
+public class SoftCacheTest {
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testSize() {
+        final SoftCache<Integer, String> cache = new SoftCache<>(16);
+        // size is the capacity, as it always was
+        Assert.assertEquals(16, cache.size());
+        Assert.assertEquals(16, cache.capacity());
+        Assert.assertEquals(0, cache.count());
+        for (int i = 0; i < 64; ++i) {
+            cache.put(i, Integer.toString(i));
+        }
+        Assert.assertEquals(16, cache.size());
+        Assert.assertEquals(16, cache.count());
+        Assert.assertEquals("63", cache.get(63));
+        Assert.assertNull(cache.get(0));
+        cache.clear();
+        Assert.assertEquals(16, cache.size());
+        Assert.assertEquals(0, cache.count());
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3.internal;
+
+import org.apache.commons.jexl3.JexlBuilder;
+import org.apache.commons.jexl3.JexlEngine;
+import org.apache.commons.jexl3.JexlException;
+import org.apache.commons.jexl3.JexlInfo;
+import org.apache.commons.jexl3.MapContext;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks the incremental recompilation of templates.
+ */
+public class TemplateRecompileTest {
+    private static final String SOURCE = "<report>\n"
+        + "$$ var x = 1;\n"
+        + "  ${user} ${x}\n"
+        + "$$ if (x > 0) {\n"
+        + "  positive ${x + 1}\n"
+        + "$$ }\n"
+        + "</report>\n";
+
+    private static TemplateEngine createEngine() {
+        return (TemplateEngine) new JexlBuilder().cache(32).create().createJxltEngine();
+    }
+
+    private static TemplateScript compile(final TemplateEngine jxlt, final TemplateScript previous, final String src) {
+        return jxlt.createTemplate(previous, new JexlInfo("report", 1, 1), "$$", new StringReader(src), "user");
+    }
+
+    private static String render(final TemplateScript template) {
+        final StringWriter strw = new StringWriter();
+        template.evaluate(new MapContext(), strw, "world");
+        return strw.toString();
+    }
+
+    @Test
+    public void testUnchanged() {
+        final TemplateEngine jxlt = createEngine();
+        final TemplateScript t0 = compile(jxlt, null, SOURCE);
+        final TemplateScript t1 = compile(jxlt, t0, SOURCE);
+        Assert.assertNotSame(t0, t1);
+        Assert.assertSame(t0.getScript(), t1.getScript());
+        final TemplateEngine.TemplateExpression[] e0 = t0.getExpressions();
+        final TemplateEngine.TemplateExpression[] e1 = t1.getExpressions();
+        Assert.assertEquals(e0.length, e1.length);
+        for (int e = 0; e < e0.length; ++e) {
+            Assert.assertSame(e0[e], e1[e]);
+        }
+        Assert.assertEquals(render(t0), render(t1));
+    }
+
+    @Test
+    public void testDirectiveChanged() {
+        final TemplateEngine jxlt = createEngine();
+        final TemplateScript t0 = compile(jxlt, null, SOURCE);
+        Assert.assertEquals("<report>\n  world 1\n  positive 2\n</report>\n", render(t0));
+        // same symbols, the verbatim expressions are reused
+        final TemplateScript t1 = compile(jxlt, t0, SOURCE.replace("var x = 1;", "var x = 41;"));
+        Assert.assertNotSame(t0.getScript(), t1.getScript());
+        Assert.assertSame(t0.getExpressions()[1], t1.getExpressions()[1]);
+        Assert.assertSame(t0.getExpressions()[2], t1.getExpressions()[2]);
+        Assert.assertEquals("<report>\n  world 41\n  positive 42\n</report>\n", render(t1));
+        // a new variable changes the symbols, the expressions are parsed again
+        final TemplateScript t2 = compile(jxlt, t1, SOURCE.replace("var x = 1;", "var y = 2; var x = y;"));
+        Assert.assertNotSame(t1.getExpressions()[1], t2.getExpressions()[1]);
+        Assert.assertEquals("<report>\n  world 2\n  positive 3\n</report>\n", render(t2));
+    }
+
+    @Test
+    public void testVerbatimChanged() {
+        final TemplateEngine jxlt = createEngine();
+        final TemplateScript t0 = compile(jxlt, null, SOURCE);
+        final TemplateScript t1 = compile(jxlt, t0, SOURCE.replace("positive", "strictly positive"));
+        Assert.assertSame(t0.getScript(), t1.getScript());
+        Assert.assertSame(t0.getExpressions()[1], t1.getExpressions()[1]);
+        Assert.assertNotSame(t0.getExpressions()[2], t1.getExpressions()[2]);
+        Assert.assertEquals("<report>\n  world 1\n  strictly positive 2\n</report>\n", render(t1));
+        // moved blocks reuse copies anchored at their new line
+        final TemplateScript t2 = compile(jxlt, t1, "\n" + SOURCE);
+        Assert.assertNotSame(t1.getExpressions()[1], t2.getExpressions()[1]);
+        Assert.assertEquals("\n" + render(t0), render(t2));
+    }
+
+    @Test
+    public void testLinesInserted() {
+        final TemplateEngine jxlt = createEngine();
+        final TemplateScript t0 = compile(jxlt, null, SOURCE);
+        // a directive line without new symbols moves the following blocks down
+        final TemplateScript t1 = compile(jxlt, t0, SOURCE.replace("var x = 1;\n", "var x = 1;\n$$ x = x + 1;\n"));
+        final TemplateEngine.TemplateExpression[] e0 = t0.getExpressions();
+        final TemplateEngine.TemplateExpression[] e1 = t1.getExpressions();
+        Assert.assertEquals(e0.length, e1.length);
+        // constants have no position, the moved expressions are copies
+        Assert.assertSame(e0[0], e1[0]);
+        Assert.assertSame(e0[3], e1[3]);
+        for (int e = 1; e < 3; ++e) {
+            Assert.assertNotSame(e0[e], e1[e]);
+            Assert.assertEquals(e0[e].asString(), e1[e].asString());
+        }
+        Assert.assertEquals("<report>\n  world 2\n  positive 3\n</report>\n", render(t1));
+        // and a removed line moves them up
+        final TemplateScript t2 = compile(jxlt, t1, SOURCE);
+        Assert.assertEquals(render(t0), render(t2));
+    }
+
+    @Test
+    public void testLinesInsertedInfo() {
+        final TemplateEngine jxlt = (TemplateEngine) new JexlBuilder().cache(32).strict(true).silent(false)
+            .create().createJxltEngine();
+        final String src = "$$ var x = 1;\nHello\n${x + y}\n";
+        final TemplateScript t0 = compile(jxlt, null, src);
+        final TemplateScript t1 = compile(jxlt, t0, src.replace("var x = 1;\n", "var x = 1;\n$$ x = 2;\n"));
+        Assert.assertNotSame(t0.getExpressions()[0], t1.getExpressions()[0]);
+        try {
+            render(t1);
+            Assert.fail("should have failed");
+        } catch (final JexlException xjexl) {
+            Assert.assertEquals(4, xjexl.getInfo().getLine());
+        }
+        try {
+            render(t0);
+            Assert.fail("should have failed");
+        } catch (final JexlException xjexl) {
+            Assert.assertEquals(3, xjexl.getInfo().getLine());
+        }
+    }
+
+    @Test
+    public void testNotReusable() {
+        final TemplateEngine jxlt = createEngine();
+        final TemplateScript t0 = compile(jxlt, null, SOURCE);
+        // other parameters
+        final TemplateScript t1 = jxlt.createTemplate(t0, new JexlInfo("report", 1, 1), "$$",
+            new StringReader(SOURCE), "user", "more");
+        Assert.assertNotSame(t0.getScript(), t1.getScript());
+        Assert.assertNotSame(t0.getExpressions()[1], t1.getExpressions()[1]);
+        // other engine
+        final TemplateScript t2 = compile(createEngine(), t0, SOURCE);
+        Assert.assertNotSame(t0.getScript(), t2.getScript());
+        // prepared
+        final String hello = "Hello ${'world'}\n";
+        final TemplateScript t3 = compile(jxlt, null, hello).prepare(new MapContext());
+        final TemplateScript t4 = compile(jxlt, t3, hello);
+        Assert.assertNotSame(t3.getExpressions()[0], t4.getExpressions()[0]);
+        Assert.assertEquals(render(t3), render(t4));
+    }
+
+    @Test
+    public void testPreloadedFile() throws IOException {
+        final List<ConcurrentCache<?, ?>> caches = new ArrayList<>();
+        final JexlEngine jexl = new JexlBuilder().cache(32).cacheFactory(size -> {
+            final ConcurrentCache<?, ?> cache = new ConcurrentCache<>(size);
+            caches.add(cache);
+            return cache;
+        }).create();
+        final TemplateEngine jxlt = (TemplateEngine) jexl.createJxltEngine(false, 8, '$', '#');
+        // the engine cache, the template expressions and the templates
+        Assert.assertEquals(3, caches.size());
+        final ConcurrentCache<?, ?> templates = caches.get(2);
+        final Path dir = Files.createTempDirectory("jxlt");
+        final Path file = dir.resolve("report.jxlt");
+        try {
+            Files.write(file, SOURCE.getBytes(jexl.getCharset()));
+            Assert.assertEquals(1, jxlt.preload(dir, "$$", "user"));
+            Assert.assertEquals(1, templates.count());
+            final long hits = templates.getHits();
+            final TemplateScript template = jxlt.createTemplate(null, "$$", file, "user");
+            Assert.assertEquals(hits + 1, templates.getHits());
+            Assert.assertEquals(file.toString(), template.getScript().jexlInfo().getName());
+            Assert.assertEquals("<report>\n  world 1\n  positive 2\n</report>\n", render(template));
+        } finally {
+            Files.delete(file);
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void testFile() throws IOException {
+        final TemplateEngine jxlt = createEngine();
+        final Path file = Files.createTempFile("jxlt", ".jxlt");
+        try {
+            Files.write(file, SOURCE.getBytes(jxlt.getEngine().getCharset()));
+            final TemplateScript t0 = jxlt.createTemplate(null, "$$", file, "user");
+            Files.write(file, SOURCE.replace("var x = 1;", "var x = 2;").getBytes(jxlt.getEngine().getCharset()));
+            final TemplateScript t1 = jxlt.createTemplate(t0, null, "$$", file, "user");
+            Assert.assertSame(t0.getExpressions()[1], t1.getExpressions()[1]);
+            Assert.assertEquals("<report>\n  world 2\n  positive 3\n</report>\n", render(t1));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -108,7 +108,7 @@ public class Util {
      * @param rhs the right script
      * @return null if true, a reason otherwise
      */
-    private static String checkEquals(JexlNode lhs, JexlNode rhs) {
+    static String checkEquals(JexlNode lhs, JexlNode rhs) {
         if (lhs != rhs) {
             final ArrayList<JexlNode> lhsl = flatten(lhs);
             final ArrayList<JexlNode> rhsl = flatten(rhs);
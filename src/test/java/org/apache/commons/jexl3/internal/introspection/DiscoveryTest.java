@@ -17,16 +17,27 @@
 package org.apache.commons.jexl3.internal.introspection;
 
 import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import org.apache.commons.jexl3.JexlTestCase;
 import org.apache.commons.jexl3.internal.Engine;
 import org.apache.commons.jexl3.introspection.JexlPropertyGet;
 import org.apache.commons.jexl3.introspection.JexlPropertySet;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.commons.jexl3.introspection.JexlMethod;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -314,4 +325,133 @@ public class DiscoveryTest extends JexlTestCase {
         jmethod = uber.getMethod(bulgroz, "amb", 3d);
         Assert.assertNotNull(null, jmethod);
     }
+
+    @Test
+    public void testConcurrentIntrospection() throws Exception {
+        final Introspector is = new Introspector(LogFactory.getLog(DiscoveryTest.class),
+                                                 getClass().getClassLoader(), null);
+        final int nthreads = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(nthreads);
+        try {
+            final List<Future<Object[]>> futures = new ArrayList<>();
+            for (int t = 0; t < nthreads; ++t) {
+                futures.add(executor.submit(() -> new Object[]{
+                    is.getMethod(String.class, "length"),
+                    is.getMethod(ArrayList.class, "size"),
+                    is.getConstructor(new MethodKey(ArrayList.class.getName(), new Object[]{10})),
+                    is.getConstructor(new MethodKey("no.such.Clazz", new Object[0]))
+                }));
+            }
+            final Object[] first = futures.get(0).get();
+            Assert.assertNotNull(first[0]);
+            Assert.assertNotNull(first[1]);
+            Assert.assertNotNull(first[2]);
+            Assert.assertNull(first[3]);
+            for (final Future<Object[]> future : futures) {
+                final Object[] members = future.get();
+                for (int m = 0; m < members.length; ++m) {
+                    Assert.assertEquals(first[m], members[m]);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // changing the loader keeps the system classes
+        is.setLoader(new ClassLoader(getClass().getClassLoader()) {});
+        Assert.assertNotNull(is.getMethod(String.class, "length"));
+        Assert.assertNotNull(is.getConstructor(new MethodKey(ArrayList.class.getName(), new Object[]{10})));
+    }
+
+    private static <T> Set<T> asSet(final T[] array) {
+        return array == null ? null : new HashSet<>(Arrays.asList(array));
+    }
+
+    @Test
+    public void testLazyIntrospection() throws Exception {
+        final Log log = LogFactory.getLog(DiscoveryTest.class);
+        final Introspector eager = new Introspector(log, getClass().getClassLoader(), null, null);
+        final Introspector lazy = new Introspector(log, getClass().getClassLoader(), null,
+                EnumSet.of(Introspector.Option.LAZY_MAPS));
+        final Object[][] calls = {
+            {HashMap.class, "get", "key"},
+            {HashMap.class, "put", "key", 1},
+            {HashMap.class, "size"},
+            {HashMap.class, "nosuchmethod"},
+            {ArrayList.class, "add", 1},
+            {ArrayList.class, "add", 0, 1},
+            {String.class, "indexOf", "a", 1}
+        };
+        for (final Object[] call : calls) {
+            final Class<?> clazz = (Class<?>) call[0];
+            final String name = (String) call[1];
+            final Object[] args = Arrays.copyOfRange(call, 2, call.length);
+            Assert.assertEquals(name, eager.getMethod(clazz, name, args), lazy.getMethod(clazz, name, args));
+            Assert.assertEquals(name, asSet(eager.getMethods(clazz, name)), asSet(lazy.getMethods(clazz, name)));
+        }
+        final Class<?> bean = MethodHandleInvokerTest.Bean.class;
+        Assert.assertNotNull(lazy.getField(bean, "field"));
+        Assert.assertEquals(eager.getField(bean, "field"), lazy.getField(bean, "field"));
+        Assert.assertNull(lazy.getField(bean, "nosuchfield"));
+        for (final Class<?> clazz : new Class<?>[]{HashMap.class, ArrayList.class, String.class, bean}) {
+            final Set<String> enames = asSet(eager.getMethodNames(clazz));
+            final Set<String> lnames = asSet(lazy.getMethodNames(clazz));
+            Assert.assertEquals(enames, lnames);
+            for (final String name : enames) {
+                Assert.assertEquals(name, asSet(eager.getMethods(clazz, name)), asSet(lazy.getMethods(clazz, name)));
+            }
+            Assert.assertEquals(asSet(eager.getFieldNames(clazz)), asSet(lazy.getFieldNames(clazz)));
+        }
+    }
+
+    public interface HiddenConstant {
+        String HIDDEN = "interface";
+    }
+
+    public static class HiddenBase {
+        public String hidden = "base";
+    }
+
+    public static class HiddenDerived extends HiddenBase implements HiddenConstant {
+        public String hidden = "derived";
+        public int HIDDEN = 42;
+    }
+
+    @Test
+    public void testLazyHiddenField() throws Exception {
+        final Log log = LogFactory.getLog(DiscoveryTest.class);
+        final Introspector eager = new Introspector(log, getClass().getClassLoader(), null, null);
+        final Introspector lazy = new Introspector(log, getClass().getClassLoader(), null,
+                EnumSet.of(Introspector.Option.LAZY_MAPS));
+        for (final String name : new String[]{"hidden", "HIDDEN"}) {
+            final Field field = eager.getField(HiddenDerived.class, name);
+            Assert.assertNotNull(name, field);
+            Assert.assertEquals(name, field, lazy.getField(HiddenDerived.class, name));
+        }
+        Assert.assertEquals(asSet(eager.getFieldNames(HiddenDerived.class)),
+                asSet(lazy.getFieldNames(HiddenDerived.class)));
+    }
+
+    private static void assertResolved(final Class<?>[] expected, final Method method) {
+        Assert.assertNotNull(method);
+        Assert.assertArrayEquals(expected, method.getParameterTypes());
+    }
+
+    @Test
+    public void testOverloadResolution() throws Exception {
+        final Introspector is = new Introspector(LogFactory.getLog(DiscoveryTest.class),
+                                                 getClass().getClassLoader(), null);
+        assertResolved(new Class<?>[]{int.class}, is.getMethod(StringBuilder.class, "append", 1));
+        assertResolved(new Class<?>[]{String.class}, is.getMethod(StringBuilder.class, "append", "a"));
+        assertResolved(new Class<?>[]{CharSequence.class, int.class, int.class},
+                       is.getMethod(StringBuilder.class, "append", "abc", 0, 1));
+        Assert.assertNull(is.getMethod(StringBuilder.class, "append", 1, 2, 3, 4));
+        assertResolved(new Class<?>[]{long.class, long.class}, is.getMethod(Math.class, "max", 1L, 2L));
+        // varargs, from no to many variable arguments
+        final Class<?>[] format = new Class<?>[]{String.class, Object[].class};
+        assertResolved(format, is.getMethod(String.class, "format", "%s"));
+        assertResolved(format, is.getMethod(String.class, "format", "%s", 1));
+        assertResolved(format, is.getMethod(String.class, "format", "%s %s %s %s", 1, 2, 3, 4));
+        // resolutions are cached
+        Assert.assertSame(is.getMethod(String.class, "format", "%s", 1), is.getMethod(String.class, "format", "%s", 2));
+    }
 }
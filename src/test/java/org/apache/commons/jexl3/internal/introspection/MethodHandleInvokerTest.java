@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3.internal.introspection;
+
+import org.apache.commons.jexl3.JexlBuilder;
+import org.apache.commons.jexl3.JexlEngine;
+import org.apache.commons.jexl3.JexlException;
+import org.apache.commons.jexl3.introspection.JexlMethod;
+import org.apache.commons.jexl3.introspection.JexlPermissions;
+import org.apache.commons.jexl3.introspection.JexlPropertyGet;
+import org.apache.commons.jexl3.introspection.JexlPropertySet;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.EnumSet;
+
+/**
+ * Checks members invoked through method handles behave as through reflection.
+ */
+public class MethodHandleInvokerTest {
+    public static class Bean {
+        public int field = 42;
+        public static String constant = "constant";
+        private String value;
+
+        public Bean() {
+            this("");
+        }
+
+        public Bean(final String value) {
+            if (value == null) {
+                throw new IllegalStateException("null");
+            }
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(final String value) {
+            this.value = value;
+        }
+
+        public int add(final int x, final int y) {
+            return x + y;
+        }
+
+        public String join(final String... parts) {
+            return String.join(",", parts);
+        }
+
+        public static int twice(final int x) {
+            return 2 * x;
+        }
+
+        public void fail() {
+            throw new UnsupportedOperationException("fail");
+        }
+    }
+
+    private static Uberspect uberspect(final boolean handles) {
+        return new Uberspect(null, null, JexlPermissions.UNRESTRICTED,
+                handles ? EnumSet.of(Introspector.Option.METHOD_HANDLES) : null);
+    }
+
+    @Test
+    public void testSetLoaderDropsInvokers() throws Exception {
+        final ClassLoader loader = getClass().getClassLoader();
+        final Introspector is = new Introspector(null, loader, JexlPermissions.UNRESTRICTED,
+                EnumSet.of(Introspector.Option.METHOD_HANDLES));
+        final Method add = Bean.class.getMethod("add", int.class, int.class);
+        final MethodHandleInvoker mhi = is.getInvoker(add);
+        Assert.assertNotNull(mhi);
+        Assert.assertSame(mhi, is.getInvoker(add));
+        // Bean is loaded by the previous loader, its invokers are dropped
+        is.setLoader(new URLClassLoader(new URL[0], loader));
+        Assert.assertNotSame(mhi, is.getInvoker(add));
+    }
+
+    @Test
+    public void testInvokers() throws Exception {
+        for (final boolean handles : new boolean[]{false, true}) {
+            final Uberspect uber = uberspect(handles);
+            Assert.assertEquals(handles, uber.isMethodHandles());
+            final Bean bean = new Bean("a");
+            final JexlMethod add = uber.getMethod(bean, "add", 1, 2);
+            Assert.assertEquals(3, add.invoke(bean, 1, 2));
+            Assert.assertEquals(7, add.tryInvoke("add", bean, 3, 4));
+            final JexlMethod join = uber.getMethod(bean, "join", "x", "y");
+            Assert.assertEquals("x,y", join.invoke(bean, "x", "y"));
+            final JexlMethod twice = uber.getMethod(Bean.class, "twice", 21);
+            Assert.assertEquals(42, twice.invoke(Bean.class, 21));
+            final JexlMethod fail = uber.getMethod(bean, "fail");
+            try {
+                fail.invoke(bean);
+                Assert.fail("should have thrown");
+            } catch (final InvocationTargetException xinvoke) {
+                Assert.assertTrue(xinvoke.getCause() instanceof UnsupportedOperationException);
+            }
+            try {
+                fail.tryInvoke("fail", bean);
+                Assert.fail("should have thrown");
+            } catch (final JexlException.TryFailed xtry) {
+                Assert.assertTrue(xtry.getCause() instanceof UnsupportedOperationException);
+            }
+            try {
+                add.invoke(bean, "x", 2);
+                Assert.fail("should have thrown");
+            } catch (final IllegalArgumentException xarg) {
+                Assert.assertNotNull(xarg);
+            }
+            final JexlPropertyGet get = uber.getPropertyGet(bean, "value");
+            Assert.assertEquals("a", get.invoke(bean));
+            final JexlPropertySet set = uber.getPropertySet(bean, "value", "b");
+            set.invoke(bean, "b");
+            Assert.assertEquals("b", get.tryInvoke(bean, "value"));
+            Assert.assertEquals(42, uber.getPropertyGet(bean, "field").invoke(bean));
+            Assert.assertEquals("constant", uber.getPropertyGet(Bean.class, "constant").invoke(Bean.class));
+            final JexlMethod ctor = uber.getConstructor(Bean.class, "c");
+            Assert.assertEquals("c", ((Bean) ctor.invoke(Bean.class, "c")).getValue());
+            try {
+                ctor.invoke(Bean.class, (Object) null);
+                Assert.fail("should have thrown");
+            } catch (final InvocationTargetException xinvoke) {
+                Assert.assertTrue(xinvoke.getCause() instanceof IllegalStateException);
+            }
+        }
+    }
+
+    @Test
+    public void testPermissions() {
+        final JexlEngine jexl = new JexlBuilder().methodHandles(true).strict(true)
+                .permissions(JexlPermissions.RESTRICTED).create();
+        Assert.assertTrue(((Uberspect) jexl.getUberspect()).isMethodHandles());
+        Assert.assertEquals(3, jexl.createScript("'abc'.length()").execute(null));
+        try {
+            jexl.createScript("new('java.lang.ProcessBuilder', x)", "x").execute(null, "x");
+            Assert.fail("should have been denied");
+        } catch (final JexlException xjexl) {
+            Assert.assertNotNull(xjexl);
+        }
+    }
+}
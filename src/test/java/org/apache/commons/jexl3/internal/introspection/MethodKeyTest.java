@@ -167,6 +167,23 @@ public class MethodKeyTest {
         }
 
     }
+
+    @Test
+    public void testMatches() throws Exception {
+        final Object[][] argsList = {
+            null, {}, {1}, {"a", null}, {1, 2L, "c"}
+        };
+        for (final Object[] args : argsList) {
+            final MethodKey key = new MethodKey("foo", args);
+            Assert.assertTrue(key.matches("foo", args));
+            Assert.assertFalse(key.matches("bar", args));
+            for (final Object[] other : argsList) {
+                Assert.assertEquals(key.equals(new MethodKey("foo", other)), key.matches("foo", other));
+            }
+        }
+        Assert.assertFalse(new MethodKey("foo", new Object[]{1}).matches("foo", new Object[]{1L}));
+        Assert.assertFalse(new MethodKey("foo", new Object[]{null}).matches("foo", new Object[]{"a"}));
+    }
     private static final int LOOP = 3;//00;
 
     @Test
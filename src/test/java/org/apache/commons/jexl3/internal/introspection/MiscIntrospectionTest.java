@@ -16,7 +16,13 @@
  */
 package org.apache.commons.jexl3.internal.introspection;
 
+import org.apache.commons.jexl3.JexlArithmetic;
+import org.apache.commons.jexl3.JexlBuilder;
 import org.apache.commons.jexl3.JexlEngine;
+import org.apache.commons.jexl3.JexlOperator;
+import org.apache.commons.jexl3.JexlScript;
+import org.apache.commons.jexl3.introspection.JexlMethod;
+import org.apache.commons.jexl3.introspection.JexlPermissions;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -89,4 +95,56 @@ public class MiscIntrospectionTest {
         Assert.assertEquals(-1, alw.indexOf(null));
     }
 
+
+    public static class Money {
+        private final int amount;
+
+        public Money(final int amount) {
+            this.amount = amount;
+        }
+
+        public int getAmount() {
+            return amount;
+        }
+    }
+
+    public static class MoneyArithmetic extends JexlArithmetic {
+        public MoneyArithmetic(final boolean strict) {
+            super(strict);
+        }
+
+        public Money add(final Money lhs, final Money rhs) {
+            return new Money(lhs.amount + rhs.amount);
+        }
+
+        public Money add(final Money lhs, final Integer rhs) {
+            return new Money(lhs.amount + rhs);
+        }
+    }
+
+    @Test
+    public void testOperatorMethods() {
+        final Uberspect uber = new Uberspect(null, null, JexlPermissions.UNRESTRICTED);
+        final JexlArithmetic.Uberspect jau0 = uber.getArithmetic(new MoneyArithmetic(true));
+        final JexlArithmetic.Uberspect jau1 = uber.getArithmetic(new MoneyArithmetic(false));
+        final Money m = new Money(1);
+        // resolved once per arithmetic class and operand classes
+        final JexlMethod mm = jau0.getOperator(JexlOperator.ADD, m, m);
+        Assert.assertNotNull(mm);
+        Assert.assertSame(mm, jau1.getOperator(JexlOperator.ADD, m, new Money(2)));
+        final JexlMethod mi = jau0.getOperator(JexlOperator.ADD, m, 2);
+        Assert.assertNotNull(mi);
+        Assert.assertNotSame(mm, mi);
+        Assert.assertSame(mi, jau1.getOperator(JexlOperator.ADD, m, 3));
+        // no overload applies
+        Assert.assertNull(jau0.getOperator(JexlOperator.ADD, 1, 2));
+        Assert.assertNull(jau1.getOperator(JexlOperator.ADD, 1, 2));
+        Assert.assertNull(jau1.getOperator(JexlOperator.SUBTRACT, m, m));
+        // evaluation
+        final JexlEngine jexl = new JexlBuilder().arithmetic(new MoneyArithmetic(true)).uberspect(uber).create();
+        final JexlScript script = jexl.createScript("var s = m; for (var x : list) { s = s + x } s", "m", "list");
+        final Object result = script.execute(null, m, java.util.Arrays.asList(1, 2, m, 3, m));
+        Assert.assertEquals(9, ((Money) result).getAmount());
+        Assert.assertEquals(3, jexl.createScript("x + y", "x", "y").execute(null, 1, 2));
+    }
 }
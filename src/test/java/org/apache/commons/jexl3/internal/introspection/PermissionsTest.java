@@ -298,6 +298,42 @@ public class PermissionsTest {
         Assert.assertFalse(found);
     }
 
+    public static class A6 extends A2 {
+        public A6() {}
+    }
+
+    @Test
+    public void testClassDecisions() {
+        final StringBuilder strb = new StringBuilder("java.lang.*\n");
+        for (int i = 0; i < 256; ++i) {
+            strb.append("org.example.p").append(i).append(".*\n");
+        }
+        strb.append("org.apache.commons.jexl3.internal.introspection { PermissionsTest { A2 { } } }");
+        final JexlPermissions p0 = JexlPermissions.parse(strb.toString());
+        for (int i = 0; i < 2; ++i) {
+            // allowed through Object
+            Assert.assertTrue(p0.allow(A.class));
+            Assert.assertTrue(p0.allow(A0.class));
+            // denied, as are derived classes
+            Assert.assertFalse(p0.allow(A2.class));
+            Assert.assertFalse(p0.allow(A6.class));
+            Assert.assertTrue(p0.allow(String.class));
+            Assert.assertTrue(p0.allow(String[].class));
+        }
+        // composing does not alter the decisions already made
+        final JexlPermissions p1 = p0.compose(
+            "org.apache.commons.jexl3.internal.introspection { PermissionsTest { A { } } }");
+        Assert.assertFalse(p1.allow(A.class));
+        Assert.assertFalse(p1.allow(A0.class));
+        Assert.assertFalse(p1.allow(A6.class));
+        Assert.assertTrue(p0.allow(A.class));
+        Assert.assertTrue(p0.allow(A0.class));
+        // closed world
+        final JexlPermissions p2 = JexlPermissions.parse("org.example.*");
+        Assert.assertFalse(p2.allow(A.class));
+        Assert.assertFalse(p2.allow(String.class));
+    }
+
     @Test
     public void testSecurePermissions() {
         Assert.assertNotNull(JexlTestCase.SECURE);
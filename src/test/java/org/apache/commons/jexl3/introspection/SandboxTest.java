@@ -194,6 +194,31 @@ public class SandboxTest extends JexlTestCase {
         }
     }
 
+    @Test
+    public void testSandboxDecisions() throws Exception {
+        final JexlSandbox sandbox = new JexlSandbox();
+        final JexlSandbox.Permissions permissions = sandbox.allow(Foo.class.getName());
+        permissions.execute("doIt");
+        permissions.read().alias("name", "nom");
+        // no expression cache, every evaluation resolves through the sandbox
+        final JexlEngine sjexl = new JexlBuilder().sandbox(sandbox).cache(0).strict(true).safe(false).create();
+        // the engine sandbox is a copy
+        sandbox.block(Foo.class.getName());
+        final JexlScript script = sjexl.createScript("foo.nom + foo.doIt() + list[1]", "foo", "list");
+        final JexlScript denied = sjexl.createScript("foo.Quux()", "foo");
+        final Foo foo = new Foo("42");
+        final List<Object> list = Arrays.asList("a", "b");
+        for (int i = 0; i < 3; ++i) {
+            Assert.assertEquals("4242b", script.execute(null, foo, list));
+            try {
+                denied.execute(null, foo);
+                Assert.fail("Quux should not be callable");
+            } catch (final JexlException.Method xmethod) {
+                Assert.assertEquals("Quux", xmethod.getMethod());
+            }
+        }
+    }
+
     @Test
     public void testSetBlock() throws Exception {
         final String expr = "foo.alias = $0";
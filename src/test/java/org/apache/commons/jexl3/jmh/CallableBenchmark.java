@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.jexl3.JexlBuilder;
+import org.apache.commons.jexl3.JexlContext;
+import org.apache.commons.jexl3.JexlEngine;
+import org.apache.commons.jexl3.JexlScript;
+import org.apache.commons.jexl3.MapContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Executing a shared script as callables from concurrent threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class CallableBenchmark {
+    /** The script and engine shared by all threads. */
+    @State(Scope.Benchmark)
+    public static class Shared {
+        JexlEngine jexl;
+        JexlScript script;
+
+        @Setup
+        public void setup() {
+            jexl = new JexlBuilder().cache(64).create();
+            script = jexl.createScript("var s = 0; for (var i : 1..n) { s += i * x; } s", "n", "x");
+        }
+    }
+
+    /** The per-thread context. */
+    @State(Scope.Thread)
+    public static class Local {
+        JexlContext context;
+
+        @Setup
+        public void setup() {
+            context = new MapContext();
+        }
+    }
+
+    @Benchmark
+    public Object call(final Shared shared, final Local local) throws Exception {
+        return shared.script.callable(local.context, 100, 3).call();
+    }
+
+    @Benchmark
+    public Object createAndCall(final Shared shared, final Local local) throws Exception {
+        return shared.jexl.createScript("x * 2 + y", "x", "y").callable(local.context, 20, 1).call();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.jexl3.Foo;
+import org.apache.commons.jexl3.JexlBuilder;
+import org.apache.commons.jexl3.JexlContext;
+import org.apache.commons.jexl3.JexlEngine;
+import org.apache.commons.jexl3.JexlScript;
+import org.apache.commons.jexl3.MapContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Evaluating scripts: arithmetic, property and method access, foreach loops and lambda calls.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterpreterBenchmark {
+    /** Whether scripts are compiled. */
+    @Param({"false", "true"})
+    public boolean compile;
+
+    private JexlContext context;
+    private JexlScript arithmetic;
+    private JexlScript access;
+    private JexlScript foreach;
+    private JexlScript lambda;
+    private List<Integer> list;
+    private Foo foo;
+
+    @Setup
+    public void setup() {
+        final JexlEngine jexl = new JexlBuilder().cache(64).compile(compile).create();
+        context = new MapContext();
+        arithmetic = jexl.createScript(
+            "var s = 0; for (var i = 0; i < n; ++i) { s = s + i * 3 - i / 2 + (i % 7 > 3 ? 1 : 0); } s", "n");
+        access = jexl.createScript(
+            "var s = 0; for (var i = 0; i < n; ++i) { s += foo.count + foo.square(i) + foo.bar().length(); } s",
+            "foo", "n");
+        foreach = jexl.createScript("var s = 0; for (var e : list) { s += e; } s", "list");
+        lambda = jexl.createScript(
+            "var f = (a, b) -> a * b + 1; var s = 0; for (var i = 0; i < n; ++i) { s += f(i, 2); } s", "n");
+        list = new ArrayList<>();
+        for (int i = 0; i < 10_000; ++i) {
+            list.add(i);
+        }
+        foo = new Foo();
+    }
+
+    @Benchmark
+    public Object arithmetic() {
+        return arithmetic.execute(context, 1_000);
+    }
+
+    @Benchmark
+    public Object access() {
+        return access.execute(context, foo, 1_000);
+    }
+
+    @Benchmark
+    public Object foreach() {
+        return foreach.execute(context, list);
+    }
+
+    @Benchmark
+    public Object lambda() {
+        return lambda.execute(context, 1_000);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.jexl3.JexlBuilder;
+import org.apache.commons.jexl3.JexlContext;
+import org.apache.commons.jexl3.JexlEngine;
+import org.apache.commons.jexl3.JexlScript;
+import org.apache.commons.jexl3.MapContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Evaluating method-call heavy scripts, where the cached executors are re-used at each call.
+ * <p>Run with <code>-prof gc</code> to observe the allocation rate.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodCallBenchmark {
+    /** A receiver of method calls. */
+    public static class Calls {
+        public int add(final int x, final int y) {
+            return x + y;
+        }
+
+        public String name(final String prefix, final int n) {
+            return prefix;
+        }
+
+        public int size() {
+            return 1;
+        }
+    }
+
+    private JexlContext context;
+    private JexlScript methods;
+    private JexlScript strings;
+    private Calls calls;
+
+    @Setup
+    public void setup() {
+        final JexlEngine jexl = new JexlBuilder().cache(64).create();
+        context = new MapContext();
+        methods = jexl.createScript(
+            "var s = 0; for (var i = 0; i < n; ++i) { s = c.add(s, c.add(i, c.size())); } s", "c", "n");
+        strings = jexl.createScript(
+            "var s = 0; for (var i = 0; i < n; ++i) { s += c.name('abc', i).length() + 'xy'.indexOf('y'); } s",
+            "c", "n");
+        calls = new Calls();
+    }
+
+    @Benchmark
+    public Object methods() {
+        return methods.execute(context, calls, 1_000);
+    }
+
+    @Benchmark
+    public Object strings() {
+        return strings.execute(context, calls, 1_000);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.jexl3.JexlBuilder;
+import org.apache.commons.jexl3.JexlContext;
+import org.apache.commons.jexl3.JexlEngine;
+import org.apache.commons.jexl3.JexlScript;
+import org.apache.commons.jexl3.MapContext;
+import org.apache.commons.jexl3.introspection.JexlSandbox;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Evaluating property and method accesses with and without a sandbox.
+ * <p>The engines have no expression cache so that every access resolves its executor and thus
+ * checks the sandbox.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SandboxBenchmark {
+    /** A sandboxed bean. */
+    public static class Bean {
+        public int getValue() {
+            return 1;
+        }
+
+        public int twice(final int x) {
+            return 2 * x;
+        }
+    }
+
+    /** A derived bean, checked through sandbox inheritance. */
+    public static class DerivedBean extends Bean {
+    }
+
+    @Param({"false", "true"})
+    private boolean sandboxed;
+    private JexlContext context;
+    private JexlScript script;
+    private Bean bean;
+
+    @Setup
+    public void setup() {
+        final JexlBuilder builder = new JexlBuilder().cache(0);
+        if (sandboxed) {
+            final JexlSandbox sandbox = new JexlSandbox(true, true);
+            final JexlSandbox.Permissions permissions = sandbox.allow(Bean.class.getName());
+            permissions.read("value");
+            permissions.execute("twice");
+            builder.sandbox(sandbox);
+        }
+        final JexlEngine jexl = builder.create();
+        context = new MapContext();
+        script = jexl.createScript(
+            "var s = 0; for (var i = 0; i < 100; ++i) { s += b.value + b.twice(i); } s", "b");
+        bean = new DerivedBean();
+    }
+
+    @Benchmark
+    public Object evaluate() {
+        return script.execute(context, bean);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3.jmh;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.jexl3.JexlBuilder;
+import org.apache.commons.jexl3.JexlContext;
+import org.apache.commons.jexl3.JxltEngine;
+import org.apache.commons.jexl3.MapContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rendering JXLT templates and evaluating unified expressions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateBenchmark {
+    private static final String TEMPLATE =
+          "<html><body><h1>${title}</h1>\n"
+        + "<table>\n"
+        + "$$ for (var row : rows) {\n"
+        + "<tr><td>${row}</td><td>${row * 2}</td><td>#{'static'}</td></tr>\n"
+        + "$$ }\n"
+        + "</table></body></html>\n";
+
+    private JxltEngine jxlt;
+    private JxltEngine.Template template;
+    private JxltEngine.Expression expression;
+    private JexlContext context;
+
+    @Setup
+    public void setup() {
+        jxlt = new JexlBuilder().cache(64).create().createJxltEngine();
+        template = jxlt.createTemplate(TEMPLATE);
+        expression = jxlt.createExpression("Hello ${title}, #{1 + 2} rows");
+        final List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < 100; ++i) {
+            rows.add(i);
+        }
+        context = new MapContext();
+        context.set("title", "benchmark");
+        context.set("rows", rows);
+    }
+
+    @Benchmark
+    public String render() {
+        final StringWriter writer = new StringWriter();
+        template.evaluate(context, writer);
+        return writer.toString();
+    }
+
+    @Benchmark
+    public byte[] renderStream() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        template.evaluate(context, out, StandardCharsets.UTF_8);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] renderStreamWriter() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        final Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        template.evaluate(context, writer);
+        writer.flush();
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public Object expression() {
+        return expression.evaluate(context);
+    }
+
+    @Benchmark
+    public JxltEngine.Template createTemplate() {
+        return jxlt.createTemplate(TEMPLATE);
+    }
+}
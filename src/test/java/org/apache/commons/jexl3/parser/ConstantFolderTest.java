@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.jexl3.parser;
+
+import org.apache.commons.jexl3.JexlArithmetic;
+import org.apache.commons.jexl3.JexlBuilder;
+import org.apache.commons.jexl3.JexlEngine;
+import org.apache.commons.jexl3.JexlException;
+import org.apache.commons.jexl3.JexlScript;
+import org.apache.commons.jexl3.MapContext;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks the constant folding pass.
+ */
+public class ConstantFolderTest {
+    private static final String[][] FOLDED = {
+        {"1 + 2 * 3", "7"},
+        {"x + (2 * 3)", "x + 6"},
+        {"3600 * 1000 * 1000", "3600000000l"},
+        {"1.5 * 2", "3.0d"},
+        {"-2 + 1", "-1"},
+        {"'a' + 'b'", "'ab'"},
+        {"1 < 2 && x", "true && x"},
+        {"false && x", "false"},
+        {"true || x", "true"},
+        {"!(1 == 2)", "true"},
+        {"2 > 1 ? x : y", "x"},
+        {"if (1 > 2) { x } else { y }", "{ y; }"},
+        {"if (false) x; else if (true) y; else z;", "y"},
+        {"if (false) x; else if (y) x; else z;", "if (y) x; else z;"},
+        {"if (false) x;", "null"},
+        {"1 / 0", "1 / 0"},
+        {"x.y + 1", "x.y + 1"},
+        {"'a' + 1", "'a' + 1"},
+        {"1B + 1", "1.0b + 1"}
+    };
+
+    private static String parsed(final JexlEngine jexl, final String src) {
+        return jexl.createScript(src).getParsedText().replaceAll("\\s+", " ").trim();
+    }
+
+    @Test
+    public void testFolded() {
+        final JexlEngine jexl = new JexlBuilder().foldConstants(true).create();
+        for (final String[] pair : FOLDED) {
+            Assert.assertEquals(pair[0], pair[1], parsed(jexl, pair[0]));
+        }
+    }
+
+    @Test
+    public void testSameResults() {
+        final JexlEngine folding = new JexlBuilder().foldConstants(true).strict(true).create();
+        final JexlEngine plain = new JexlBuilder().strict(true).create();
+        for (final String[] pair : FOLDED) {
+            final MapContext ctxt = new MapContext();
+            ctxt.set("x", 42);
+            ctxt.set("y", "y");
+            ctxt.set("z", true);
+            Object expected;
+            try {
+                expected = plain.createScript(pair[0]).execute(ctxt);
+            } catch (final JexlException xjexl) {
+                expected = xjexl.getClass();
+            }
+            Object result;
+            try {
+                result = folding.createScript(pair[0]).execute(ctxt);
+            } catch (final JexlException xjexl) {
+                result = xjexl.getClass();
+            }
+            Assert.assertEquals(pair[0], expected, result);
+        }
+    }
+
+    @Test
+    public void testNotFolded() {
+        // default is not to fold
+        Assert.assertEquals("1 + 2", parsed(new JexlBuilder().create(), "1 + 2"));
+        // a derived arithmetic may overload operators
+        final JexlEngine jexl = new JexlBuilder().foldConstants(true).arithmetic(new JexlArithmetic(true) {
+            @Override
+            public Object add(final Object left, final Object right) {
+                return 42;
+            }
+        }).create();
+        Assert.assertEquals("1 + 2", parsed(jexl, "1 + 2"));
+        final JexlScript script = jexl.createScript("1 + 2");
+        Assert.assertEquals(42, script.execute(null));
+    }
+}